@@ -0,0 +1,994 @@
+package isongly;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Backend class - CS400 Project 1: iSongly
+ * This class implements BackendInterface and manages a collection of songs.
+ * It allows reading song data from a CSV file, filtering songs by year and loudness,
+ * and retrieving the five most danceable songs.
+ */
+public class Backend implements BackendInterface {
+  private IterableSortedCollection<Song> tree;
+  private Integer loudnessThreshold;
+  private Integer lowYear;
+  private Integer maxYear;
+  // dictionaries that encode each distinct genre and artist as a small int code
+  private Map<String, Integer> genreCodes = new HashMap<>();
+  private List<String> genreNames = new ArrayList<>();
+  private Map<String, Integer> artistCodes = new HashMap<>();
+  private List<String> artistNames = new ArrayList<>();
+  // the genre code in the high and the artist code in the low half of a long, for every song
+  // that readData loaded, so that facets does not look the names up again; guarded by genreCodes
+  private Map<Song, Long> songCodes = new IdentityHashMap<>();
+  // runs aggregate queries, splitting large selections across the fork/join pool
+  private ParallelAggregator aggregator = new ParallelAggregator(ParallelAggregator.DEFAULT_THRESHOLD);
+  // latency histograms and counters of the operations below
+  private final BackendMetrics metrics = new BackendMetrics();
+  // number of songs inserted by readData, so that an index which is built from the tree can tell
+  // that it is out of date even when the tree was cleared and reloaded to the same size
+  private final AtomicLong modifications = new AtomicLong();
+  // k-d tree of the songs for similar, and the songs by lowercase title, built on first use, with
+  // the modifications that they include
+  private SongKdTree similarityIndex = null;
+  private long similarityVersion = -1;
+  private Map<String, Song> songsByTitle = new HashMap<>();
+  private int titledSongs = 0;
+  private long titledVersion = -1;
+  // approximate index that similar uses instead of the k-d tree, updated by readData
+  private volatile HnswIndex approximateIndex = null;
+  // range tree of the songs over year, loudness and danceability for box, built on first use
+  private SongRangeTree boxIndex = null;
+  private long boxVersion = -1;
+  // the most danceable songs of every year for fiveMost, built on first use and then updated by
+  // readData
+  private volatile YearTopKIndex danceIndex = null;
+  // count, sum and maximum of danceability, energy and BPM per year range, built on first use
+  // and then updated by readData
+  private volatile YearSegmentTree yearStats = null;
+  // number of readData calls in progress, while which the indexes may lag behind the tree
+  private final AtomicInteger loading = new AtomicInteger();
+  // latest year of the songs loaded by readData, which bounds the decades counted by facets
+  private final AtomicInteger latestYear = new AtomicInteger();
+  // number of parser threads used by readData, or 0 to parse on the calling thread
+  private int ingestThreads = 0;
+  // number of rows per batch, and batches per queue, of the parallel ingest pipeline
+  private static final int INGEST_BATCH_SIZE = 4096;
+  private static final int INGEST_QUEUE_BATCHES = 16;
+
+  /**
+   * Constructor for Backend class
+   * Initializes the backend with a given tree data structure.
+   *
+   * @param tree an instance of IterableSortedCollection<Song>
+   */
+  public Backend(IterableSortedCollection<Song> tree) {
+    this.tree = tree;
+    this.loudnessThreshold = null;
+    this.lowYear = null;
+    this.maxYear = null;
+  }
+
+  Comparator<Song> yearComparator = new Comparator<Song>() {
+    @Override
+    public int compare(Song song1, Song song2) {
+      return Integer.compare(song1.getYear(), song2.getYear());
+    }
+  };
+
+  Comparator<Song> danceComparator = new Comparator<Song>() {
+    @Override
+    public int compare(Song song1, Song song2) {
+      return Integer.compare(song2.getDanceability(), song1.getDanceability());
+    }
+  };
+
+  /**
+   * Loads data from the .csv file referenced by filename.  You can rely
+   * on the exact headers found in the provided songs.csv, but you should
+   * not rely on them always being presented in this order or on there
+   * not being additional columns describing other song qualities.
+   * After reading songs from the file, the songs are inserted into
+   * the tree passed to this backend' constructor.  Don't forget to
+   * create a Comparator to pass to the constructor for each Song object that
+   * you create.  This will be used to store these songs in order within your
+   * tree, and to retrieve them by year range in the getRange method.
+   * @param filename is the name of the csv file to load data from
+   * @throws IOException when there is trouble finding/reading file
+   */
+  @Override
+  public void readData(String filename) throws IOException {
+    long start = System.nanoTime();
+    File file = new File(filename);
+
+    // Check if the file exists before attempting to read it.
+    if (!file.exists()) {
+      throw new IOException("File " + filename + " does not exist.");
+    }
+    Scanner scanner = null;
+
+    loading.incrementAndGet();
+    try {
+      scanner = new Scanner(file);
+      if (!scanner.hasNextLine()) {
+        throw new IOException("CSV file is empty");
+      }
+
+      // Read header row and find column indices manually
+      String[] headers = scanner.nextLine().split(",");
+      int titleI = -1, artistI = -1, genreI = -1, yearI = -1, bpmI = -1;
+      int energyI = -1, danceabilityI = -1, loudnessI = -1, livenessI = -1;
+
+      for (int i = 0; i < headers.length; i++) {
+        String header = headers[i].trim().toLowerCase();
+        if (header.equals("title"))
+          titleI = i;
+        else if (header.equals("artist"))
+          artistI = i;
+        else if (header.equals("top genre"))
+          genreI = i;
+        else if (header.equals("year"))
+          yearI = i;
+        else if (header.equals("bpm"))
+          bpmI = i;
+        else if (header.equals("nrgy"))
+          energyI = i;
+        else if (header.equals("dnce"))
+          danceabilityI = i;
+        else if (header.equals("db"))
+          loudnessI = i;
+        else if (header.equals("live"))
+          livenessI = i;
+      }
+
+      // Check if all required columns can be found
+      if (titleI == -1 || artistI == -1 || genreI == -1 || yearI == -1 || bpmI == -1 || energyI == -1 || danceabilityI == -1 || loudnessI == -1 || livenessI == -1) {
+        throw new IOException("There are missing columns in CSV file.");
+      }
+
+      int[] columns = {titleI, artistI, genreI, yearI, bpmI, energyI, danceabilityI, loudnessI,
+          livenessI};
+
+      // Parse rows on separate threads when a parallel ingest has been configured
+      if (ingestThreads > 0) {
+        final Scanner lines = scanner;
+        Iterator<String> lineIterator = new Iterator<String>() {
+          public boolean hasNext() { return lines.hasNextLine(); }
+          public String next() { return lines.nextLine(); }
+        };
+        IngestPipeline<Song> pipeline =
+            new IngestPipeline<>(ingestThreads, INGEST_BATCH_SIZE, INGEST_QUEUE_BATCHES);
+        // a concurrent tree takes inserts from every parser thread directly
+        pipeline.setConcurrentWriter(tree instanceof ConcurrentSkipList
+            || tree instanceof ShardedCatalog);
+        pipeline.setChunkFile(filename);
+        pipeline.run(lineIterator, line -> parseSong(line, columns), this::addSongs);
+        return;
+      }
+
+      // A durable catalog forces its log once per insert call, so its rows are inserted in
+      // batches of INGEST_BATCH_SIZE that share a single force
+      List<Song> pending = tree instanceof DurableCatalog ? new ArrayList<>() : null;
+      // Read song data, reporting every chunk of rows as a JFR event
+      IngestChunkEvent chunk = startChunk(filename);
+      try {
+        while (scanner.hasNextLine()) {
+          String line = scanner.nextLine();
+          Song song = parseSong(line, columns);
+          if (pending == null) {
+            addSong(song);
+          } else {
+            pending.add(song);
+            if (pending.size() == INGEST_BATCH_SIZE) {
+              List<Song> batch = pending;
+              pending = new ArrayList<>();
+              addBatch(batch);
+            }
+          }
+          chunk.rows++;
+          chunk.bytes += line.length() + 1;
+          if (chunk.rows == IngestChunkEvent.CHUNK_ROWS) {
+            chunk.commit();
+            chunk = startChunk(filename);
+          }
+        }
+      } finally {
+        // the rows before a malformed row are inserted, as they are when loading row by row
+        if (pending != null && !pending.isEmpty()) {
+          addBatch(pending);
+        }
+      }
+      if (chunk.rows > 0) {
+        chunk.commit();
+      }
+    } finally {
+      if (scanner != null) {
+        scanner.close();
+      }
+      loading.decrementAndGet();
+      metrics.getReadData().record(System.nanoTime() - start);
+    }
+  }
+
+    /**
+     * Helper method that parses one CSV row into a Song that is ordered by year. Only reads
+     * local state, so rows can be parsed by several threads at once.
+     * @param line the CSV row
+     * @param columns the column indices of title, artist, genre, year, bpm, energy,
+     *     danceability, loudness and liveness, in this order
+     * @return the parsed song
+     * @throws IOException when the row does not hold a valid song
+     */
+    private Song parseSong(String line, int[] columns) throws IOException {
+      String[] songData = readDataHelper(line);
+      try {
+        String title = songData[columns[0]].trim();
+        String artist = songData[columns[1]].trim();
+        String genre = songData[columns[2]].trim();
+        int year = Integer.parseInt(songData[columns[3]].trim());
+        int bpm = Integer.parseInt(songData[columns[4]].trim());
+        int energy = Integer.parseInt(songData[columns[5]].trim());
+        int danceability = Integer.parseInt(songData[columns[6]].trim());
+        int loudness = Integer.parseInt(songData[columns[7]].trim());
+        int liveness = Integer.parseInt(songData[columns[8]].trim());
+
+        // Create Song object with year-based sorting
+        return new Song(title, artist, genre, year, bpm, energy, danceability, loudness, liveness,
+            yearComparator);
+      } catch (Exception e) {
+        metrics.rowRejected();
+        throw new IOException("Incorrect format in CSV data: " + line, e);
+      }
+    }
+
+    /**
+     * Helper method that inserts a parsed song into the tree and records it in the genre and
+     * artist dictionaries.
+     * @param song the song to add
+     */
+    private void addSong(Song song) {
+      encodeSong(song);
+      tree.insert(song);
+      modifications.incrementAndGet();
+      YearTopKIndex best = danceIndex;
+      if (best != null) {
+        best.insert(song);
+      }
+      YearSegmentTree stats = yearStats;
+      if (stats != null) {
+        stats.insert(song);
+      }
+      if (approximateIndex != null) {
+        approximateIndex.insert(song);
+      }
+      metrics.rowParsed();
+    }
+
+    /**
+     * Helper method that adds a batch of parsed songs, which the ingest pipeline has already
+     * sorted by year, with a single batch insert into the tree. Called by several threads at
+     * once when the tree is concurrent, so the dictionaries are updated under a lock.
+     * @param batch the songs to add
+     */
+    private void addSongs(List<Song> batch) {
+      synchronized (genreCodes) {
+        batch.forEach(this::encodeSong);
+      }
+      tree.insertAll(batch);
+      modifications.addAndGet(batch.size());
+      YearTopKIndex best = danceIndex;
+      if (best != null) {
+        batch.forEach(best::insert);
+      }
+      YearSegmentTree stats = yearStats;
+      if (stats != null) {
+        batch.forEach(stats::insert);
+      }
+      if (approximateIndex != null) {
+        batch.forEach(approximateIndex::insert);
+      }
+      metrics.rowsParsed(batch.size());
+    }
+
+    /**
+     * Helper method that records the genre and artist of a song in the dictionaries, and their
+     * codes in songCodes, before it is inserted into the tree.
+     * @param song the song to encode
+     */
+    private void encodeSong(Song song) {
+      songCodes.put(song, codesOf(song));
+      latestYear.accumulateAndGet(song.getYear(), Math::max);
+    }
+
+    /**
+     * Helper method that sorts a batch of parsed songs by year, keeping the file order of songs
+     * of the same year, and adds it with a single batch insert. The tree then holds the songs in
+     * the same order as after inserting them one at a time.
+     * @param batch the songs to add, in file order
+     */
+    private void addBatch(List<Song> batch) {
+      batch.sort(yearComparator);
+      addSongs(batch);
+    }
+
+    /**
+     * Helper method that creates and begins the JFR event for the next chunk of rows.
+     * @param filename the name of the file being loaded
+     * @return the begun event
+     */
+    private IngestChunkEvent startChunk(String filename) {
+      IngestChunkEvent chunk = new IngestChunkEvent();
+      chunk.file = filename;
+      chunk.begin();
+      return chunk;
+    }
+
+    /**
+     * Helper method to correctly split CSV lines, handling commas inside quotes.
+     * @param line the CSV line to parse
+     * @return an array of parsed values
+     */
+    private String[] readDataHelper (String line){
+      List<String> values = new ArrayList<>();
+      boolean quotes = false; // If we're inside a quoted field.
+      StringBuilder current = new StringBuilder();
+
+      for (char ch : line.toCharArray()) {
+        if (ch == '\"') {
+        // This helps to identify text inside quotes
+        // where commas should not split the field.
+          quotes = !quotes;
+        } else if (ch == ',' && !quotes) {
+          // If a comma is encountered and we are not inside quotes,
+          // add the field to the list.
+          values.add(current.toString().trim());
+          current.setLength(0); // Reset.
+        } else {
+          // Append the character to the current field.
+          current.append(ch);
+        }
+      }
+      // Add the last field if there still has remaining characters.
+      if (current.length() > 0) {
+        values.add(current.toString().trim());
+      }
+      return values.toArray(new String[0]);
+    }
+
+  /**
+   * Retrieves a list of song titles from the tree passed to the contructor.
+   * The songs should be ordered by the songs' year, and fall within
+   * the specified range of year values.  This year range will
+   * also be used by future calls to filterSongs and getFiveMost.
+   *
+   * If a loudness filter has been set using the filterSongs method
+   * below, then only songs that pass that filter should be included in the
+   * list of titles returned by this method.
+   *
+   * When null is passed as either the low or high argument to this method,
+   * that end of the range is understood to be unbounded.  For example, a
+   * argument for the hight parameter means that there is no maximum
+   * year to include in the returned list.
+   *
+   * @param low is the minimum year of songs in the returned list
+   * @param high is the maximum year of songs in the returned list
+   * @return List of titles for all songs from low to high that pass any
+   *     set filter, or an empty list when no such songs can be found
+   */
+  @Override
+  public List<String> getRange(Integer low, Integer high) {
+    long start = System.nanoTime();
+    try {
+      return rangeTitles("getRange", low, high);
+    } finally {
+      metrics.getGetRange().record(System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Helper method behind getRange and filterSongs that sets the year range and returns the
+   * titles of the selected songs, without recording the latency of either method.
+   */
+  private List<String> rangeTitles(String type, Integer low, Integer high) {
+    QueryEvent event = QueryEvent.start(type, low, high, loudnessThreshold);
+    this.lowYear = low;
+    this.maxYear = high;
+    // Sort selected songs by year, in case the tree is not ordered by year
+    List<String> titles = selection(event).sorted(yearComparator).map(Song::getTitle)
+        .collect(Collectors.toList());
+    event.finish(titles.size());
+    return titles;
+  }
+
+  /**
+   * Returns a lazy stream over the songs that fall within the specified range of year values
+   * and pass any filter set by filterSongs.  Like getRange, this year range will also be used by
+   * future calls to filterSongs and fiveMost.  Songs are pulled one at a time from the tree's
+   * iterator, which starts at the low year bound, so only as many tree nodes are visited as
+   * the stream consumes: limit(10) visits about ten songs however large the range is.
+   *
+   * @param low is the minimum year of songs in the stream, or null for no minimum
+   * @param high is the maximum year of songs in the stream, or null for no maximum
+   * @return ordered stream of the selected songs
+   */
+  @Override
+  public Stream<Song> streamRange(Integer low, Integer high) {
+    this.lowYear = low;
+    this.maxYear = high;
+    return selection(null);
+  }
+
+  /**
+   * Returns a lazy iterator over the songs that fall within the specified range of year values
+   * and pass any filter set by filterSongs.  This is the iterator of the stream returned by
+   * streamRange, and updates the year range in the same way.
+   *
+   * @param low is the minimum year of the returned songs, or null for no minimum
+   * @param high is the maximum year of the returned songs, or null for no maximum
+   * @return iterator over the selected songs
+   */
+  @Override
+  public Iterator<Song> iterateRange(Integer low, Integer high) {
+    return streamRange(low, high).iterator();
+  }
+
+  /**
+   * Returns a lazy stream over the songs within the year range set by the most recent call to
+   * getRange, streamRange or iterateRange that pass any filter set by filterSongs, without
+   * changing either.  Like streamRange, only as many tree nodes are visited as the stream
+   * consumes.
+   *
+   * @return ordered stream of the currently selected songs
+   */
+  @Override
+  public Stream<Song> selectionStream() {
+    return selection(null);
+  }
+
+  /**
+   * Helper method that lazily streams the songs within the current year range that pass the
+   * current loudness filter.
+   *
+   * @param event the JFR event of the query that consumes the stream, or null
+   * @return ordered stream of the currently selected songs
+   */
+  private Stream<Song> selection(QueryEvent event) {
+    // copy the current state so later calls to getRange and filterSongs do not change a stream
+    // that has already been handed out
+    Integer low = lowYear;
+    Integer high = maxYear;
+    Integer threshold = loudnessThreshold;
+    Iterator<Song> songs = yearRangeIterator(low, high);
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(songs,
+        Spliterator.ORDERED | Spliterator.NONNULL), false)
+        .peek(song -> {
+          metrics.nodeVisited();
+          if (event != null) {
+            event.scanned++;
+          }
+        })
+        .filter(song -> isSelected(song, low, high, threshold));
+  }
+
+  /**
+   * Helper method that checks whether a song falls within a year range and is quieter than a
+   * loudness threshold.
+   *
+   * @param song the song to check
+   * @param low is the minimum year, or null for no minimum
+   * @param high is the maximum year, or null for no maximum
+   * @param threshold is the loudness that the song must be below, or null for no filter
+   * @return true when the song is selected
+   */
+  private static boolean isSelected(Song song, Integer low, Integer high, Integer threshold) {
+    return (low == null || song.getYear() >= low) && (high == null || song.getYear() <= high)
+        && (threshold == null || song.getLoudness() < threshold);
+  }
+
+  /**
+   * Helper method that creates a tree iterator bounded to the specified range of year values,
+   * so the tree can skip every subtree that lies outside of the range.  The iterator bounds that
+   * were set on the tree before are restored once the iterator has been created.
+   *
+   * @param low is the minimum year of the iterated songs, or null for no minimum
+   * @param high is the maximum year of the iterated songs, or null for no maximum
+   * @return iterator over the songs of the tree from low to high
+   */
+  private Iterator<Song> yearRangeIterator(Integer low, Integer high) {
+    return withYearBounds(low, high, tree::iterator);
+  }
+
+  /**
+   * Helper method that creates an iterator or spliterator of the tree while its iterator bounds
+   * are set to the specified range of year values.  The iterators and spliterators of the trees
+   * keep the bounds that were set when they were created.
+   *
+   * @param low is the minimum year of the iterated songs, or null for no minimum
+   * @param high is the maximum year of the iterated songs, or null for no maximum
+   * @param create creates the iterator or spliterator
+   * @return the created iterator or spliterator
+   */
+  private <R> R withYearBounds(Integer low, Integer high, Supplier<R> create) {
+    // restore the bounds that were set before, which may have been set by the owner of the tree
+    Comparable<Song> min = tree.getIteratorMin();
+    Comparable<Song> max = tree.getIteratorMax();
+    tree.setIteratorMin(yearBound(low));
+    tree.setIteratorMax(yearBound(high));
+    try {
+      return create.get();
+    } finally {
+      tree.setIteratorMin(min);
+      tree.setIteratorMax(max);
+    }
+  }
+
+  /**
+   * Helper method that creates a Song which compares to other songs by year only, to be used as
+   * an iterator bound.
+   *
+   * @param year the year of the bound, or null for no bound
+   * @return a Song of the given year, or null when year is null
+   */
+  private Song yearBound(Integer year) {
+    if (year == null) {
+      return null;
+    }
+    return new Song("", "", "", year, 0, 0, 0, 0, 0, yearComparator);
+  }
+
+  /**
+   * Retrieves a list of song titles that have a loudness that is
+   * smaller than the specified threshold.  Similar to the getRange
+   * method: this list of song titles should be ordered by the songs'
+   * year, and should only include songs that fall within the specified
+   * range of year values that was established by the most recent call
+   * to getRange.  If getRange has not previously been called, then no low
+   * or high year bound should be used.  The filter set by this method
+   * will be used by future calls to the getRange and fiveMost methods.
+   *
+   * When null is passed as the threshold to this method, then no
+   * loudness threshold should be used.  This clears the filter.
+   *
+   * @param threshold filters returned song titles to only include songs that
+   *     have a loudness that is smaller than this threshold.
+   * @return List of titles for songs that meet this filter requirement and
+   *     are within any previously set year range, or an empty list
+   *     when no such songs can be found
+   */
+  @Override
+  public List<String> filterSongs(Integer threshold) {
+    long start = System.nanoTime();
+    try {
+      this.loudnessThreshold = threshold;
+      return rangeTitles("filterSongs", lowYear, maxYear);
+    } finally {
+      metrics.getFilterSongs().record(System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * This method returns a list of song titles representing the five
+   * most danceable songs that both fall within any attribute range specified
+   * by the most recent call to getRange, and conform to any filter set by
+   * the most recent call to filteredSongs.  The order of the song titles
+   * in this returned list is up to you.
+   *
+   * If fewer than five such songs exist, return all of them.  And return an
+   * empty list when there are no such songs.
+   *
+   * @return List of five most danceable song titles
+   */
+  @Override
+  public List<String> fiveMost() {
+    long start = System.nanoTime();
+    QueryEvent event = QueryEvent.start("fiveMost", lowYear, maxYear, loudnessThreshold);
+    List<String> titles = new ArrayList<>();
+    Integer threshold = loudnessThreshold;
+    Predicate<Song> quiet = song -> threshold == null || song.getLoudness() < threshold;
+    // the most danceable songs of each year are kept while loading, unless songs are being
+    // loaded right now, or the filter rejects too many of them
+    YearTopKIndex index = danceIndex();
+    List<Song> best = index != null ? index.topK(5, lowYear, maxYear, quiet) : null;
+    if (best != null) {
+      for (Song song : best) {
+        titles.add(song.getTitle());
+      }
+      event.finish(titles.size());
+      metrics.getFiveMost().record(System.nanoTime() - start);
+      return titles;
+    }
+    if (tree instanceof ShardedCatalog) {
+      // every shard of the year range finds its own five best songs in parallel
+      for (Song song : ((ShardedCatalog) tree).topK(5, danceComparator, lowYear, maxYear,
+          quiet)) {
+        titles.add(song.getTitle());
+      }
+      event.finish(titles.size());
+      metrics.getFiveMost().record(System.nanoTime() - start);
+      return titles;
+    }
+    List<Song> filteredByDanceability = selection(event).collect(Collectors.toList());
+
+    // Sort by danceability using danceComparator (descending order)
+    filteredByDanceability.sort(danceComparator);
+
+    // Return the top 5
+    for (int i = 0; i < Math.min(5, filteredByDanceability.size()); i++) {
+      titles.add(filteredByDanceability.get(i).getTitle());
+    }
+    event.finish(titles.size());
+    metrics.getFiveMost().record(System.nanoTime() - start);
+    return titles;
+  }
+
+  /**
+   * Helper method that returns the most danceable songs of every year, and builds them with a
+   * scan of the tree when they are missing, or when the tree was changed without this backend
+   * and no songs are being loaded.  The songs are appended in the order of the tree iterator, so
+   * nothing but the kept songs is held in memory.
+   *
+   * @return the index, or null when it does not hold the songs of the tree
+   */
+  private synchronized YearTopKIndex danceIndex() {
+    YearTopKIndex index = danceIndex;
+    if (index == null || index.size() != tree.size() && loading.get() == 0) {
+      index = new YearTopKIndex(danceComparator);
+      yearRangeIterator(null, null).forEachRemaining(index::append);
+      danceIndex = index;
+    }
+    return index.size() == tree.size() ? index : null;
+  }
+
+  /**
+   * Counts the songs per genre, per artist and per decade in a single pass over the songs that
+   * fall within the year range set by the most recent call to getRange and that pass any filter
+   * set by the most recent call to filterSongs.  Genres and artists are counted through the
+   * dictionary codes that readData records for each song, in primitive int arrays that are sized
+   * before the scan, so the scan itself only looks up names of songs that readData did not load.
+   * Songs are not loaded while the counts are taken.
+   *
+   * @return the facet counts of the current selection
+   */
+  @Override
+  public SongFacets facets() {
+    int[] genreCounts = new int[genreNames.size()];
+    int[] artistCounts = new int[artistNames.size()];
+    int[] decadeCounts = new int[latestYear.get() / 10 + 1];
+    int total = 0;
+
+    QueryEvent event = QueryEvent.start("facets", lowYear, maxYear, loudnessThreshold);
+    synchronized (genreCodes) {
+      Iterator<Song> songs = selection(event).iterator();
+      while (songs.hasNext()) {
+        Song song = songs.next();
+        Long codes = songCodes.get(song);
+        // songs that were not loaded by readData are encoded here, and may need larger arrays
+        long packed = codes != null ? codes : codesOf(song);
+        int genre = (int) (packed >>> 32);
+        int artist = (int) packed;
+        int decade = Math.max(0, song.getYear()) / 10;
+        if (genre >= genreCounts.length) {
+          genreCounts = Arrays.copyOf(genreCounts, genreNames.size());
+        }
+        if (artist >= artistCounts.length) {
+          artistCounts = Arrays.copyOf(artistCounts, artistNames.size());
+        }
+        if (decade >= decadeCounts.length) {
+          decadeCounts = Arrays.copyOf(decadeCounts, decade + 1);
+        }
+        genreCounts[genre]++;
+        artistCounts[artist]++;
+        decadeCounts[decade]++;
+        total++;
+      }
+      event.finish(total);
+      return new SongFacets(genreNames.toArray(new String[0]), genreCounts,
+          artistNames.toArray(new String[0]), artistCounts, decadeCounts, total);
+    }
+  }
+
+  /**
+   * Helper method that encodes the genre and artist of a song, adding them to the dictionaries
+   * when they are new. Called with the lock of genreCodes held.
+   *
+   * @param song the song to encode
+   * @return the genre code in the high and the artist code in the low half
+   */
+  private long codesOf(Song song) {
+    long genre = encode(genreCodes, genreNames, song.getGenres());
+    return genre << 32 | encode(artistCodes, artistNames, song.getArtist());
+  }
+
+  /**
+   * Returns the titles of the count songs that are most similar to the song with the given
+   * title, in the order of their similarity.  Similarity is the distance between the BPM,
+   * energy, danceability, loudness and liveness of the songs, each normalized to a common
+   * range.  Only songs that fall within the year range set by the most recent call to getRange
+   * and that pass any filter set by the most recent call to filterSongs are returned, and the
+   * song itself is never returned.
+   *
+   * When an approximate index was set with setApproximateIndex, the similar songs are searched
+   * in that HNSW graph.  Otherwise, or when the graph gives up because the filters reject most of
+   * the songs it finds, they are searched exactly in a k-d tree, which is built on the first
+   * call after songs have been loaded, and reused by later calls until more songs are loaded.
+   *
+   * @param title the title of the song to find similar songs for, ignoring case
+   * @param count the number of titles to return at most
+   * @return titles of the most similar songs, the most similar first
+   * @throws IllegalArgumentException when no song has the given title
+   */
+  @Override
+  public synchronized List<String> similar(String title, int count) {
+    long start = System.nanoTime();
+    try {
+      QueryEvent event = QueryEvent.start("similar", lowYear, maxYear, loudnessThreshold);
+      Song song = songByTitle(title);
+      if (song == null) {
+        throw new IllegalArgumentException("No song is titled " + title + ".");
+      }
+      Integer low = lowYear;
+      Integer high = maxYear;
+      Integer threshold = loudnessThreshold;
+      Predicate<Song> selected = other -> other != song
+          && (low == null || other.getYear() >= low) && (high == null || other.getYear() <= high)
+          && (threshold == null || other.getLoudness() < threshold);
+      // the approximate index gives up when the filter rejects most of the songs it finds
+      HnswIndex approximate = approximateIndex;
+      List<Song> similar = approximate == null ? null
+          : approximate.nearest(song, count, selected);
+      if (similar == null) {
+        similar = similarityIndex().nearest(song, count, selected);
+      }
+      List<String> titles = new ArrayList<>();
+      for (Song other : similar) {
+        titles.add(other.getTitle());
+      }
+      event.finish(titles.size());
+      return titles;
+    } finally {
+      metrics.getSimilar().record(System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Helper method that returns the k-d tree of all songs in the tree, and builds it when it is
+   * missing, or when songs have been inserted or the size of the tree changed since it was built.
+   *
+   * @return the k-d tree of the songs
+   */
+  private SongKdTree similarityIndex() {
+    long version = modifications.get();
+    if (similarityIndex == null || similarityVersion != version
+        || similarityIndex.size() != tree.size()) {
+      List<Song> songs = new ArrayList<>();
+      yearRangeIterator(null, null).forEachRemaining(songs::add);
+      similarityIndex = new SongKdTree(songs);
+      similarityVersion = version;
+    }
+    return similarityIndex;
+  }
+
+  /**
+   * Helper method that finds the first song with the given title, ignoring case.  The lookup
+   * table is rebuilt with a scan of the tree when songs have been loaded since it was built.
+   *
+   * @param title the title to look up
+   * @return the song, or null when no song has the title
+   */
+  private Song songByTitle(String title) {
+    long version = modifications.get();
+    if (titledVersion != version || titledSongs != tree.size()) {
+      songsByTitle = new HashMap<>();
+      Iterator<Song> songs = yearRangeIterator(null, null);
+      while (songs.hasNext()) {
+        Song song = songs.next();
+        songsByTitle.putIfAbsent(song.getTitle().toLowerCase(), song);
+      }
+      titledSongs = tree.size();
+      titledVersion = version;
+    }
+    return songsByTitle.get(title.toLowerCase());
+  }
+
+  /**
+   * Makes similar search the given HNSW graph instead of an exact k-d tree.  The songs that are
+   * already stored are inserted into the graph, and readData inserts every song it loads from
+   * then on, so the graph is kept up to date while the data arrives.
+   *
+   * @param index the empty index to use, or null to search exactly again
+   */
+  public synchronized void setApproximateIndex(HnswIndex index) {
+    if (index != null) {
+      yearRangeIterator(null, null).forEachRemaining(index::insert);
+    }
+    this.approximateIndex = index;
+  }
+
+  /**
+   * Returns the titles of the songs within a box of year, loudness and danceability, ordered by
+   * year, and by loudness within a year.  Unlike getRange, the box does not depend on any earlier
+   * call.  The songs are looked up in a range tree, which is built on the first call after songs
+   * have been loaded, so a box query takes polylogarithmic time plus logarithmic time per song
+   * returned instead of a scan of the year range.
+   *
+   * @param minYear         the minimum year, or null for no minimum
+   * @param maxYear         the maximum year, or null for no maximum
+   * @param minLoudness     the minimum loudness, or null for no minimum
+   * @param maxLoudness     the maximum loudness, or null for no maximum
+   * @param minDanceability the minimum danceability, or null for no minimum
+   * @return titles of the songs within the box, inclusive of all bounds
+   */
+  public synchronized List<String> box(Integer minYear, Integer maxYear, Integer minLoudness,
+      Integer maxLoudness, Integer minDanceability) {
+    QueryEvent event = QueryEvent.start("box", minYear, maxYear, maxLoudness);
+    long version = modifications.get();
+    if (boxIndex == null || boxVersion != version || boxIndex.size() != tree.size()) {
+      List<Song> songs = new ArrayList<>();
+      yearRangeIterator(null, null).forEachRemaining(songs::add);
+      boxIndex = new SongRangeTree(songs);
+      boxVersion = version;
+    }
+    List<String> titles = new ArrayList<>();
+    for (Song song : boxIndex.query(minYear, maxYear, minLoudness, maxLoudness,
+        minDanceability)) {
+      titles.add(song.getTitle());
+    }
+    event.finish(titles.size());
+    return titles;
+  }
+
+  /**
+   * Returns the number of songs with years from low to high, and the sum and maximum of their
+   * danceability, energy and BPM.  Unlike aggregate, the year range does not depend on any
+   * earlier call, and the loudness filter is not applied.  The aggregates of every year are
+   * built into a segment tree with one streaming scan of the tree on the first call, and kept up
+   * to date by readData from then on, so later calls take logarithmic time instead of a scan of
+   * the year range.  While songs are being loaded, the songs of the year range are scanned.
+   *
+   * @param low  the minimum year, or null for no minimum
+   * @param high the maximum year, or null for no maximum
+   * @return the count of the songs, and the sum and maximum of each feature
+   */
+  @Override
+  public YearRangeStats stats(Integer low, Integer high) {
+    QueryEvent event = QueryEvent.start("stats", low, high, null);
+    YearRangeStats stats;
+    YearSegmentTree index = yearStats();
+    if (index != null) {
+      stats = index.query(low, high);
+    } else {
+      YearSegmentTree scanned =
+          new YearSegmentTree(SongFeature.DANCEABILITY, SongFeature.ENERGY, SongFeature.BPM);
+      yearRangeIterator(low, high).forEachRemaining(scanned::insert);
+      stats = scanned.query(low, high);
+    }
+    event.finish(stats.getCount());
+    return stats;
+  }
+
+  /**
+   * Helper method that returns the aggregates of every year, and builds them with a scan of the
+   * tree when they are missing, or when the tree was changed without this backend and no songs
+   * are being loaded.
+   *
+   * @return the aggregates, or null when they do not hold the songs of the tree
+   */
+  private synchronized YearSegmentTree yearStats() {
+    YearSegmentTree index = yearStats;
+    if (index == null || index.size() != tree.size() && loading.get() == 0) {
+      index = new YearSegmentTree(SongFeature.DANCEABILITY, SongFeature.ENERGY, SongFeature.BPM);
+      yearRangeIterator(null, null).forEachRemaining(index::insert);
+      yearStats = index;
+    }
+    return index.size() == tree.size() ? index : null;
+  }
+
+  /**
+   * Aggregates one numeric feature (count, average, minimum, maximum, percentiles and histogram)
+   * over the songs that fall within the current year range and pass any filter set by
+   * filterSongs.  The songs are read through the spliterator of the tree, which is split into
+   * parallel parts when the range holds more songs than the parallelism threshold, so the scan
+   * of the tree runs in parallel as well.
+   *
+   * @param feature the feature to aggregate
+   * @return the aggregate of the feature over the current selection
+   */
+  public FeatureStats aggregate(SongFeature feature) {
+    QueryEvent event = QueryEvent.start("aggregate " + feature, lowYear, maxYear,
+        loudnessThreshold);
+    Integer low = lowYear;
+    Integer high = maxYear;
+    Integer threshold = loudnessThreshold;
+    LongAdder scanned = new LongAdder();
+    Spliterator<Song> songs = withYearBounds(low, high, tree::spliterator);
+    FeatureStats stats = aggregator.aggregate(songs, song -> {
+      metrics.nodeVisited();
+      scanned.increment();
+      return isSelected(song, low, high, threshold);
+    }, feature::of);
+    event.scanned += scanned.sum();
+    event.finish(stats.getCount());
+    return stats;
+  }
+
+  /**
+   * Sets the number of songs below which aggregate runs single-threaded.
+   *
+   * @param threshold selections of at most this many songs are aggregated in a single task
+   * @throws IllegalArgumentException when threshold is not positive
+   */
+  public void setParallelThreshold(int threshold) {
+    this.aggregator = new ParallelAggregator(threshold);
+  }
+
+  /**
+   * Sets how many threads readData uses to parse rows.  With 0 threads, rows are parsed and
+   * inserted one at a time on the calling thread.  Otherwise the calling thread only reads lines,
+   * the parser threads turn batches of lines into songs sorted by year, and a single writer
+   * thread inserts the batches into the tree in file order, so parsing overlaps with tree
+   * updates and the tree holds songs of the same year in the same order as after a sequential
+   * load.  When the tree is a ConcurrentSkipList or a ShardedCatalog, the parser threads insert
+   * their batches themselves instead, so the order of songs of the same year may differ.
+   *
+   * @param threads the number of parser threads, or 0 for sequential loading
+   * @throws IllegalArgumentException when threads is negative
+   */
+  public void setIngestThreads(int threads) {
+    if (threads < 0) {
+      throw new IllegalArgumentException("The number of ingest threads cannot be negative.");
+    }
+    this.ingestThreads = threads;
+  }
+
+  /**
+   * Returns the latency histograms and counters of this backend's operations.
+   *
+   * @return the metrics of this backend
+   */
+  @Override
+  public BackendMetrics getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * Helper method that returns the dictionary code of value, and assigns the next free code to
+   * values that have not been seen before.
+   *
+   * @param codes maps each known value to its code
+   * @param names lists the known values, indexed by their code
+   * @param value the value to encode, null is stored as an empty string
+   * @return the code of value
+   */
+  private int encode(Map<String, Integer> codes, List<String> names, String value) {
+    if (value == null) {
+      value = "";
+    }
+    Integer code = codes.get(value);
+    if (code == null) {
+      code = names.size();
+      codes.put(value, code);
+      names.add(value);
+    }
+    return code;
+  }
+}
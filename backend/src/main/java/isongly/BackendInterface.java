@@ -1,4 +1,8 @@
+package isongly;
+
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 import java.io.IOException;
 
 /**
@@ -50,6 +54,45 @@ public interface BackendInterface {
      */
     public List<String> getRange(Integer low, Integer high);
 
+    /**
+     * Lazy variant of getRange that returns the selected songs themselves
+     * rather than a list of their titles.  The songs are ordered by year, fall
+     * within the specified range of year values, and pass any filter set by
+     * filterSongs.  This year range will also be used by future calls to
+     * filterSongs and getFiveMost, just like a call to getRange.
+     *
+     * Songs are only read from the tree as the stream is consumed, so
+     * limiting the stream or mapping it to titles does not build any
+     * intermediate lists.
+     *
+     * @param low is the minimum year of songs in the stream, or null
+     * @param high is the maximum year of songs in the stream, or null
+     * @return ordered stream of the songs from low to high that pass any
+     *     set filter
+     */
+    public Stream<Song> streamRange(Integer low, Integer high);
+
+    /**
+     * Lazy variant of getRange that returns an iterator over the selected
+     * songs.  Behaves exactly like streamRange.
+     *
+     * @param low is the minimum year of the returned songs, or null
+     * @param high is the maximum year of the returned songs, or null
+     * @return iterator over the songs from low to high that pass any set
+     *     filter
+     */
+    public Iterator<Song> iterateRange(Integer low, Integer high);
+
+    /**
+     * Lazy variant of getRange that streams the songs of the current
+     * selection: those within the year range set by the most recent call to
+     * getRange, streamRange or iterateRange, that pass any filter set by
+     * filterSongs.  Unlike those methods, it does not change the year range.
+     *
+     * @return ordered stream of the currently selected songs
+     */
+    public Stream<Song> selectionStream();
+
     /**
      * Retrieves a list of song titles that have a loudness that is
      * smaller than the specified threshold.  Similar to the getRange
@@ -84,4 +127,51 @@ public interface BackendInterface {
      * @return List of five most danceable song titles
      */
     public List<String> fiveMost();
+
+    /**
+     * Counts the songs per genre, per artist and per decade that both fall
+     * within any year range specified by the most recent call to getRange,
+     * and conform to any filter set by the most recent call to filterSongs.
+     * All three facets are computed together in a single pass, so there is no
+     * need to call getRange repeatedly for each genre, artist or decade.
+     *
+     * @return the facet counts of the currently selected songs
+     */
+    public SongFacets facets();
+
+    /**
+     * Returns the titles of the count songs whose audio features (BPM,
+     * energy, danceability, loudness and liveness) are most similar to
+     * those of the song with the given title, most similar first.  Only
+     * songs that fall within any year range specified by the most recent
+     * call to getRange, and conform to any filter set by the most recent
+     * call to filterSongs are returned.
+     *
+     * @param title the title of the song to find similar songs for
+     * @param count the number of titles to return at most
+     * @return titles of the most similar songs
+     * @throws IllegalArgumentException when no song has the given title
+     */
+    public List<String> similar(String title, int count);
+
+    /**
+     * Returns the number of songs with years from low to high, together
+     * with the sum and maximum of their danceability, energy and BPM.  The
+     * year range of this call does not change the range specified by
+     * getRange, and the filter set by filterSongs is not applied.
+     *
+     * @param low  the minimum year, or null for no minimum
+     * @param high the maximum year, or null for no maximum
+     * @return the count, sums and maximums of the songs in the year range
+     */
+    public YearRangeStats stats(Integer low, Integer high);
+
+    /**
+     * Returns the metrics of this backend: the latency of every readData,
+     * getRange, filterSongs, fiveMost and similar call, and counters for the rows
+     * parsed and rejected by readData and the songs visited by queries.
+     *
+     * @return the metrics collected since this backend was created
+     */
+    public BackendMetrics getMetrics();
 }
@@ -0,0 +1,94 @@
+package isongly;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * BackendMetrics - CS400 Project 1: iSongly
+ * This class collects the latency of each backend operation, together with counters for the
+ * rows parsed and rejected while loading and the songs visited while answering queries. All
+ * recording is lock-free and allocation-free, so it can stay enabled in production.
+ */
+public class BackendMetrics {
+  private final LatencyRecorder readData = new LatencyRecorder("readData");
+  private final LatencyRecorder getRange = new LatencyRecorder("getRange");
+  private final LatencyRecorder filterSongs = new LatencyRecorder("filterSongs");
+  private final LatencyRecorder fiveMost = new LatencyRecorder("fiveMost");
+  private final LatencyRecorder similar = new LatencyRecorder("similar");
+  private final LongAdder rowsParsed = new LongAdder();
+  private final LongAdder rowsRejected = new LongAdder();
+  private final LongAdder nodesVisited = new LongAdder();
+  private final long startNanos = System.nanoTime();
+
+  public LatencyRecorder getReadData() { return readData; }
+  public LatencyRecorder getGetRange() { return getRange; }
+  public LatencyRecorder getFilterSongs() { return filterSongs; }
+  public LatencyRecorder getFiveMost() { return fiveMost; }
+  public LatencyRecorder getSimilar() { return similar; }
+  public long getRowsParsed() { return rowsParsed.sum(); }
+  public long getRowsRejected() { return rowsRejected.sum(); }
+  public long getNodesVisited() { return nodesVisited.sum(); }
+
+  /**
+   * Counts one CSV row that was parsed into a song.
+   */
+  public void rowParsed() {
+    rowsParsed.increment();
+  }
+
+  /**
+   * Counts n CSV rows that were parsed into songs, such as a batch of the ingest pipeline.
+   *
+   * @param n the number of rows
+   */
+  public void rowsParsed(int n) {
+    rowsParsed.add(n);
+  }
+
+  /**
+   * Counts one CSV row that could not be parsed.
+   */
+  public void rowRejected() {
+    rowsRejected.increment();
+  }
+
+  /**
+   * Counts one song that was read from the tree while answering a query.
+   */
+  public void nodeVisited() {
+    nodesVisited.increment();
+  }
+
+  /**
+   * Returns a human readable summary: p50, p99 and p999 latency of every operation and its
+   * average rate over the uptime of this backend, which is not the rate the operation could
+   * sustain, followed by the counters.
+   *
+   * @return list of report lines
+   */
+  public List<String> report() {
+    List<String> lines = new ArrayList<>();
+    double uptimeSeconds = (System.nanoTime() - startNanos) / 1e9;
+    for (LatencyRecorder recorder : new LatencyRecorder[] {readData, getRange, filterSongs,
+        fiveMost, similar}) {
+      lines.add(String.format("%-12s %6d calls  p50 %s  p99 %s  p999 %s  %.2f calls/s over uptime",
+          recorder.getName(), recorder.getCount(), millis(recorder.percentile(50)),
+          millis(recorder.percentile(99)), millis(recorder.percentile(99.9)),
+          recorder.getCount() / uptimeSeconds));
+    }
+    double loadSeconds = readData.getTotalNanos() / 1e9;
+    lines.add(String.format("rows parsed: %d (%.0f rows/s while loading), rows rejected: %d",
+        getRowsParsed(), loadSeconds == 0 ? 0.0 : getRowsParsed() / loadSeconds,
+        getRowsRejected()));
+    lines.add("songs visited by queries: " + getNodesVisited());
+    return lines;
+  }
+
+  /**
+   * Helper method that formats nanoseconds as milliseconds.
+   */
+  private static String millis(long nanos) {
+    return String.format("%.3f ms", nanos / 1e6);
+  }
+}
@@ -1,5 +1,10 @@
+package isongly;
+
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import java.io.IOException;
 
 /**
@@ -41,6 +46,19 @@ public class Backend_Placeholder implements BackendInterface {
         return fiveMost();
     }
 
+    // the lazy variants ignore the range and simply stream all songs in tree
+    public Stream<Song> streamRange(Integer low, Integer high) {
+        return StreamSupport.stream(tree.spliterator(), false);
+    }
+
+    public Iterator<Song> iterateRange(Integer low, Integer high) {
+        return tree.iterator();
+    }
+
+    public Stream<Song> selectionStream() {
+        return StreamSupport.stream(tree.spliterator(), false);
+    }
+
     // filters are being completely ignored here, and the fivemost danceable
     // songs are really the five only
     public List<String> filterSongs(Integer threshold) {
@@ -54,4 +72,27 @@ public class Backend_Placeholder implements BackendInterface {
         }
         return titles;
     }
+
+    // facets are not computed by this placeholder, every count is zero
+    public SongFacets facets() {
+        return new SongFacets(new String[0], new int[0], new String[0], new int[0],
+                              new int[0], 0);
+    }
+
+    // similarity is not computed by this placeholder, the first songs are returned
+    public List<String> similar(String title, int count) {
+        List<String> titles = fiveMost();
+        return titles.subList(0, Math.min(count, titles.size()));
+    }
+
+    // year statistics are not computed by this placeholder, the range holds no songs
+    public YearRangeStats stats(Integer low, Integer high) {
+        SongFeature[] features = {SongFeature.DANCEABILITY, SongFeature.ENERGY, SongFeature.BPM};
+        return new YearRangeStats(features, 0, new long[3], new int[3]);
+    }
+
+    // nothing is recorded by this placeholder, so all metrics stay at zero
+    public BackendMetrics getMetrics() {
+        return new BackendMetrics();
+    }
 }
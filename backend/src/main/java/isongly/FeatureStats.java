@@ -0,0 +1,106 @@
+package isongly;
+
+/**
+ * FeatureStats - CS400 Project 1: iSongly
+ * This class holds the aggregate of one numeric song feature over a selection of songs: count,
+ * sum, minimum and maximum, together with the exact number of songs for every distinct value.
+ * The value histogram only holds the values that occur, so a single outlier does not widen it,
+ * and it answers percentile queries exactly.
+ */
+public class FeatureStats {
+  private final long count;
+  private final long sum;
+  private final int min;
+  private final int max;
+  private final int[] values; // the distinct values, in increasing order
+  private final long[] valueCounts; // valueCounts[i] songs have the value values[i]
+
+  /**
+   * Constructor for FeatureStats class
+   *
+   * @param count       number of aggregated values
+   * @param sum         sum of the aggregated values
+   * @param min         smallest aggregated value, ignored when count is 0
+   * @param max         largest aggregated value, ignored when count is 0
+   * @param values      the distinct aggregated values, in increasing order
+   * @param valueCounts number of values equal to values[i] at each index i
+   */
+  public FeatureStats(long count, long sum, int min, int max, int[] values, long[] valueCounts) {
+    this.count = count;
+    this.sum = sum;
+    this.min = min;
+    this.max = max;
+    this.values = values;
+    this.valueCounts = valueCounts;
+  }
+
+  public long getCount() { return count; }
+  public long getSum() { return sum; }
+  public int getMin() { return min; }
+  public int getMax() { return max; }
+
+  /**
+   * @return the average of the aggregated values, or NaN when there are none
+   */
+  public double mean() {
+    return count == 0 ? Double.NaN : (double) sum / count;
+  }
+
+  /**
+   * Returns the nearest-rank percentile of the aggregated values.
+   *
+   * @param p the percentile, from 0 to 100
+   * @return the smallest value that is greater than or equal to p percent of all values
+   * @throws IllegalArgumentException when p is outside of 0 to 100
+   * @throws IllegalStateException    when no values have been aggregated
+   */
+  public int percentile(double p) {
+    if (p < 0 || p > 100) {
+      throw new IllegalArgumentException("Percentile must be between 0 and 100: " + p);
+    }
+    if (count == 0) {
+      throw new IllegalStateException("No values have been aggregated.");
+    }
+    long rank = Math.max(1, (long) Math.ceil(p / 100 * count));
+    long seen = 0;
+    for (int i = 0; i < valueCounts.length; i++) {
+      seen += valueCounts[i];
+      if (seen >= rank) {
+        return values[i];
+      }
+    }
+    return max;
+  }
+
+  /**
+   * Divides the values from min to max into equally wide buckets and counts the values in each.
+   * The width of every bucket is getBucketWidth(buckets).
+   *
+   * @param buckets the number of buckets
+   * @return the number of values in each bucket, from the lowest to the highest
+   * @throws IllegalArgumentException when buckets is not positive
+   */
+  public long[] histogram(int buckets) {
+    if (buckets <= 0) {
+      throw new IllegalArgumentException("The number of buckets must be positive.");
+    }
+    long[] histogram = new long[buckets];
+    long width = getBucketWidth(buckets);
+    for (int i = 0; i < values.length; i++) {
+      histogram[(int) (((long) values[i] - min) / width)] += valueCounts[i];
+    }
+    return histogram;
+  }
+
+  /**
+   * Returns the width of each bucket of histogram(buckets). Bucket b holds the values from
+   * getMin() + b * width up to getMin() + (b + 1) * width - 1.
+   *
+   * @param buckets the number of buckets
+   * @return the number of integers covered by each bucket
+   */
+  public long getBucketWidth(int buckets) {
+    long span = count == 0 ? 0 : (long) max - min + 1;
+    return Math.max(1, (span + buckets - 1) / buckets);
+  }
+}
@@ -0,0 +1,514 @@
+package isongly;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.function.Predicate;
+
+/**
+ * This class implements a Hierarchical Navigable Small World (HNSW) graph over the numeric audio
+ * features of songs, which finds songs that are similar to a given song approximately, in about
+ * O(log n) distance computations even when an exact k-d tree has to visit most of its songs.
+ * Every feature is scaled by its typical domain (see SongFeature.normalized), so songs can be
+ * inserted one at a time without knowing the data in advance, and the distances are the same as
+ * those of the exact SongKdTree.
+ * <p>
+ * Every song is a node on layer 0 and, with probability falling exponentially per layer, on the
+ * layers above, where each node is linked to at most m nearby nodes (2 * m on layer 0). A search
+ * walks greedily towards the query on the sparse upper layers, and then keeps the efSearch
+ * nearest nodes it has seen while it explores their links on layer 0. Larger values of m,
+ * efConstruction and efSearch find more of the true nearest songs (recall), at the cost of
+ * slower inserts and searches; evaluate measures both for a sample of queries against a
+ * SongKdTree. When a filter rejects so many songs that even MAX_EF_FACTOR times efSearch nodes
+ * do not hold k songs that pass it, nearest returns null so that the caller can fall back to
+ * the exact k-d tree.
+ * <p>
+ * Inserts and searches are synchronized, so songs may be inserted by several threads.
+ */
+public class HnswIndex {
+    public static final int DEFAULT_M = 16;
+    public static final int DEFAULT_EF_CONSTRUCTION = 200;
+    public static final int DEFAULT_EF_SEARCH = 64;
+    // how many times efSearch nodes a filtered search keeps at most before it gives up
+    public static final int MAX_EF_FACTOR = 16;
+
+    private static final SongFeature[] FEATURES = SongFeature.values();
+    private static final int DIMENSIONS = FEATURES.length;
+
+    /**
+     * Nested class for a node found by a search and its distance to the query.
+     */
+    private static class Candidate {
+        private final int node;
+        private final double distance;
+
+        private Candidate(int node, double distance) {
+            this.node = node;
+            this.distance = distance;
+        }
+    }
+
+    private static final Comparator<Candidate> NEAREST_FIRST = Comparator
+            .comparingDouble((Candidate candidate) -> candidate.distance)
+            .thenComparingInt(candidate -> candidate.node);
+    private static final Comparator<Candidate> FARTHEST_FIRST = NEAREST_FIRST.reversed();
+
+    private final int m;
+    private final int efConstruction;
+    private int efSearch = DEFAULT_EF_SEARCH;
+    private final double levelMultiplier;
+    private final Random random;
+
+    private Song[] songs = new Song[16];
+    // scaled features, DIMENSIONS values for each node
+    private double[] vectors = new double[16 * DIMENSIONS];
+    // links[node][layer] holds the number of links followed by the linked nodes
+    private int[][][] links = new int[16][][];
+    private int size = 0;
+    private int entryPoint = -1;
+    private int topLayer = -1;
+    // visited[node] == visitEpoch marks the nodes that the current search has seen
+    private int[] visited = new int[16];
+    private int visitEpoch = 0;
+
+    /**
+     * Creates an empty index with DEFAULT_M, DEFAULT_EF_CONSTRUCTION and DEFAULT_EF_SEARCH.
+     */
+    public HnswIndex() {
+        this(DEFAULT_M, DEFAULT_EF_CONSTRUCTION, new Random());
+    }
+
+    /**
+     * Creates an empty index.
+     *
+     * @param m              the number of links per node on the upper layers, and half the
+     *                       number on layer 0
+     * @param efConstruction the number of nearest nodes that an insert keeps while it searches
+     *                       for the nodes to link to
+     * @param random         the source of the random layers of the nodes
+     * @throws IllegalArgumentException if m is less than 2 or efConstruction is less than m
+     */
+    public HnswIndex(int m, int efConstruction, Random random) {
+        if (m < 2 || efConstruction < m) {
+            throw new IllegalArgumentException("m must be at least 2, and efConstruction at "
+                    + "least m.");
+        }
+        this.m = m;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1 / Math.log(m);
+        this.random = random;
+    }
+
+    /**
+     * Sets the number of nearest nodes that a search keeps on layer 0. A search for k songs
+     * keeps at least k.
+     *
+     * @param efSearch the number of nodes to keep
+     * @throws IllegalArgumentException if efSearch is not positive
+     */
+    public synchronized void setEfSearch(int efSearch) {
+        if (efSearch <= 0) {
+            throw new IllegalArgumentException("efSearch must be positive.");
+        }
+        this.efSearch = efSearch;
+    }
+
+    /**
+     * @return the number of songs in the index
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Helper method that returns the squared distance between the scaled features of query and
+     * the node.
+     */
+    private double distance(double[] query, int node) {
+        double sum = 0;
+        for (int axis = 0; axis < DIMENSIONS; axis++) {
+            double difference = vectors[node * DIMENSIONS + axis] - query[axis];
+            sum += difference * difference;
+        }
+        return sum;
+    }
+
+    /**
+     * Helper method that returns the squared distance between the scaled features of two nodes.
+     */
+    private double nodeDistance(int a, int b) {
+        double sum = 0;
+        for (int axis = 0; axis < DIMENSIONS; axis++) {
+            double difference = vectors[a * DIMENSIONS + axis] - vectors[b * DIMENSIONS + axis];
+            sum += difference * difference;
+        }
+        return sum;
+    }
+
+    /**
+     * Helper method that returns the scaled features of song.
+     */
+    private static double[] vector(Song song) {
+        double[] vector = new double[DIMENSIONS];
+        for (int axis = 0; axis < DIMENSIONS; axis++) {
+            vector[axis] = FEATURES[axis].normalized(song);
+        }
+        return vector;
+    }
+
+    /**
+     * Inserts song into the graph, and links it to its nearest nodes on every layer up to its
+     * random layer.
+     *
+     * @param song the song to insert
+     * @throws NullPointerException if song is null
+     */
+    public synchronized void insert(Song song) {
+        if (song == null) {
+            throw new NullPointerException("Null can not be inserted into the index.");
+        }
+        if (size == songs.length) {
+            int capacity = 2 * size;
+            songs = Arrays.copyOf(songs, capacity);
+            vectors = Arrays.copyOf(vectors, capacity * DIMENSIONS);
+            links = Arrays.copyOf(links, capacity);
+            visited = Arrays.copyOf(visited, capacity);
+        }
+        int node = size++;
+        double[] query = vector(song);
+        songs[node] = song;
+        System.arraycopy(query, 0, vectors, node * DIMENSIONS, DIMENSIONS);
+        int level = (int) (-Math.log(1 - random.nextDouble()) * levelMultiplier);
+        links[node] = new int[level + 1][];
+        for (int layer = 0; layer <= level; layer++) {
+            links[node][layer] = new int[maxLinks(layer) + 1];
+        }
+        if (entryPoint < 0) {
+            entryPoint = node;
+            topLayer = level;
+            return;
+        }
+
+        Candidate nearest = new Candidate(entryPoint, distance(query, entryPoint));
+        for (int layer = topLayer; layer > level; layer--) {
+            nearest = greedy(query, nearest, layer);
+        }
+        List<Candidate> entries = Collections.singletonList(nearest);
+        for (int layer = Math.min(level, topLayer); layer >= 0; layer--) {
+            List<Candidate> found = sorted(searchLayer(query, entries, efConstruction, layer));
+            for (Candidate neighbor : selectNeighbors(found, m)) {
+                link(node, neighbor.node, neighbor.distance, layer);
+                link(neighbor.node, node, neighbor.distance, layer);
+            }
+            entries = found;
+        }
+        if (level > topLayer) {
+            topLayer = level;
+            entryPoint = node;
+        }
+    }
+
+    /**
+     * Helper method that returns the largest number of links of a node on layer.
+     */
+    private int maxLinks(int layer) {
+        return layer == 0 ? 2 * m : m;
+    }
+
+    /**
+     * Helper method that moves from start to a linked node that is nearer to query, as long as
+     * there is one, and returns the node it stops at.
+     */
+    private Candidate greedy(double[] query, Candidate start, int layer) {
+        Candidate nearest = start;
+        boolean moved = true;
+        while (moved) {
+            moved = false;
+            int[] neighbors = links[nearest.node][layer];
+            for (int i = 1; i <= neighbors[0]; i++) {
+                double distance = distance(query, neighbors[i]);
+                if (distance < nearest.distance) {
+                    nearest = new Candidate(neighbors[i], distance);
+                    moved = true;
+                }
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Helper method that searches layer from entries, and returns a heap of the ef nodes nearest
+     * to query that it found, the farthest on top.
+     */
+    private PriorityQueue<Candidate> searchLayer(double[] query, List<Candidate> entries, int ef,
+            int layer) {
+        if (++visitEpoch == 0) {
+            Arrays.fill(visited, 0);
+            visitEpoch = 1;
+        }
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>(NEAREST_FIRST);
+        PriorityQueue<Candidate> found = new PriorityQueue<>(FARTHEST_FIRST);
+        for (Candidate entry : entries) {
+            if (visited[entry.node] != visitEpoch) {
+                visited[entry.node] = visitEpoch;
+                candidates.add(entry);
+                found.add(entry);
+            }
+        }
+        while (found.size() > ef) {
+            found.poll();
+        }
+        while (!candidates.isEmpty()) {
+            Candidate candidate = candidates.poll();
+            if (found.size() >= ef && candidate.distance > found.peek().distance) {
+                break; // every candidate left is farther than the ef nearest found so far
+            }
+            int[] neighbors = links[candidate.node][layer];
+            for (int i = 1; i <= neighbors[0]; i++) {
+                int neighbor = neighbors[i];
+                if (visited[neighbor] == visitEpoch) {
+                    continue;
+                }
+                visited[neighbor] = visitEpoch;
+                double distance = distance(query, neighbor);
+                if (found.size() < ef || distance < found.peek().distance) {
+                    Candidate next = new Candidate(neighbor, distance);
+                    candidates.add(next);
+                    found.add(next);
+                    if (found.size() > ef) {
+                        found.poll();
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Helper method that returns the candidates of a heap, the nearest first.
+     */
+    private static List<Candidate> sorted(PriorityQueue<Candidate> heap) {
+        List<Candidate> list = new ArrayList<>(heap);
+        list.sort(NEAREST_FIRST);
+        return list;
+    }
+
+    /**
+     * Helper method that picks at most max of the candidates, which are sorted nearest first,
+     * to link to. A candidate is skipped when it is nearer to an already picked node than to the
+     * query, so the links spread out in different directions instead of into one cluster.
+     */
+    private List<Candidate> selectNeighbors(List<Candidate> candidates, int max) {
+        List<Candidate> selected = new ArrayList<>(max);
+        for (Candidate candidate : candidates) {
+            if (selected.size() == max) {
+                break;
+            }
+            boolean diverse = true;
+            for (Candidate picked : selected) {
+                if (nodeDistance(picked.node, candidate.node) < candidate.distance) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected.add(candidate);
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Helper method that links from to target on layer. When from already has the largest number
+     * of links, its links and target are selected again.
+     */
+    private void link(int from, int target, double distance, int layer) {
+        int[] neighbors = links[from][layer];
+        int count = neighbors[0];
+        if (count < neighbors.length - 1) {
+            neighbors[++count] = target;
+            neighbors[0] = count;
+            return;
+        }
+        List<Candidate> candidates = new ArrayList<>(count + 1);
+        for (int i = 1; i <= count; i++) {
+            candidates.add(new Candidate(neighbors[i], nodeDistance(from, neighbors[i])));
+        }
+        candidates.add(new Candidate(target, distance));
+        candidates.sort(NEAREST_FIRST);
+        List<Candidate> selected = selectNeighbors(candidates, count);
+        neighbors[0] = selected.size();
+        for (int i = 0; i < selected.size(); i++) {
+            neighbors[i + 1] = selected.get(i).node;
+        }
+    }
+
+    /**
+     * Finds about the k songs that are most similar to query among the songs that pass filter.
+     * When fewer than k of the nodes kept by the search pass filter, the search is repeated
+     * with twice as many nodes, until k songs are found, every song was kept, or MAX_EF_FACTOR
+     * times the first number of nodes was kept.
+     *
+     * @param query  the song to find similar songs for, which need not be in the index
+     * @param k      the number of songs to return at most
+     * @param filter the condition that the returned songs must meet
+     * @return the at most k similar songs that were found, the most similar first, or null when
+     *     the largest search did not find k songs that pass filter
+     */
+    public synchronized List<Song> nearest(Song query, int k, Predicate<Song> filter) {
+        List<Song> result = new ArrayList<>();
+        if (k <= 0 || size == 0) {
+            return result;
+        }
+        double[] vector = vector(query);
+        Candidate nearest = new Candidate(entryPoint, distance(vector, entryPoint));
+        for (int layer = topLayer; layer > 0; layer--) {
+            nearest = greedy(vector, nearest, layer);
+        }
+        List<Candidate> entries = Collections.singletonList(nearest);
+        int first = Math.max(efSearch, k);
+        long maxEf = (long) first * MAX_EF_FACTOR;
+        for (int ef = first; ; ef = (int) Math.min(2L * ef, size)) {
+            result.clear();
+            for (Candidate candidate : sorted(searchLayer(vector, entries, ef, 0))) {
+                if (result.size() < k && filter.test(songs[candidate.node])) {
+                    result.add(songs[candidate.node]);
+                }
+            }
+            if (result.size() == k || ef >= size) {
+                return result;
+            }
+            if (2L * ef > maxEf) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * The recall and latency of nearest, measured by evaluate against a SongKdTree.
+     */
+    public static class Evaluation {
+        private final double recall;
+        private final LatencyRecorder approximate = new LatencyRecorder("hnsw");
+        private final LatencyRecorder exact = new LatencyRecorder("kdtree");
+
+        private Evaluation(double recall) {
+            this.recall = recall;
+        }
+
+        public double getRecall() { return recall; }
+        public LatencyRecorder getApproximate() { return approximate; }
+        public LatencyRecorder getExact() { return exact; }
+
+        /**
+         * Returns a human readable summary of the recall and the p50 and p99 latency of both
+         * searches.
+         *
+         * @return list of report lines
+         */
+        public List<String> report() {
+            List<String> lines = new ArrayList<>();
+            lines.add(String.format("recall: %.4f", recall));
+            for (LatencyRecorder recorder : new LatencyRecorder[] {approximate, exact}) {
+                lines.add(String.format("%-6s %6d queries  p50 %.3f ms  p99 %.3f ms",
+                        recorder.getName(), recorder.getCount(), recorder.percentile(50) / 1e6,
+                        recorder.percentile(99) / 1e6));
+            }
+            return lines;
+        }
+    }
+
+    /**
+     * Searches for the k songs most similar to every query song, both with nearest and with a
+     * SongKdTree of the songs of the index, excluding the query song itself. The recall is the
+     * share of the exact results that nearest also found, where a song counts as found when
+     * nearest returned a song at the same distance, so that ties do not lower the recall.
+     *
+     * @param queries the songs to search for
+     * @param k       the number of similar songs per search
+     * @return the recall and the latency of both searches
+     */
+    public Evaluation evaluate(List<Song> queries, int k) {
+        SongKdTree exactIndex;
+        synchronized (this) {
+            exactIndex = new SongKdTree(Arrays.asList(songs).subList(0, size));
+        }
+        long found = 0;
+        long total = 0;
+        List<long[]> latencies = new ArrayList<>();
+        for (Song query : queries) {
+            Predicate<Song> other = song -> song != query;
+            long start = System.nanoTime();
+            List<Song> approximate = nearest(query, k, other);
+            long middle = System.nanoTime();
+            List<Song> exact = exactIndex.nearest(query, k, other);
+            if (approximate == null) {
+                approximate = new ArrayList<>();
+            }
+            latencies.add(new long[] {middle - start, System.nanoTime() - middle});
+            double[] vector = vector(query);
+            List<Double> distances = new ArrayList<>();
+            for (Song song : approximate) {
+                distances.add(distance(vector, vector(song)));
+            }
+            for (Song song : exact) {
+                total++;
+                if (distances.remove(Double.valueOf(distance(vector, vector(song))))) {
+                    found++;
+                }
+            }
+        }
+        Evaluation evaluation = new Evaluation(total == 0 ? 1.0 : (double) found / total);
+        for (long[] latency : latencies) {
+            evaluation.approximate.record(latency[0]);
+            evaluation.exact.record(latency[1]);
+        }
+        return evaluation;
+    }
+
+    /**
+     * Helper method that returns the squared distance between two vectors.
+     */
+    private static double distance(double[] a, double[] b) {
+        double sum = 0;
+        for (int axis = 0; axis < DIMENSIONS; axis++) {
+            sum += (a[axis] - b[axis]) * (a[axis] - b[axis]);
+        }
+        return sum;
+    }
+
+    /**
+     * Loads a CSV file into an index and prints the recall and latency of 1000 random queries,
+     * for example: java -cp cli/target/isongly.jar isongly.HnswIndex songs.csv 16 200 64
+     *
+     * @param args the CSV file, and optionally m, efConstruction and efSearch
+     * @throws IOException when the file cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        int m = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_M;
+        int efConstruction = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_EF_CONSTRUCTION;
+        HnswIndex index = new HnswIndex(m, efConstruction, new Random(1));
+        if (args.length > 3) {
+            index.setEfSearch(Integer.parseInt(args[3]));
+        }
+        Backend backend = new Backend(new IterableRedBlackTree<>());
+        backend.setApproximateIndex(index);
+        long start = System.nanoTime();
+        backend.readData(args[0]);
+        System.out.printf("loaded %d songs into the index in %.2f s%n", index.size(),
+                (System.nanoTime() - start) / 1e9);
+        List<Song> queries = new ArrayList<>();
+        Random random = new Random(2);
+        for (int i = 0; i < 1000 && index.size() > 0; i++) {
+            queries.add(index.songs[random.nextInt(index.size())]);
+        }
+        for (String line : index.evaluate(queries, 10).report()) {
+            System.out.println(line);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package isongly;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * IngestChunkEvent - CS400 Project 1: iSongly
+ * JFR event that Backend.readData emits for every chunk of rows it loads, recording the rows and
+ * bytes of the chunk, while the event duration covers parsing and inserting them. A load on a
+ * single thread reports chunks of CHUNK_ROWS rows, and a load with parser threads reports every
+ * batch of its IngestPipeline. Disabled unless turned on by a JFR configuration such as
+ * isongly.jfc.
+ */
+@Name("isongly.IngestChunk")
+@Label("Ingest Chunk")
+@Category({"iSongly", "Ingest"})
+@Description("A chunk of CSV rows parsed and inserted by readData")
+@Enabled(false)
+@StackTrace(false)
+public class IngestChunkEvent extends Event {
+  // number of rows in every chunk of a single thread, the last chunk of a file may be smaller
+  public static final int CHUNK_ROWS = 10000;
+
+  @Label("File")
+  public String file;
+
+  @Label("Rows")
+  public int rows;
+
+  @Label("Bytes")
+  @DataAmount
+  public long bytes;
+}
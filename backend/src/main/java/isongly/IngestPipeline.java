@@ -0,0 +1,332 @@
+package isongly;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * IngestPipeline - CS400 Project 1: iSongly
+ * This class loads rows in three stages that run at the same time: the calling thread reads
+ * lines and groups them into batches, a pool of parser threads turns each batch of lines into a
+ * sorted batch of values, and a single writer thread hands the parsed batches to a consumer in
+ * the order of the lines, which is usually an insert into a tree that is not thread-safe. The
+ * sort is stable, so a tree receives equal values in the same order as from a single thread.
+ * <p>
+ * The queues of the reader are bounded, so a slow writer or busy parsers make the reader wait,
+ * instead of letting unparsed lines pile up in memory, while the parsers never wait for the
+ * writer. When a line fails to parse, or a stage fails with an Exception or Error, the reader
+ * stops reading. The writer still writes every value before the failing line, as a load on a
+ * single thread would, and then only drains its queue. run rethrows the failure of the earliest
+ * line once every thread has stopped, so a load fails the same way from run to run.
+ * <p>
+ * When a file name has been set with setChunkFile, every batch is reported as an
+ * IngestChunkEvent, whose duration covers parsing the batch, waiting for its turn and writing
+ * it.
+ *
+ * @param <T> the type of the parsed values
+ */
+public class IngestPipeline<T extends Comparable<T>> {
+
+  /**
+   * Parses a single line into a value.
+   *
+   * @param <T> the type of the parsed value
+   */
+  public interface LineParser<T> {
+    /**
+     * @param line the line to parse
+     * @return the parsed value
+     * @throws Exception when the line cannot be parsed
+     */
+    T parse(String line) throws Exception;
+  }
+
+  /**
+   * A batch of lines, numbered in the order of the lines, and the parsed values that a parser
+   * thread completes it with: null when the values have been written already or are not needed.
+   */
+  private static class Batch<T> {
+    private final long sequence;
+    private final List<String> lines;
+    private final CompletableFuture<List<T>> values = new CompletableFuture<>();
+    // begun by the parser thread, and committed once the values have been written
+    private IngestChunkEvent chunk = null;
+
+    private Batch(long sequence, List<String> lines) {
+      this.sequence = sequence;
+      this.lines = lines;
+    }
+  }
+
+  /**
+   * The failure of a load, and the sequence number of the batch that it happened in. Only the
+   * failure of the earliest batch is kept, so that it does not depend on the timing of threads.
+   */
+  private static class Failure {
+    private long sequence = Long.MAX_VALUE;
+    private Throwable cause = null;
+
+    /**
+     * Records cause as the failure when it happened in an earlier batch than the failure so far.
+     */
+    private synchronized void record(long sequence, Throwable cause) {
+      if (sequence < this.sequence) {
+        this.sequence = sequence;
+        this.cause = cause;
+      }
+    }
+
+    /**
+     * @return the sequence number of the batch that failed first, or Long.MAX_VALUE
+     */
+    private synchronized long sequence() {
+      return sequence;
+    }
+
+    /**
+     * @return the failure of the earliest batch, or null when no stage failed
+     */
+    private synchronized Throwable cause() {
+      return cause;
+    }
+  }
+
+  private final int parserThreads;
+  private final int batchSize;
+  private final int queueCapacity;
+  // whether the parser threads pass their batches to the writer themselves
+  private boolean concurrentWriter = false;
+  // the file named by the IngestChunkEvent of every batch, or null to emit no events
+  private String chunkFile = null;
+
+  /**
+   * Constructor for IngestPipeline class
+   *
+   * @param parserThreads the number of threads that parse lines
+   * @param batchSize     the number of lines per batch
+   * @param queueCapacity the number of batches each queue holds before its producers wait
+   * @throws IllegalArgumentException when any argument is not positive
+   */
+  public IngestPipeline(int parserThreads, int batchSize, int queueCapacity) {
+    if (parserThreads <= 0 || batchSize <= 0 || queueCapacity <= 0) {
+      throw new IllegalArgumentException("Need a positive number of threads, rows per batch "
+          + "and batches per queue.");
+    }
+    this.parserThreads = parserThreads;
+    this.batchSize = batchSize;
+    this.queueCapacity = queueCapacity;
+  }
+
+  /**
+   * Sets whether the writer that is passed to run is thread-safe. In that case each parser
+   * thread passes its sorted batches to the writer itself, so that batches are written in
+   * parallel and in no particular order, instead of one at a time in the order of the lines.
+   * Every value before a failing line is still written, but so may be some values after it.
+   *
+   * @param concurrentWriter true if the writer may be called by several threads at once
+   */
+  public void setConcurrentWriter(boolean concurrentWriter) {
+    this.concurrentWriter = concurrentWriter;
+  }
+
+  /**
+   * Sets the file that the lines are read from, so that every batch that is written is reported
+   * as an IngestChunkEvent with the rows and bytes of its lines.
+   *
+   * @param file the name of the file being loaded, or null to emit no events
+   */
+  public void setChunkFile(String file) {
+    this.chunkFile = file;
+  }
+
+  /**
+   * Reads every line from lines, parses them on the parser threads and passes the parsed values
+   * to writer in sorted batches, one batch at a time in the order of the lines unless the writer
+   * has been declared concurrent. Returns after every stage has finished.
+   *
+   * @param lines  the lines to load, only used by the calling thread
+   * @param parser turns one line into a value, called by the parser threads
+   * @param writer receives each sorted batch, only called by the writer thread unless
+   *               setConcurrentWriter was set
+   * @return the number of values that were passed to writer
+   * @throws IOException when reading, parsing or writing fails, or the calling thread is
+   *                     interrupted
+   * @throws Error       when a stage failed with an Error, which is rethrown as it is
+   */
+  public long run(Iterator<String> lines, LineParser<T> parser, Consumer<List<T>> writer)
+      throws IOException {
+    // a batch without lines tells a parser, or the writer, that its producers are done
+    final Batch<T> endOfLines = new Batch<>(-1, null);
+    final Batch<T> endOfBatches = new Batch<>(-1, null);
+    BlockingQueue<Batch<T>> lineBatches = new ArrayBlockingQueue<>(queueCapacity);
+    BlockingQueue<Batch<T>> inOrder = new ArrayBlockingQueue<>(queueCapacity);
+    Failure failure = new Failure();
+    LongAdder written = new LongAdder();
+
+    Thread[] parsers = new Thread[parserThreads];
+    for (int i = 0; i < parserThreads; i++) {
+      parsers[i] = new Thread(() -> {
+        try {
+          Batch<T> batch;
+          while ((batch = lineBatches.take()) != endOfLines) {
+            if (batch.sequence > failure.sequence()) {
+              batch.values.complete(null); // keep draining, so that no stage waits on this one
+              continue;
+            }
+            // on a failure, the values of the lines before the failing line are still written
+            IngestChunkEvent chunk = startChunk();
+            List<T> values = new ArrayList<>(batch.lines.size());
+            try {
+              for (String line : batch.lines) {
+                values.add(parser.parse(line));
+                if (chunk != null) {
+                  chunk.rows++;
+                  chunk.bytes += line.length() + 1;
+                }
+              }
+            } catch (Throwable e) {
+              failure.record(batch.sequence, e);
+            }
+            try {
+              Collections.sort(values);
+              if (concurrentWriter && batch.sequence <= failure.sequence()) {
+                writer.accept(values);
+                written.add(values.size());
+                values = null;
+                commit(chunk);
+              }
+            } catch (Throwable e) {
+              failure.record(batch.sequence, e);
+              values = null;
+            }
+            batch.chunk = chunk;
+            batch.values.complete(values);
+          }
+        } catch (InterruptedException e) {
+          failure.record(Long.MIN_VALUE, e);
+        }
+      }, "ingest-parser-" + i);
+      parsers[i].setDaemon(true);
+      parsers[i].start();
+    }
+
+    // takes the batches in the order of the lines, and waits for each to be parsed in turn; every
+    // batch before a failure, and the lines of the failing batch before the failing line, are
+    // written, and later batches are only drained
+    Thread writerThread = new Thread(() -> {
+      while (true) {
+        Batch<T> batch = null;
+        try {
+          batch = inOrder.take();
+          if (batch == endOfBatches) {
+            return;
+          }
+          List<T> values = batch.values.get();
+          if (values != null && batch.sequence <= failure.sequence()) {
+            writer.accept(values);
+            written.add(values.size());
+            commit(batch.chunk);
+          }
+        } catch (InterruptedException e) {
+          failure.record(Long.MIN_VALUE, e);
+          return;
+        } catch (Throwable e) {
+          // keep draining until the reader has stopped
+          failure.record(batch == null ? Long.MIN_VALUE : batch.sequence, e);
+        }
+      }
+    }, "ingest-writer");
+    writerThread.setDaemon(true);
+    writerThread.start();
+
+    try {
+      long sequence = 0;
+      List<String> lineBatch = new ArrayList<>(batchSize);
+      try {
+        while (failure.cause() == null && lines.hasNext()) {
+          lineBatch.add(lines.next());
+          if (lineBatch.size() == batchSize) {
+            submit(new Batch<>(sequence++, lineBatch), inOrder, lineBatches);
+            lineBatch = new ArrayList<>(batchSize);
+          }
+        }
+      } catch (RuntimeException e) {
+        // the lines that were read before the failure are still loaded
+        failure.record(sequence, e);
+      }
+      if (!lineBatch.isEmpty() && sequence <= failure.sequence()) {
+        submit(new Batch<>(sequence, lineBatch), inOrder, lineBatches);
+      }
+      // stop the parsers, and then the writer once it has taken every batch
+      for (Thread ignored : parsers) {
+        lineBatches.put(endOfLines);
+      }
+      inOrder.put(endOfBatches);
+      for (Thread parserThread : parsers) {
+        parserThread.join();
+      }
+      writerThread.join();
+    } catch (InterruptedException e) {
+      writerThread.interrupt();
+      for (Thread parserThread : parsers) {
+        parserThread.interrupt();
+      }
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while loading rows.", e);
+    }
+
+    Throwable e = failure.cause();
+    if (e instanceof IOException) {
+      throw (IOException) e;
+    } else if (e instanceof Error) {
+      throw (Error) e;
+    } else if (e != null) {
+      throw new IOException("Loading rows failed.", e);
+    }
+    return written.sum();
+  }
+
+  /**
+   * Helper method that begins the IngestChunkEvent of a batch.
+   *
+   * @return the begun event, or null when no file has been set
+   */
+  private IngestChunkEvent startChunk() {
+    if (chunkFile == null) {
+      return null;
+    }
+    IngestChunkEvent chunk = new IngestChunkEvent();
+    chunk.file = chunkFile;
+    chunk.begin();
+    return chunk;
+  }
+
+  /**
+   * Helper method that commits the IngestChunkEvent of a batch that has been written.
+   *
+   * @param chunk the event of the batch, or null
+   */
+  private static void commit(IngestChunkEvent chunk) {
+    if (chunk != null && chunk.rows > 0) {
+      chunk.commit();
+    }
+  }
+
+  /**
+   * Helper method that queues a batch for the writer, in the order of the lines, and then for
+   * the parsers. The writer queue is bounded, so the reader waits while queueCapacity batches
+   * are waiting to be written.
+   */
+  private static <T> void submit(Batch<T> batch, BlockingQueue<Batch<T>> inOrder,
+      BlockingQueue<Batch<T>> lineBatches) throws InterruptedException {
+    inOrder.put(batch);
+    lineBatches.put(batch);
+  }
+}
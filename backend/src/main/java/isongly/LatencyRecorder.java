@@ -0,0 +1,107 @@
+package isongly;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * LatencyRecorder - CS400 Project 1: iSongly
+ * This class records latencies in a log-linear histogram, in the style of HdrHistogram. Values
+ * below 128 ns get a bucket each, and every power-of-two range above that is split into 64
+ * equally wide buckets, so every recorded value is kept with a relative error below 1.6%.
+ * Recording only increments atomic counters, so it is lock-free, never allocates, and can be
+ * called from any number of threads at once.
+ */
+public class LatencyRecorder {
+  // number of buckets that hold one value each; larger values share buckets
+  private static final int SUB_BUCKETS = 128;
+  private static final int HALF = SUB_BUCKETS / 2;
+  private static final int SUB_BITS = 7;
+  // enough buckets for every non-negative long value
+  private static final int BUCKETS = SUB_BUCKETS + (63 - SUB_BITS) * HALF;
+
+  private final String name;
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final AtomicLong count = new AtomicLong();
+  private final AtomicLong totalNanos = new AtomicLong();
+  private final AtomicLong maxNanos = new AtomicLong();
+
+  /**
+   * Constructor for LatencyRecorder class
+   *
+   * @param name the name of the recorded operation
+   */
+  public LatencyRecorder(String name) {
+    this.name = name;
+  }
+
+  public String getName() { return name; }
+  public long getCount() { return count.get(); }
+  public long getTotalNanos() { return totalNanos.get(); }
+  public long getMaxNanos() { return maxNanos.get(); }
+
+  /**
+   * Records one latency.
+   *
+   * @param nanos the latency in nanoseconds, negative values are recorded as 0
+   */
+  public void record(long nanos) {
+    if (nanos < 0) {
+      nanos = 0;
+    }
+    counts.incrementAndGet(bucketOf(nanos));
+    count.incrementAndGet();
+    totalNanos.addAndGet(nanos);
+    long max = maxNanos.get();
+    while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+      max = maxNanos.get();
+    }
+  }
+
+  /**
+   * Returns the latency that p percent of all recorded latencies do not exceed. The result is
+   * the largest value of the bucket the percentile falls in, so it is never below the exact
+   * percentile and at most 1.6% above it.
+   *
+   * @param p the percentile, from 0 to 100
+   * @return the latency in nanoseconds, or 0 when nothing has been recorded
+   */
+  public long percentile(double p) {
+    long total = count.get();
+    if (total == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(p / 100 * total));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts.get(i);
+      if (seen >= rank) {
+        return Math.min(highestValueIn(i), maxNanos.get());
+      }
+    }
+    return maxNanos.get();
+  }
+
+  /**
+   * Helper method that returns the bucket of a non-negative value.
+   */
+  private static int bucketOf(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    // shift so that value >>> shift falls between HALF and SUB_BUCKETS
+    int shift = (63 - Long.numberOfLeadingZeros(value)) - (SUB_BITS - 1);
+    return SUB_BUCKETS + (shift - 1) * HALF + (int) ((value >>> shift) - HALF);
+  }
+
+  /**
+   * Helper method that returns the largest value that falls in bucket.
+   */
+  private static long highestValueIn(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int shift = (bucket - SUB_BUCKETS) / HALF + 1;
+    long subBucket = (bucket - SUB_BUCKETS) % HALF + HALF;
+    return ((subBucket + 1) << shift) - 1;
+  }
+}
@@ -0,0 +1,251 @@
+package isongly;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * ParallelAggregator - CS400 Project 1: iSongly
+ * This class aggregates feature values (count, sum, min, max and value histogram) with a
+ * fork/join RecursiveTask. The values are split until a part holds no more values than the
+ * parallelism threshold, each part is aggregated on its own, and the partial aggregates are
+ * merged on the way back up. Values are taken either from a column, which is split into halves,
+ * or straight from a Spliterator, such as the one of an IterableRedBlackTree, which is split with
+ * trySplit so that the scan of the tree itself runs in parallel. Inputs that are no longer than
+ * the threshold are aggregated in the calling thread without touching the pool.
+ * <p>
+ * The value histogram keeps one count per distinct value, sorted by value, so its size depends on
+ * the number of distinct values and not on the distance between the smallest and largest value.
+ */
+public class ParallelAggregator {
+  // default number of values below which a range is not split any further
+  public static final int DEFAULT_THRESHOLD = 1 << 16;
+
+  private final int threshold;
+  private final ForkJoinPool pool;
+
+  /**
+   * Constructor for ParallelAggregator class that runs its tasks in the common pool.
+   *
+   * @param threshold ranges of at most this many values are aggregated in a single task
+   * @throws IllegalArgumentException when threshold is not positive
+   */
+  public ParallelAggregator(int threshold) {
+    this(threshold, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Constructor for ParallelAggregator class
+   *
+   * @param threshold ranges of at most this many values are aggregated in a single task
+   * @param pool      the pool to run the tasks in
+   * @throws IllegalArgumentException when threshold is not positive
+   */
+  public ParallelAggregator(int threshold, ForkJoinPool pool) {
+    if (threshold <= 0) {
+      throw new IllegalArgumentException("The parallelism threshold must be positive.");
+    }
+    this.threshold = threshold;
+    this.pool = pool;
+  }
+
+  /**
+   * @return the number of values below which a range is aggregated in a single task
+   */
+  public int getThreshold() {
+    return threshold;
+  }
+
+  /**
+   * Aggregates all values of a column.
+   *
+   * @param values the column of feature values
+   * @return the aggregate of the values
+   */
+  public FeatureStats aggregate(int[] values) {
+    AggregateTask task = new AggregateTask(values, 0, values.length);
+    return toStats(values.length <= threshold ? task.compute() : pool.invoke(task));
+  }
+
+  /**
+   * Aggregates the feature values of the elements of a spliterator that pass a filter. The
+   * spliterator is split while it estimates more elements than the threshold, and the filter
+   * and feature may be called from several threads at once.
+   *
+   * @param elements the elements to aggregate
+   * @param filter   the elements to consider
+   * @param feature  the value of an element
+   * @param <T>      the type of the elements
+   * @return the aggregate of the values of the elements that pass the filter
+   */
+  public <T> FeatureStats aggregate(Spliterator<T> elements, Predicate<? super T> filter,
+      ToIntFunction<? super T> feature) {
+    SplitTask<T> task = new SplitTask<>(elements, filter, feature);
+    return toStats(elements.estimateSize() <= threshold ? task.compute() : pool.invoke(task));
+  }
+
+  /**
+   * Helper method that turns the partial aggregate of all values into a FeatureStats.
+   */
+  private static FeatureStats toStats(Partial total) {
+    return new FeatureStats(total.count, total.sum, total.min, total.max,
+        Arrays.copyOf(total.values, total.distinct),
+        Arrays.copyOf(total.valueCounts, total.distinct));
+  }
+
+  /**
+   * Partial aggregate of one part of the values. The first distinct entries of values hold the
+   * distinct values in increasing order, and valueCounts how often each of them occurs.
+   */
+  private static class Partial {
+    long count = 0;
+    long sum = 0;
+    int min = Integer.MAX_VALUE;
+    int max = Integer.MIN_VALUE;
+    int[] values = new int[0];
+    long[] valueCounts = new long[0];
+    int distinct = 0;
+
+    /**
+     * Creates the partial aggregate of the first length entries of buffer, which are sorted in
+     * place.
+     */
+    static Partial of(int[] buffer, int length) {
+      Partial partial = new Partial();
+      if (length == 0) {
+        return partial;
+      }
+      Arrays.sort(buffer, 0, length);
+      partial.values = new int[length];
+      partial.valueCounts = new long[length];
+      for (int i = 0; i < length; i++) {
+        partial.sum += buffer[i];
+        if (partial.distinct == 0 || partial.values[partial.distinct - 1] != buffer[i]) {
+          partial.values[partial.distinct++] = buffer[i];
+        }
+        partial.valueCounts[partial.distinct - 1]++;
+      }
+      partial.count = length;
+      partial.min = buffer[0];
+      partial.max = buffer[length - 1];
+      return partial;
+    }
+
+    /**
+     * Merges other into this partial aggregate, merging the sorted distinct values of both.
+     */
+    Partial merge(Partial other) {
+      if (other.count == 0) {
+        return this;
+      }
+      if (count == 0) {
+        return other;
+      }
+      int[] mergedValues = new int[distinct + other.distinct];
+      long[] mergedCounts = new long[distinct + other.distinct];
+      int merged = 0;
+      int i = 0;
+      int j = 0;
+      while (i < distinct || j < other.distinct) {
+        int value;
+        long valueCount;
+        if (j == other.distinct || i < distinct && values[i] < other.values[j]) {
+          value = values[i];
+          valueCount = valueCounts[i++];
+        } else if (i == distinct || other.values[j] < values[i]) {
+          value = other.values[j];
+          valueCount = other.valueCounts[j++];
+        } else {
+          value = values[i];
+          valueCount = valueCounts[i++] + other.valueCounts[j++];
+        }
+        mergedValues[merged] = value;
+        mergedCounts[merged++] = valueCount;
+      }
+      count += other.count;
+      sum += other.sum;
+      min = Math.min(min, other.min);
+      max = Math.max(max, other.max);
+      values = mergedValues;
+      valueCounts = mergedCounts;
+      distinct = merged;
+      return this;
+    }
+  }
+
+  /**
+   * Task that aggregates values[from] up to (not including) values[to].
+   */
+  private class AggregateTask extends RecursiveTask<Partial> {
+    private static final long serialVersionUID = 1L;
+
+    private final int[] values;
+    private final int from;
+    private final int to;
+
+    AggregateTask(int[] values, int from, int to) {
+      this.values = values;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected Partial compute() {
+      if (to - from > threshold) {
+        int middle = (from + to) >>> 1;
+        AggregateTask left = new AggregateTask(values, from, middle);
+        AggregateTask right = new AggregateTask(values, middle, to);
+        left.fork();
+        Partial rightPartial = right.compute();
+        return left.join().merge(rightPartial);
+      }
+      return Partial.of(Arrays.copyOfRange(values, from, to), to - from);
+    }
+  }
+
+  /**
+   * Task that aggregates the elements of a spliterator, splitting off the lower part into a
+   * forked task for as long as more elements than the threshold remain.
+   */
+  private class SplitTask<T> extends RecursiveTask<Partial> {
+    private static final long serialVersionUID = 1L;
+
+    private final transient Spliterator<T> elements;
+    private final transient Predicate<? super T> filter;
+    private final transient ToIntFunction<? super T> feature;
+
+    SplitTask(Spliterator<T> elements, Predicate<? super T> filter,
+        ToIntFunction<? super T> feature) {
+      this.elements = elements;
+      this.filter = filter;
+      this.feature = feature;
+    }
+
+    @Override
+    protected Partial compute() {
+      Spliterator<T> prefix;
+      if (elements.estimateSize() > threshold && (prefix = elements.trySplit()) != null) {
+        SplitTask<T> left = new SplitTask<>(prefix, filter, feature);
+        left.fork();
+        Partial rightPartial = compute();
+        return left.join().merge(rightPartial);
+      }
+      // the estimate of a spliterator without a known size is no bound, so start small then
+      long estimate = elements.estimateSize();
+      int[][] buffer = {new int[(int) Math.min(estimate, threshold) + 1]};
+      int[] length = {0};
+      elements.forEachRemaining(element -> {
+        if (filter.test(element)) {
+          if (length[0] == buffer[0].length) {
+            buffer[0] = Arrays.copyOf(buffer[0], 2 * length[0]);
+          }
+          buffer[0][length[0]++] = feature.applyAsInt(element);
+        }
+      });
+      return Partial.of(buffer[0], length[0]);
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package isongly;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * QueryEvent - CS400 Project 1: iSongly
+ * JFR event that Backend emits for every query, recording the query type, its year bounds and
+ * loudness threshold, and how many songs were scanned in the tree compared to how many results
+ * were returned. Disabled unless turned on by a JFR configuration such as isongly.jfc.
+ */
+@Name("isongly.Query")
+@Label("Backend Query")
+@Category({"iSongly", "Query"})
+@Description("A query answered by the backend")
+@Enabled(false)
+@StackTrace(false)
+public class QueryEvent extends Event {
+
+  @Label("Type")
+  public String type;
+
+  @Label("Low Year")
+  @Description("Minimum year of the query, empty when unbounded")
+  public String low;
+
+  @Label("High Year")
+  @Description("Maximum year of the query, empty when unbounded")
+  public String high;
+
+  @Label("Loudness Threshold")
+  @Description("Loudness filter of the query, empty when no filter is set")
+  public String threshold;
+
+  @Label("Songs Scanned")
+  public long scanned;
+
+  @Label("Results Returned")
+  public long returned;
+
+  /**
+   * Creates and begins the event of a new query.
+   *
+   * @param type      the name of the query
+   * @param low       the minimum year, or null
+   * @param high      the maximum year, or null
+   * @param threshold the loudness threshold, or null
+   * @return the begun event
+   */
+  public static QueryEvent start(String type, Integer low, Integer high, Integer threshold) {
+    QueryEvent event = new QueryEvent();
+    if (event.isEnabled()) {
+      event.type = type;
+      event.low = low == null ? "" : low.toString();
+      event.high = high == null ? "" : high.toString();
+      event.threshold = threshold == null ? "" : threshold.toString();
+    }
+    event.begin();
+    return event;
+  }
+
+  /**
+   * Ends the event and commits it, if it is enabled and passes the configured threshold.
+   *
+   * @param returned the number of results returned by the query
+   */
+  public void finish(long returned) {
+    this.returned = returned;
+    commit();
+  }
+}
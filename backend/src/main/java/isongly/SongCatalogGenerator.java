@@ -0,0 +1,222 @@
+package isongly;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Random;
+
+/**
+ * SongCatalogGenerator - CS400 Project 1: iSongly
+ * This class writes synthetic song catalogs in the songs.csv format that Backend.readData
+ * expects, for load and scale testing. Output is deterministic for a given seed, and is written
+ * row by row, so files of any size can be generated without holding them in memory.
+ * <p>
+ * The generated data has a realistic shape: a few artists own most of the songs (Zipfian
+ * popularity), release years cluster around a handful of eras, energy and loudness are
+ * correlated, and some titles contain commas and are therefore quoted.
+ */
+public class SongCatalogGenerator {
+  // header of the generated files, with the same columns as songs.csv
+  public static final String HEADER =
+      "title,artist,top genre,year,added,bpm,nrgy,dnce,dB,live,val,dur,acous,spch,pop";
+
+  private static final String[] GENRES = {"dance pop", "pop", "canadian pop", "boy band",
+      "barbadian pop", "electropop", "big room", "neo mellow", "art pop", "hip pop",
+      "atl hip hop", "australian dance", "edm", "permanent wave", "detroit hip hop",
+      "brostep", "latin", "colombian pop", "indie pop", "country pop"};
+  private static final String[] WORDS = {"Love", "Night", "Heart", "Dance", "Fire", "Summer",
+      "Girl", "Baby", "Time", "World", "Light", "Dream", "Party", "Money", "Sky", "Tonight",
+      "Forever", "Home", "Wild", "Young", "Golden", "Crazy", "Broken", "Electric", "Ocean"};
+  // centers, spreads and weights of the eras that release years cluster around
+  private static final int[] ERA_CENTERS = {1968, 1986, 2004, 2015};
+  private static final int[] ERA_SPREADS = {6, 5, 4, 3};
+  private static final double[] ERA_WEIGHTS = {0.1, 0.2, 0.3, 0.4};
+  private static final int FIRST_YEAR = 1950;
+  private static final int LAST_YEAR = 2023;
+
+  // every write starts a new Random with this seed, so repeated writes produce equal files
+  private final long seed;
+  // cumulative Zipfian probabilities of the artists, artistCdf[i] = P(artist <= i)
+  private final double[] artistCdf;
+
+  /**
+   * Constructor for SongCatalogGenerator class, with 10,000 artists whose popularity follows a
+   * Zipf distribution with exponent 1.
+   *
+   * @param seed the seed, generators with equal seeds write equal files
+   */
+  public SongCatalogGenerator(long seed) {
+    this(seed, 10000, 1.0);
+  }
+
+  /**
+   * Constructor for SongCatalogGenerator class
+   *
+   * @param seed         the seed, generators with equal arguments write equal files
+   * @param artists      the number of distinct artists
+   * @param zipfExponent the skew of the artist popularity, 0 makes all artists equally popular
+   * @throws IllegalArgumentException when artists is not positive or zipfExponent is negative
+   */
+  public SongCatalogGenerator(long seed, int artists, double zipfExponent) {
+    if (artists <= 0 || zipfExponent < 0) {
+      throw new IllegalArgumentException("Need a positive number of artists and a "
+          + "non-negative Zipf exponent.");
+    }
+    this.seed = seed;
+    this.artistCdf = new double[artists];
+    double total = 0;
+    for (int i = 0; i < artists; i++) {
+      total += 1 / Math.pow(i + 1, zipfExponent);
+      artistCdf[i] = total;
+    }
+    for (int i = 0; i < artists; i++) {
+      artistCdf[i] /= total;
+    }
+  }
+
+  /**
+   * Writes a header row followed by rows songs to file, replacing any existing content.
+   *
+   * @param file the file to write
+   * @param rows the number of songs to generate
+   * @throws IOException when the file cannot be written
+   */
+  public void write(File file, long rows) throws IOException {
+    try (Writer out = new BufferedWriter(new FileWriter(file), 1 << 16)) {
+      write(out, rows);
+    }
+  }
+
+  /**
+   * Writes a header row followed by rows songs to out. Each row is written as soon as it is
+   * generated, and out is not closed. Every call writes the same rows for the same number of
+   * rows, and calls may run at the same time.
+   *
+   * @param out  the writer to write to
+   * @param rows the number of songs to generate
+   * @throws IOException when writing fails
+   */
+  public void write(Writer out, long rows) throws IOException {
+    out.write(HEADER);
+    out.write('\n');
+    Random random = new Random(seed);
+    StringBuilder row = new StringBuilder(128);
+    for (long i = 0; i < rows; i++) {
+      row.setLength(0);
+      appendRow(random, row, i);
+      out.append(row);
+    }
+    out.flush();
+  }
+
+  /**
+   * Helper method that appends the next generated song, followed by a line break, to row.
+   */
+  private void appendRow(Random random, StringBuilder row, long index) {
+    int artist = nextArtist(random);
+    int year = nextYear(random);
+    int energy = clamp((int) Math.round(70 + 16 * random.nextGaussian()), 5, 100);
+    // louder songs tend to have more energy
+    int loudness = clamp((int) Math.round(-11 + energy / 10.0 + 1.5 * random.nextGaussian()),
+        -20, 0);
+
+    appendTitle(random, row, index);
+    row.append(",Artist ").append(artist);
+    row.append(',').append(GENRES[artist % GENRES.length]);
+    row.append(',').append(year);
+    row.append(',').append(Math.min(year + 1 + random.nextInt(5), LAST_YEAR)).append("-01-01");
+    row.append(',').append(clamp((int) Math.round(118 + 22 * random.nextGaussian()), 50, 210));
+    row.append(',').append(energy);
+    row.append(',').append(clamp((int) Math.round(64 + 13 * random.nextGaussian()), 10, 98));
+    row.append(',').append(loudness);
+    row.append(',').append(clamp((int) Math.round(Math.abs(18 * random.nextGaussian())), 1, 90));
+    row.append(',').append(random.nextInt(100));
+    row.append(',').append(150 + random.nextInt(150));
+    row.append(',').append(random.nextInt(60));
+    row.append(',').append(3 + random.nextInt(20));
+    row.append(',').append(random.nextInt(100));
+    row.append('\n');
+  }
+
+  /**
+   * Helper method that appends a title of two to four words. About one in ten titles contains a
+   * comma and is quoted, like "Hey, Soul Sister" in songs.csv.
+   */
+  private static void appendTitle(Random random, StringBuilder row, long index) {
+    boolean comma = random.nextInt(10) == 0;
+    if (comma) {
+      row.append('"');
+    }
+    int words = 2 + random.nextInt(3);
+    for (int w = 0; w < words; w++) {
+      if (w > 0) {
+        row.append(comma && w == 1 ? ", " : " ");
+      }
+      row.append(WORDS[random.nextInt(WORDS.length)]);
+    }
+    // keep titles distinct, so that generated catalogs can be searched by title
+    row.append(' ').append(index);
+    if (comma) {
+      row.append('"');
+    }
+  }
+
+  /**
+   * Helper method that draws an artist number from the Zipf distribution by binary search over
+   * the cumulative probabilities.
+   */
+  private int nextArtist(Random random) {
+    double u = random.nextDouble();
+    int low = 0;
+    int high = artistCdf.length - 1;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (artistCdf[middle] < u) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Helper method that draws a release year around one of the eras.
+   */
+  private static int nextYear(Random random) {
+    double u = random.nextDouble();
+    int era = 0;
+    while (era < ERA_WEIGHTS.length - 1 && u >= ERA_WEIGHTS[era]) {
+      u -= ERA_WEIGHTS[era];
+      era++;
+    }
+    int year = (int) Math.round(ERA_CENTERS[era] + ERA_SPREADS[era] * random.nextGaussian());
+    return clamp(year, FIRST_YEAR, LAST_YEAR);
+  }
+
+  /**
+   * Helper method that limits value to the range from low to high.
+   */
+  private static int clamp(int value, int low, int high) {
+    return Math.max(low, Math.min(high, value));
+  }
+
+  /**
+   * Writes a synthetic catalog from the command line.
+   *
+   * @param args the output file, the number of rows, and optionally the seed (default 42)
+   * @throws IOException when the file cannot be written
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2) {
+      System.out.println("Usage: java -cp cli/target/isongly.jar isongly.SongCatalogGenerator "
+          + "FILEPATH ROWS [SEED]");
+      return;
+    }
+    long rows = Long.parseLong(args[1]);
+    long seed = args.length > 2 ? Long.parseLong(args[2]) : 42;
+    new SongCatalogGenerator(seed).write(new File(args[0]), rows);
+  }
+}
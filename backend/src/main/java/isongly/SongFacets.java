@@ -0,0 +1,151 @@
+package isongly;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SongFacets - CS400 Project 1: iSongly
+ * This class holds the song counts per genre, per artist and per decade that were computed for
+ * a selection of songs. Genres and artists are dictionary-encoded: the count for the value
+ * stored at index i of the names array is found at index i of the matching counts array.
+ */
+public class SongFacets {
+  private final String[] genres;
+  private final int[] genreCounts;
+  private final String[] artists;
+  private final int[] artistCounts;
+  private final int[] decadeCounts; // indexed by year / 10
+  private final int total;
+
+  /**
+   * Constructor for SongFacets class
+   *
+   * @param genres       dictionary of genre names
+   * @param genreCounts  number of selected songs for each genre code
+   * @param artists      dictionary of artist names
+   * @param artistCounts number of selected songs for each artist code
+   * @param decadeCounts number of selected songs for each decade, indexed by year / 10
+   * @param total        number of selected songs
+   */
+  public SongFacets(String[] genres, int[] genreCounts, String[] artists, int[] artistCounts,
+      int[] decadeCounts, int total) {
+    this.genres = genres;
+    this.genreCounts = genreCounts;
+    this.artists = artists;
+    this.artistCounts = artistCounts;
+    this.decadeCounts = decadeCounts;
+    this.total = total;
+  }
+
+  /**
+   * @return the number of songs in the selection these facets were computed for
+   */
+  public int getTotal() {
+    return total;
+  }
+
+  /**
+   * Returns the number of selected songs of the given genre.
+   *
+   * @param genre the genre to look up
+   * @return the song count, or 0 when no selected song has this genre
+   */
+  public int genreCount(String genre) {
+    return countOf(genres, genreCounts, genre);
+  }
+
+  /**
+   * Returns the number of selected songs by the given artist.
+   *
+   * @param artist the artist to look up
+   * @return the song count, or 0 when no selected song is by this artist
+   */
+  public int artistCount(String artist) {
+    return countOf(artists, artistCounts, artist);
+  }
+
+  /**
+   * Returns the number of selected songs released in the decade starting at decade.
+   *
+   * @param decade the first year of the decade, for example 2010
+   * @return the song count, or 0 when no selected song is from this decade
+   */
+  public int decadeCount(int decade) {
+    int index = decade / 10;
+    if (decade < 0 || index >= decadeCounts.length) {
+      return 0;
+    }
+    return decadeCounts[index];
+  }
+
+  /**
+   * Returns up to limit "genre: count" lines, from the most to the least frequent genre.
+   *
+   * @param limit the maximum number of lines to return
+   * @return list of formatted genre counts
+   */
+  public List<String> topGenres(int limit) {
+    return top(genres, genreCounts, limit);
+  }
+
+  /**
+   * Returns up to limit "artist: count" lines, from the most to the least frequent artist.
+   *
+   * @param limit the maximum number of lines to return
+   * @return list of formatted artist counts
+   */
+  public List<String> topArtists(int limit) {
+    return top(artists, artistCounts, limit);
+  }
+
+  /**
+   * Returns a "decade: count" line for every decade with at least one selected song, in
+   * ascending order of decade.
+   *
+   * @return list of formatted decade counts
+   */
+  public List<String> decades() {
+    List<String> lines = new ArrayList<>();
+    for (int i = 0; i < decadeCounts.length; i++) {
+      if (decadeCounts[i] > 0) {
+        lines.add((i * 10) + "s: " + decadeCounts[i]);
+      }
+    }
+    return lines;
+  }
+
+  /**
+   * Helper method to look up the count of a dictionary-encoded value.
+   */
+  private static int countOf(String[] names, int[] counts, String name) {
+    for (int i = 0; i < names.length; i++) {
+      if (names[i].equals(name)) {
+        return counts[i];
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Helper method to pick the limit codes with the highest counts. Selection runs over the
+   * count array directly, so only the returned lines are allocated.
+   */
+  private static List<String> top(String[] names, int[] counts, int limit) {
+    List<String> lines = new ArrayList<>();
+    boolean[] used = new boolean[counts.length];
+    for (int n = 0; n < limit; n++) {
+      int best = -1;
+      for (int i = 0; i < counts.length; i++) {
+        if (!used[i] && counts[i] > 0 && (best == -1 || counts[i] > counts[best])) {
+          best = i;
+        }
+      }
+      if (best == -1) {
+        break;
+      }
+      used[best] = true;
+      lines.add(names[best] + ": " + counts[best]);
+    }
+    return lines;
+  }
+}
@@ -0,0 +1,51 @@
+package isongly;
+
+/**
+ * SongFeature - CS400 Project 1: iSongly
+ * This enum lists the numeric audio features that are stored in every Song, so that queries can
+ * be written once and run over any of them. Every feature has a typical domain, which is used to
+ * scale features to comparable ranges before the data is known.
+ */
+public enum SongFeature {
+  BPM(0, 250), ENERGY(0, 100), DANCEABILITY(0, 100), LOUDNESS(-60, 0), LIVENESS(0, 100);
+
+  private final int domainMin;
+  private final int domainMax;
+
+  SongFeature(int domainMin, int domainMax) {
+    this.domainMin = domainMin;
+    this.domainMax = domainMax;
+  }
+
+  /**
+   * Returns the value of this feature for the given song.
+   *
+   * @param song the song to read the feature from
+   * @return the feature value
+   */
+  public int of(Song song) {
+    switch (this) {
+      case BPM:
+        return song.getBPM();
+      case ENERGY:
+        return song.getEnergy();
+      case DANCEABILITY:
+        return song.getDanceability();
+      case LOUDNESS:
+        return song.getLoudness();
+      default:
+        return song.getLiveness();
+    }
+  }
+
+  /**
+   * Returns the value of this feature for the given song, scaled so that the typical domain of
+   * the feature maps to the range from 0 to 1. Values outside of the domain are not clamped.
+   *
+   * @param song the song to read the feature from
+   * @return the scaled feature value
+   */
+  public double normalized(Song song) {
+    return (of(song) - domainMin) / (double) (domainMax - domainMin);
+  }
+}
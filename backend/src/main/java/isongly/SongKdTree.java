@@ -0,0 +1,214 @@
+package isongly;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+
+/**
+ * This class implements a k-d tree over the numeric audio features of songs (see SongFeature),
+ * which finds the songs that are most similar to a given song. Every feature is scaled by its
+ * typical domain (see SongFeature.normalized), so that features with large values like BPM do
+ * not outweigh the others, and similarity is the Euclidean distance between the scaled feature
+ * vectors. HnswIndex scales the features in the same way, so both find the same songs.
+ * <p>
+ * The tree is stored implicitly in an array: the songs of a subtree are a subrange of the
+ * array, with the median song along the axis of the subtree in the middle and the songs before
+ * and after it in its left and right subtree. The axis cycles through the features with the
+ * depth. A search visits the subtree on the side of the query first, and skips the other side
+ * when the splitting plane is farther away than the k best songs found so far, so a query
+ * usually visits O(log n) songs instead of all of them.
+ * <p>
+ * The tree is built once from a list of songs and does not support inserts; it is rebuilt when
+ * songs are added.
+ */
+public class SongKdTree {
+
+    private static final SongFeature[] FEATURES = SongFeature.values();
+    private static final int DIMENSIONS = FEATURES.length;
+
+    /**
+     * Nested class for a song found by a search and its distance to the query.
+     */
+    private static class Neighbor {
+        private final int index;
+        private final double distance;
+
+        private Neighbor(int index, double distance) {
+            this.index = index;
+            this.distance = distance;
+        }
+    }
+
+    // orders neighbors from farthest to nearest, ties by their position in the array
+    private static final Comparator<Neighbor> FARTHEST_FIRST = Comparator
+            .comparingDouble((Neighbor neighbor) -> neighbor.distance)
+            .thenComparingInt(neighbor -> neighbor.index).reversed();
+
+    private final Song[] songs;
+    // normalized features, DIMENSIONS values for the song at each index of songs
+    private final double[] points;
+
+    /**
+     * Builds a tree of songs.
+     *
+     * @param songs the songs to index
+     */
+    public SongKdTree(List<Song> songs) {
+        this.songs = songs.toArray(new Song[0]);
+        this.points = new double[this.songs.length * DIMENSIONS];
+        for (int i = 0; i < this.songs.length; i++) {
+            normalize(this.songs[i], points, i * DIMENSIONS);
+        }
+        build(0, this.songs.length, 0);
+    }
+
+    /**
+     * @return the number of songs in the tree
+     */
+    public int size() {
+        return songs.length;
+    }
+
+    /**
+     * Helper method that writes the normalized features of song into target from offset on.
+     */
+    private static void normalize(Song song, double[] target, int offset) {
+        for (int axis = 0; axis < DIMENSIONS; axis++) {
+            target[offset + axis] = FEATURES[axis].normalized(song);
+        }
+    }
+
+    /**
+     * Helper method that arranges the songs from low (inclusive) to high (exclusive) into a
+     * subtree: the median along the axis of depth is moved to the middle, and the songs before
+     * and after it are arranged into subtrees in turn.
+     */
+    private void build(int low, int high, int depth) {
+        if (high - low <= 1) {
+            return;
+        }
+        int axis = depth % DIMENSIONS;
+        int middle = (low + high) >>> 1;
+        select(low, high - 1, middle, axis);
+        build(low, middle, depth + 1);
+        build(middle + 1, high, depth + 1);
+    }
+
+    /**
+     * Helper method that reorders the songs from low to high (both inclusive) so that the song at
+     * index target has the value along axis that it would have if the range were sorted, with
+     * smaller or equal values before it and larger or equal values after it.
+     */
+    private void select(int low, int high, int target, int axis) {
+        while (low < high) {
+            // partition around the middle value, like in a quicksort
+            double pivot = points[((low + high) >>> 1) * DIMENSIONS + axis];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (points[i * DIMENSIONS + axis] < pivot) {
+                    i++;
+                }
+                while (points[j * DIMENSIONS + axis] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(i++, j--);
+                }
+            }
+            if (target <= j) {
+                high = j;
+            } else if (target >= i) {
+                low = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Helper method that swaps the songs at i and j, with their features.
+     */
+    private void swap(int i, int j) {
+        Song song = songs[i];
+        songs[i] = songs[j];
+        songs[j] = song;
+        for (int axis = 0; axis < DIMENSIONS; axis++) {
+            double value = points[i * DIMENSIONS + axis];
+            points[i * DIMENSIONS + axis] = points[j * DIMENSIONS + axis];
+            points[j * DIMENSIONS + axis] = value;
+        }
+    }
+
+    /**
+     * Finds the k songs that are most similar to query among the songs that pass filter. The
+     * query song itself is only excluded when filter excludes it.
+     *
+     * @param query  the song to find similar songs for, which need not be in the tree
+     * @param k      the number of songs to return at most
+     * @param filter the condition that the returned songs must meet, for example a year range
+     * @return the at most k most similar songs, the most similar first
+     */
+    public List<Song> nearest(Song query, int k, Predicate<Song> filter) {
+        List<Song> result = new ArrayList<>();
+        if (k <= 0) {
+            return result;
+        }
+        double[] target = new double[DIMENSIONS];
+        normalize(query, target, 0);
+        PriorityQueue<Neighbor> best = new PriorityQueue<>(k + 1, FARTHEST_FIRST);
+        search(0, songs.length, 0, target, k, filter, best);
+        List<Neighbor> neighbors = new ArrayList<>(best);
+        neighbors.sort(Collections.reverseOrder(FARTHEST_FIRST));
+        for (Neighbor neighbor : neighbors) {
+            result.add(songs[neighbor.index]);
+        }
+        return result;
+    }
+
+    /**
+     * Helper method that searches the subtree of the songs from low (inclusive) to high
+     * (exclusive) for songs that are closer to target than the k best songs found so far.
+     */
+    private void search(int low, int high, int depth, double[] target, int k,
+            Predicate<Song> filter, PriorityQueue<Neighbor> best) {
+        if (low >= high) {
+            return;
+        }
+        int middle = (low + high) >>> 1;
+        if (filter.test(songs[middle])) {
+            double distance = 0;
+            for (int axis = 0; axis < DIMENSIONS; axis++) {
+                double difference = points[middle * DIMENSIONS + axis] - target[axis];
+                distance += difference * difference;
+            }
+            if (best.size() < k || distance < best.peek().distance) {
+                best.add(new Neighbor(middle, distance));
+                if (best.size() > k) {
+                    best.poll();
+                }
+            }
+        }
+        if (high - low == 1) {
+            return;
+        }
+        int axis = depth % DIMENSIONS;
+        double difference = target[axis] - points[middle * DIMENSIONS + axis];
+        if (difference < 0) {
+            search(low, middle, depth + 1, target, k, filter, best);
+        } else {
+            search(middle + 1, high, depth + 1, target, k, filter, best);
+        }
+        // the other side can only hold closer songs when the splitting plane is close enough
+        if (best.size() < k || difference * difference < best.peek().distance) {
+            if (difference < 0) {
+                search(middle + 1, high, depth + 1, target, k, filter, best);
+            } else {
+                search(low, middle, depth + 1, target, k, filter, best);
+            }
+        }
+    }
+}
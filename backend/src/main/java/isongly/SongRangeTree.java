@@ -0,0 +1,220 @@
+package isongly;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * This class implements a range tree that answers box queries over songs: year from a to b,
+ * loudness from c to d, and danceability of at least e, in O(log^2 n + r log n) steps for r
+ * returned songs, instead of a scan of every song of the year range.
+ * <p>
+ * The first level is a balanced tree over the distinct years. Every node of it keeps the songs
+ * of its years sorted by loudness, like a merge sort tree, so a year range splits into O(log n)
+ * nodes, and the loudness range is a subarray of each of them that is found by binary search.
+ * Over every loudness sorted array, a segment tree stores the largest danceability of each
+ * subrange, so the songs of the subarray with at least the minimum danceability are found by
+ * descending only into subranges whose largest danceability is high enough. Every returned song
+ * costs O(log n) steps of that descent, and the songs that are found are then sorted by year in
+ * O(r log r) steps, since a node holds the songs of several years in loudness order.
+ * <p>
+ * The tree takes O(n log y) space for n songs with y distinct years. It is built once from a
+ * list of songs and does not support inserts; it is rebuilt when songs are added.
+ */
+public class SongRangeTree {
+
+    private static final Comparator<Song> BY_YEAR = Comparator.comparingInt(Song::getYear);
+
+    /**
+     * Nested class for the nodes of the year tree.
+     */
+    private static class Node {
+        // indices of the first and last distinct year of this node
+        private final int first;
+        private final int last;
+        private Node left = null;
+        private Node right = null;
+        // the songs of the years of this node, and their loudness, sorted by loudness
+        private Song[] songs;
+        private int[] loudness;
+        // largest danceability of each subrange of songs, a segment tree with leaves at width
+        private int[] maxDance;
+        private int width;
+
+        private Node(int first, int last) {
+            this.first = first;
+            this.last = last;
+        }
+    }
+
+    private final int[] years;
+    private final Node root;
+    private final int size;
+
+    /**
+     * Builds a tree of songs.
+     *
+     * @param songs the songs to index, in any order
+     */
+    public SongRangeTree(List<Song> songs) {
+        this.size = songs.size();
+        Song[] byYear = songs.toArray(new Song[0]);
+        Arrays.sort(byYear, BY_YEAR);
+        years = Arrays.stream(byYear).mapToInt(Song::getYear).distinct().toArray();
+        // the first song of each distinct year, and one past the last song
+        int[] starts = new int[years.length + 1];
+        for (int i = 0, year = 0; i < byYear.length; i++) {
+            if (byYear[i].getYear() != years[year]) {
+                starts[++year] = i;
+            }
+        }
+        starts[years.length] = byYear.length;
+        root = years.length == 0 ? null : build(byYear, starts, 0, years.length - 1);
+    }
+
+    /**
+     * @return the number of songs in the tree
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Helper method that builds the subtree of the distinct years from first to last, and merges
+     * the loudness sorted songs of its children.
+     */
+    private Node build(Song[] byYear, int[] starts, int first, int last) {
+        Node node = new Node(first, last);
+        if (first == last) {
+            node.songs = Arrays.copyOfRange(byYear, starts[first], starts[first + 1]);
+            Arrays.sort(node.songs, Comparator.comparingInt(Song::getLoudness));
+        } else {
+            int middle = (first + last) >>> 1;
+            node.left = build(byYear, starts, first, middle);
+            node.right = build(byYear, starts, middle + 1, last);
+            node.songs = merge(node.left.songs, node.right.songs);
+        }
+        int count = node.songs.length;
+        node.loudness = new int[count];
+        node.width = Integer.highestOneBit(Math.max(1, count - 1)) << 1;
+        node.maxDance = new int[2 * node.width];
+        Arrays.fill(node.maxDance, Integer.MIN_VALUE);
+        for (int i = 0; i < count; i++) {
+            node.loudness[i] = node.songs[i].getLoudness();
+            node.maxDance[node.width + i] = node.songs[i].getDanceability();
+        }
+        for (int i = node.width - 1; i > 0; i--) {
+            node.maxDance[i] = Math.max(node.maxDance[2 * i], node.maxDance[2 * i + 1]);
+        }
+        return node;
+    }
+
+    /**
+     * Helper method that merges two arrays of songs that are sorted by loudness. Songs of the
+     * same loudness are taken from the earlier years first.
+     */
+    private static Song[] merge(Song[] left, Song[] right) {
+        Song[] merged = new Song[left.length + right.length];
+        int i = 0;
+        int j = 0;
+        for (int k = 0; k < merged.length; k++) {
+            if (j == right.length
+                    || i < left.length && left[i].getLoudness() <= right[j].getLoudness()) {
+                merged[k] = left[i++];
+            } else {
+                merged[k] = right[j++];
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Finds the songs within a box. Every bound may be null for no bound on that side.
+     *
+     * @param minYear         the minimum year
+     * @param maxYear         the maximum year
+     * @param minLoudness     the minimum loudness
+     * @param maxLoudness     the maximum loudness
+     * @param minDanceability the minimum danceability
+     * @return the songs within the box, ordered by year, and the songs of the same year by
+     *         loudness, quietest first
+     */
+    public List<Song> query(Integer minYear, Integer maxYear, Integer minLoudness,
+            Integer maxLoudness, Integer minDanceability) {
+        List<Song> found = new ArrayList<>();
+        int first = minYear == null ? 0 : lowerBound(years, years.length, minYear);
+        int last = maxYear == null ? years.length - 1
+                : lowerBound(years, years.length, maxYear + 1L) - 1;
+        if (root == null || first > last) {
+            return found;
+        }
+        long lowLoudness = minLoudness == null ? Long.MIN_VALUE : minLoudness;
+        long highLoudness = maxLoudness == null ? Long.MAX_VALUE : maxLoudness;
+        int dance = minDanceability == null ? Integer.MIN_VALUE : minDanceability;
+        collect(root, first, last, lowLoudness, highLoudness, dance, found);
+        // the nodes are visited in year order, but each node is sorted by loudness; the sort is
+        // stable, so the songs of a year stay in loudness order
+        found.sort(BY_YEAR);
+        return found;
+    }
+
+    /**
+     * Helper method that visits the nodes that together cover the distinct years from first to
+     * last, and adds their songs within the loudness range and with at least the danceability.
+     */
+    private void collect(Node node, int first, int last, long lowLoudness, long highLoudness,
+            int dance, List<Song> found) {
+        if (node.last < first || node.first > last) {
+            return;
+        }
+        if (first <= node.first && node.last <= last) {
+            int from = lowerBound(node.loudness, node.loudness.length, lowLoudness);
+            int to = highLoudness == Long.MAX_VALUE ? node.loudness.length
+                    : lowerBound(node.loudness, node.loudness.length, highLoudness + 1);
+            if (from < to) {
+                report(node, 1, 0, node.width - 1, from, to - 1, dance, found);
+            }
+            return;
+        }
+        collect(node.left, first, last, lowLoudness, highLoudness, dance, found);
+        collect(node.right, first, last, lowLoudness, highLoudness, dance, found);
+    }
+
+    /**
+     * Helper method that adds the songs from index from to to (inclusive) of node that have at
+     * least the danceability, by descending the segment tree from position, which covers the
+     * songs from low to high, into the subranges whose largest danceability is high enough.
+     */
+    private static void report(Node node, int position, int low, int high, int from, int to,
+            int dance, List<Song> found) {
+        if (high < from || low > to || node.maxDance[position] < dance) {
+            return;
+        }
+        if (low == high) {
+            found.add(node.songs[low]);
+            return;
+        }
+        int middle = (low + high) >>> 1;
+        report(node, 2 * position, low, middle, from, to, dance, found);
+        report(node, 2 * position + 1, middle + 1, high, from, to, dance, found);
+    }
+
+    /**
+     * Helper method that returns the index of the first of the count sorted values that is not
+     * less than bound.
+     */
+    private static int lowerBound(int[] values, int count, long bound) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] < bound) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
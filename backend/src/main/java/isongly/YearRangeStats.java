@@ -0,0 +1,93 @@
+package isongly;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * YearRangeStats - CS400 Project 1: iSongly
+ * This class holds the count of the songs of a year range, together with the sum and maximum of
+ * some of their numeric features, as answered by a YearSegmentTree.
+ */
+public class YearRangeStats {
+  private final SongFeature[] features;
+  private final long count;
+  private final long[] sums; // sums[i] is the sum of features[i]
+  private final int[] maxes; // maxes[i] is the maximum of features[i], ignored when count is 0
+
+  /**
+   * Constructor for YearRangeStats class
+   *
+   * @param features the aggregated features
+   * @param count    number of songs in the year range
+   * @param sums     sum of each feature, in the order of features
+   * @param maxes    maximum of each feature, in the order of features
+   */
+  public YearRangeStats(SongFeature[] features, long count, long[] sums, int[] maxes) {
+    this.features = features;
+    this.count = count;
+    this.sums = sums;
+    this.maxes = maxes;
+  }
+
+  public long getCount() { return count; }
+
+  /**
+   * @param feature one of the aggregated features
+   * @return the sum of the feature over the songs
+   * @throws IllegalArgumentException when the feature was not aggregated
+   */
+  public long getSum(SongFeature feature) {
+    return sums[indexOf(feature)];
+  }
+
+  /**
+   * @param feature one of the aggregated features
+   * @return the maximum of the feature over the songs
+   * @throws IllegalArgumentException when the feature was not aggregated
+   * @throws IllegalStateException    when the year range holds no songs
+   */
+  public int getMax(SongFeature feature) {
+    if (count == 0) {
+      throw new IllegalStateException("No songs have been aggregated.");
+    }
+    return maxes[indexOf(feature)];
+  }
+
+  /**
+   * @param feature one of the aggregated features
+   * @return the average of the feature over the songs, or NaN when there are none
+   * @throws IllegalArgumentException when the feature was not aggregated
+   */
+  public double mean(SongFeature feature) {
+    return count == 0 ? Double.NaN : (double) getSum(feature) / count;
+  }
+
+  /**
+   * Returns one human readable line per feature with its sum, average and maximum.
+   *
+   * @return list of report lines, empty when the year range holds no songs
+   */
+  public List<String> report() {
+    List<String> lines = new ArrayList<>();
+    if (count == 0) {
+      return lines;
+    }
+    for (SongFeature feature : features) {
+      lines.add(String.format("%-12s sum %d  average %.2f  max %d",
+          feature.name().toLowerCase(), getSum(feature), mean(feature), getMax(feature)));
+    }
+    return lines;
+  }
+
+  /**
+   * Helper method that finds the position of a feature in features.
+   */
+  private int indexOf(SongFeature feature) {
+    for (int i = 0; i < features.length; i++) {
+      if (features[i] == feature) {
+        return i;
+      }
+    }
+    throw new IllegalArgumentException("Feature " + feature + " was not aggregated.");
+  }
+}
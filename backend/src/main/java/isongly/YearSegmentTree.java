@@ -0,0 +1,153 @@
+package isongly;
+
+import java.util.Arrays;
+
+/**
+ * This class implements a segment tree over the years of the songs, which keeps the number of
+ * songs and the sum and maximum of some of their numeric features for every year and for every
+ * aligned range of years. Inserting a song updates the O(log y) ranges that contain its year, and
+ * the aggregate of any year range is combined from O(log y) ranges, for y years between the
+ * earliest and latest year of the songs, instead of a scan of every song of the range.
+ * <p>
+ * The years are the leaves of an array of width leaves, a power of two, with the internal node i
+ * covering the nodes 2i and 2i + 1. When a song falls outside of the years that the leaves cover,
+ * the width is at least doubled towards the year of the song, and the tree is rebuilt from its
+ * leaves, so a year domain that is not known in advance costs O(y) amortized steps.
+ * <p>
+ * All methods are synchronized, so songs can be inserted by one thread while others query.
+ */
+public class YearSegmentTree {
+
+    private final SongFeature[] features;
+    // the year of the first leaf, and the number of leaves
+    private int first = 0;
+    private int width = 0;
+    private int size = 0;
+    // per node: the number of songs, and the sum and maximum of each feature
+    private long[] counts = new long[0];
+    private long[][] sums;
+    private int[][] maxes;
+
+    /**
+     * Creates an empty tree.
+     *
+     * @param features the features to aggregate
+     */
+    public YearSegmentTree(SongFeature... features) {
+        this.features = features.clone();
+        this.sums = new long[features.length][0];
+        this.maxes = new int[features.length][0];
+    }
+
+    /**
+     * @return the number of songs that were inserted
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Inserts a song, in O(log y) steps unless the years have to grow.
+     *
+     * @param song the song to insert
+     */
+    public synchronized void insert(Song song) {
+        int year = song.getYear();
+        if (width == 0 || year < first || year - first >= width) {
+            grow(year);
+        }
+        size++;
+        for (int node = width + year - first; node > 0; node >>= 1) {
+            counts[node]++;
+            for (int f = 0; f < features.length; f++) {
+                int value = features[f].of(song);
+                sums[f][node] += value;
+                maxes[f][node] = Math.max(maxes[f][node], value);
+            }
+        }
+    }
+
+    /**
+     * Aggregates the songs with years from low to high, in O(log y) steps.
+     *
+     * @param low  the minimum year, or null for no minimum
+     * @param high the maximum year, or null for no maximum
+     * @return the count of the songs, and the sum and maximum of each feature
+     */
+    public synchronized YearRangeStats query(Integer low, Integer high) {
+        long count = 0;
+        long[] sum = new long[features.length];
+        int[] max = new int[features.length];
+        Arrays.fill(max, Integer.MIN_VALUE);
+        // the leaves from left to right (exclusive), clamped to the years that are covered
+        long left = Math.max(0, low == null ? 0 : (long) low - first);
+        long right = Math.min(width, high == null ? width : (long) high - first + 1);
+        if (left < right) {
+            int l = (int) left + width;
+            int r = (int) right + width;
+            while (l < r) {
+                if ((l & 1) == 1) {
+                    count += add(l++, sum, max);
+                }
+                if ((r & 1) == 1) {
+                    count += add(--r, sum, max);
+                }
+                l >>= 1;
+                r >>= 1;
+            }
+        }
+        return new YearRangeStats(features.clone(), count, sum, max);
+    }
+
+    /**
+     * Helper method that adds the sums and maximums of a node to sum and max, and returns the
+     * number of songs of the node.
+     */
+    private long add(int node, long[] sum, int[] max) {
+        for (int f = 0; f < features.length; f++) {
+            sum[f] += sums[f][node];
+            max[f] = Math.max(max[f], maxes[f][node]);
+        }
+        return counts[node];
+    }
+
+    /**
+     * Helper method that widens the leaves to cover year, at least doubling their number, and
+     * rebuilds the internal nodes from the leaves.
+     */
+    private void grow(int year) {
+        int newFirst;
+        int newWidth;
+        if (width == 0) {
+            newFirst = year;
+            newWidth = 1;
+        } else {
+            long span = Math.max((long) first + width, year + 1L) - Math.min(first, year);
+            newWidth = Math.max(2 * width, Integer.highestOneBit((int) span - 1) << 1);
+            // grow towards the year, keeping the covered years on the other side
+            newFirst = year < first ? first + width - newWidth : first;
+        }
+        long[] newCounts = new long[2 * newWidth];
+        long[][] newSums = new long[features.length][2 * newWidth];
+        int[][] newMaxes = new int[features.length][2 * newWidth];
+        int leaf = width == 0 ? newWidth : newWidth + first - newFirst;
+        System.arraycopy(counts, width, newCounts, leaf, width);
+        for (int f = 0; f < features.length; f++) {
+            Arrays.fill(newMaxes[f], Integer.MIN_VALUE);
+            System.arraycopy(sums[f], width, newSums[f], leaf, width);
+            System.arraycopy(maxes[f], width, newMaxes[f], leaf, width);
+        }
+        for (int node = newWidth - 1; node > 0; node--) {
+            newCounts[node] = newCounts[2 * node] + newCounts[2 * node + 1];
+            for (int f = 0; f < features.length; f++) {
+                newSums[f][node] = newSums[f][2 * node] + newSums[f][2 * node + 1];
+                newMaxes[f][node] = Math.max(newMaxes[f][2 * node], newMaxes[f][2 * node + 1]);
+            }
+        }
+        first = newFirst;
+        width = newWidth;
+        counts = newCounts;
+        sums = newSums;
+        maxes = newMaxes;
+    }
+}
@@ -0,0 +1,180 @@
+package isongly;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+/**
+ * This class keeps, for every year, the best songs of that year by an ordering, such as the most
+ * danceable songs first. The lists are updated as songs are inserted, so the best k songs of any
+ * year range are found by merging the lists of the years in the range, in O((b + k) log b) steps
+ * for b years when the filter passes the songs, instead of a scan of every song of the range.
+ * <p>
+ * Every year keeps at most capacity songs. When a filter rejects so many of them that a year
+ * with more songs than its list holds runs out of candidates, the answer can not be known from
+ * the lists, and topK returns null so that the caller can fall back to a scan.
+ * <p>
+ * All methods are synchronized, so songs can be inserted by one thread while others query.
+ */
+public class YearTopKIndex {
+
+    /**
+     * The number of songs that every year keeps by default.
+     */
+    public static final int DEFAULT_CAPACITY = 32;
+
+    /**
+     * Nested class for the list of one year: the best songs, sorted by the ordering, and the
+     * number of songs of the year that were inserted in total.
+     */
+    private static class Bucket {
+        private final Song[] best;
+        private int count = 0;
+        private int total = 0;
+
+        private Bucket(int capacity) {
+            this.best = new Song[capacity];
+        }
+    }
+
+    private final Comparator<Song> order;
+    private final int capacity;
+    private final TreeMap<Integer, Bucket> buckets = new TreeMap<>();
+    private int size = 0;
+
+    /**
+     * Creates an empty index that keeps DEFAULT_CAPACITY songs per year.
+     *
+     * @param order the ordering of the songs, best first
+     */
+    public YearTopKIndex(Comparator<Song> order) {
+        this(order, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty index.
+     *
+     * @param order    the ordering of the songs, best first
+     * @param capacity the number of songs that every year keeps
+     * @throws IllegalArgumentException when capacity is not positive
+     */
+    public YearTopKIndex(Comparator<Song> order, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.order = order;
+        this.capacity = capacity;
+    }
+
+    /**
+     * @return the number of songs that were inserted
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Inserts a song into the list of its year, in O(capacity) steps. A song is placed before
+     * the songs that are equal to it, in the same way as a tree places duplicates.
+     *
+     * @param song the song to insert
+     */
+    public synchronized void insert(Song song) {
+        insert(song, false);
+    }
+
+    /**
+     * Inserts a song into the list of its year, placed after the songs that are equal to it.
+     * Appending the songs of a tree in the order of its iterator gives the lists the same order
+     * of equal songs as inserting them one at a time, without buffering them to reverse.
+     *
+     * @param song the song to append
+     */
+    public synchronized void append(Song song) {
+        insert(song, true);
+    }
+
+    /**
+     * Helper method that inserts a song before or after the songs that are equal to it.
+     */
+    private void insert(Song song, boolean afterEqual) {
+        Bucket bucket = buckets.computeIfAbsent(song.getYear(), year -> new Bucket(capacity));
+        bucket.total++;
+        size++;
+        // find the first song that is worse than the new one, or not better when placed before
+        int low = 0;
+        int high = bucket.count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int compare = order.compare(bucket.best[middle], song);
+            if (compare < 0 || afterEqual && compare == 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        if (low == capacity) {
+            return;
+        }
+        int moved = Math.min(bucket.count, capacity - 1) - low;
+        System.arraycopy(bucket.best, low, bucket.best, low + 1, moved);
+        bucket.best[low] = song;
+        bucket.count = Math.min(bucket.count + 1, capacity);
+    }
+
+    /**
+     * Finds the k best songs with years from low to high that pass the filter. Songs that are
+     * equal by the ordering are returned in year order.
+     *
+     * @param k      the number of songs to find at most
+     * @param low    the minimum year, or null for no minimum
+     * @param high   the maximum year, or null for no maximum
+     * @param filter the songs to consider
+     * @return the best songs, best first, or null when the lists of the years do not hold enough
+     *     songs that pass the filter to be sure of the answer
+     */
+    public synchronized List<Song> topK(int k, Integer low, Integer high,
+            Predicate<Song> filter) {
+        List<Song> best = new ArrayList<>(Math.max(0, k));
+        if (k <= 0 || low != null && high != null && low > high) {
+            return best;
+        }
+        Map<Integer, Bucket> range = buckets;
+        if (low != null && high != null) {
+            range = buckets.subMap(low, true, high, true);
+        } else if (low != null) {
+            range = buckets.tailMap(low, true);
+        } else if (high != null) {
+            range = buckets.headMap(high, true);
+        }
+        Bucket[] ranged = range.values().toArray(new Bucket[0]);
+        // the next position of every list, ordered by the song there, and ties in year order
+        int[] next = new int[ranged.length];
+        PriorityQueue<Integer> heap = new PriorityQueue<>(Math.max(1, ranged.length), (a, b) -> {
+            int compare = order.compare(ranged[a].best[next[a]], ranged[b].best[next[b]]);
+            return compare != 0 ? compare : Integer.compare(a, b);
+        });
+        for (int i = 0; i < ranged.length; i++) {
+            heap.add(i);
+        }
+        while (best.size() < k && !heap.isEmpty()) {
+            int i = heap.poll();
+            Bucket bucket = ranged[i];
+            Song song = bucket.best[next[i]++];
+            if (filter.test(song)) {
+                best.add(song);
+            }
+            if (next[i] < bucket.count) {
+                heap.add(i);
+            } else if (bucket.total > bucket.count && best.size() < k) {
+                // the songs of this year that were not kept may be better than the next one
+                return null;
+            }
+        }
+        return best;
+    }
+}
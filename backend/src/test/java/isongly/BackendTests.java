@@ -0,0 +1,648 @@
+package isongly;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * This class contains JUnit tests for the Backend class.
+ * It ensures that all backend methods function correctly with Tree_Placeholder.
+ */
+public class BackendTests {
+
+  /**
+   * Test the readData method to check if songs are correctly inserted into the tree.
+   * Since Backend does not expose its internal data, we validate by checking
+   * the last added song in Tree_Placeholder.
+   */
+  @Test
+  public void backendTest1() {
+    Tree_Placeholder tree = new Tree_Placeholder();
+    Backend backend = new Backend(tree);
+    try {
+      backend.readData("songs.csv");
+
+      // Ensure that the tree is not empty (Tree_Placeholder always returns size > 0)
+      Assertions.assertTrue(tree.size() > 0, "Tree should >0 after reading data.");
+
+      // Check if last added song matches expectations
+      Song lastAdded = tree.lastAddedSong;
+      Assertions.assertNotNull(lastAdded, "Last added song can't be null.");
+      Assertions.assertEquals("Kills You Slowly", lastAdded.getTitle(), "Last added song should be 'Kills You Slowly'.");
+      Assertions.assertEquals("The Chainsmokers", lastAdded.getArtist(), "Artist should be 'The Chainsmokers'.");
+      Assertions.assertEquals(2019, lastAdded.getYear(), "Year should be 2019.");
+    } catch (IOException e) {
+      Assertions.fail("IOException can't occur if file exists.");
+    }
+  }
+
+
+  /**
+   * Test getRange method to ensure it correctly filters songs by year.
+   */
+  @Test
+  public void backendTest2() {
+    Tree_Placeholder tree = new Tree_Placeholder();
+    Backend backend = new Backend(tree);
+
+    List<String> titles = backend.getRange(2015, 2017);
+    Assertions.assertEquals(3, titles.size(), "There should be 3 songs within the year range 2015-2017.");
+    Assertions.assertTrue(titles.contains("A L I E N S"), "Expected 'A L I E N S' in the list.");
+    Assertions.assertTrue(titles.contains("BO$$"), "Expected 'BO$$' in the list.");
+    Assertions.assertTrue(titles.contains("Cake By The Ocean"), "Expected 'Cake By The Ocean' in the list.");
+
+    List<String> sameYear = backend.getRange(2016, 2016);
+    Assertions.assertEquals(1, sameYear.size(), "There should be 1 song from the year 2016.");
+    Assertions.assertTrue(sameYear.contains("Cake By The Ocean"), "Expected 'Cake By The Ocean' for the year 2016.");
+  }
+
+  /**
+   * Test filterSongs method independently to verify that it correctly filters
+   * songs based on loudness while maintaining order.
+   */
+  @Test
+  public void backendTest3() {
+    Tree_Placeholder tree = new Tree_Placeholder();
+    Backend backend = new Backend(tree);
+
+    backend.getRange(2015, 2017);
+
+    // Apply a loudness filter that excludes all songs (threshold -7)
+    List<String> filteredSongs = backend.filterSongs(-7);
+    Assertions.assertTrue(filteredSongs.isEmpty(), "No songs should remain when filtering at threshold -7.");
+
+    // Applying a loudness filter that allows all songs (threshold -4)
+    List<String> allSongs = backend.filterSongs(-4);
+    List<String> expected = List.of("A L I E N S", "BO$$", "Cake By The Ocean");
+
+    // Check that the number of songs is as expected
+    Assertions.assertEquals(expected.size(), allSongs.size(), "There should be " + expected.size() + " songs for threshold -4.");
+
+    // Verify that each expected song is contained in the result
+    for (String song : expected) {
+      Assertions.assertTrue(allSongs.contains(song), "Expected '" + song + "' in the songs list for threshold -4.");
+    }
+
+    // Reset filter with null and perform the same checks
+    List<String> resetSongs = backend.filterSongs(null);
+    Assertions.assertEquals(expected.size(), resetSongs.size(), "There should be " + expected.size() + " songs when filter is reset.");
+    for (String song : expected) {
+      Assertions.assertTrue(resetSongs.contains(song), "Expected '" + song + "' in the songs list after resetting filter.");
+    }
+  }
+
+  /**
+   * Test fiveMost method to ensure it correctly returns the most danceable songs
+   * in descending order and respects prior filtering.
+   */
+  @Test
+  public void backendTest4() {
+    Tree_Placeholder tree = new Tree_Placeholder();
+    Backend backend = new Backend(tree);
+
+    backend.getRange(2015, 2017);
+
+    // Without any loudness filter, fiveMost should return top danceable songs
+    List<String> mostDanceable = backend.fiveMost();
+    List<String> expected3 = List.of("BO$$", "Cake By The Ocean", "A L I E N S");
+    Assertions.assertEquals(expected3, mostDanceable, "fiveMost should return top danceable songs.");
+
+    // Apply a loudness filter that should not exclude any songs
+    backend.filterSongs(-4);
+    List<String> filteredSame = backend.fiveMost();
+    Assertions.assertEquals(expected3, filteredSame, "fiveMost should return the same songs when filtering at -5.");
+
+    // Apply a loudness filter that excludes all songs
+    backend.filterSongs(-7);
+    List<String> emptyDanceable = backend.fiveMost();
+    Assertions.assertTrue(emptyDanceable.isEmpty(), "fiveMost should return an empty list.");
+  }
+
+  /**
+   * Test facets method to ensure genre, artist and decade counts are computed for the
+   * current year range and loudness filter, both for songs in the tree passed to the constructor
+   * and for songs loaded by readData, which are counted through their recorded codes.
+   */
+  @Test
+  public void backendTest5() throws IOException {
+    Tree_Placeholder tree = new Tree_Placeholder();
+    Backend backend = new Backend(tree);
+
+    backend.getRange(2015, 2016);
+    SongFacets facets = backend.facets();
+    Assertions.assertEquals(2, facets.getTotal(), "There should be 2 songs within 2015-2016.");
+    Assertions.assertEquals(2, facets.genreCount("dance pop"), "Both songs are dance pop.");
+    Assertions.assertEquals(0, facets.genreCount("permanent wave"), "A L I E N S is from 2017.");
+    Assertions.assertEquals(1, facets.artistCount("DNCE"), "Expected one song by DNCE.");
+    Assertions.assertEquals(2, facets.decadeCount(2010), "Both songs are from the 2010s.");
+
+    // Apply a loudness filter that excludes all songs
+    backend.filterSongs(-7);
+    Assertions.assertEquals(0, backend.facets().getTotal(), "No songs should pass threshold -7.");
+
+    File catalog = File.createTempFile("facets", ".csv");
+    try {
+      new SongCatalogGenerator(5).write(catalog, 3000);
+      Backend loaded = new Backend(new IterableRedBlackTree<>());
+      loaded.readData(catalog.getPath());
+      loaded.getRange(1990, 2009);
+      List<Song> selected = loaded.streamRange(1990, 2009).collect(Collectors.toList());
+      SongFacets counts = loaded.facets();
+      Assertions.assertEquals(selected.size(), counts.getTotal(), "Every selected song counts.");
+      for (Song song : selected) {
+        Assertions.assertEquals(
+            selected.stream().filter(other -> other.getGenres().equals(song.getGenres())).count(),
+            counts.genreCount(song.getGenres()), "Genre counts should match the selection.");
+        Assertions.assertEquals(
+            selected.stream().filter(other -> other.getArtist().equals(song.getArtist())).count(),
+            counts.artistCount(song.getArtist()), "Artist counts should match the selection.");
+      }
+      Assertions.assertEquals(selected.size(), counts.decadeCount(1990) + counts.decadeCount(2000),
+          "Every selected song is from the 1990s or 2000s.");
+    } finally {
+      catalog.delete();
+    }
+  }
+
+  /**
+   * Test streamRange and iterateRange methods to ensure they lazily return the songs
+   * selected by year range and loudness filter, and update the year range like getRange.
+   */
+  @Test
+  public void backendTest6() {
+    Tree_Placeholder tree = new Tree_Placeholder();
+    Backend backend = new Backend(tree);
+
+    List<String> titles = backend.streamRange(2015, 2016).map(Song::getTitle)
+        .collect(Collectors.toList());
+    Assertions.assertEquals(2, titles.size(), "There should be 2 songs within 2015-2016.");
+    Assertions.assertTrue(titles.contains("BO$$"), "Expected 'BO$$' in the stream.");
+    Assertions.assertEquals(1, backend.streamRange(null, null).limit(1).count(),
+        "limit should stop the stream after one song.");
+
+    // The range set by iterateRange is used by later calls to filterSongs
+    Iterator<Song> songs = backend.iterateRange(2017, null);
+    Assertions.assertTrue(songs.hasNext(), "Expected a song from 2017.");
+    Assertions.assertEquals("A L I E N S", songs.next().getTitle(), "Expected 'A L I E N S'.");
+    Assertions.assertFalse(songs.hasNext(), "Only one song is from 2017 or later.");
+    Assertions.assertEquals(List.of("A L I E N S"), backend.filterSongs(-4),
+        "filterSongs should keep the range set by iterateRange.");
+
+    // Iterator bounds that the owner of the tree had set are restored after a query
+    Song bound = new Song("", "", "", 2016, 0, 0, 0, 0, 0);
+    tree.setIteratorMin(bound);
+    backend.getRange(2015, 2017);
+    Assertions.assertSame(bound, tree.getIteratorMin(), "The minimum should be restored.");
+    Assertions.assertNull(tree.getIteratorMax(), "The maximum should still be unset.");
+  }
+
+  /**
+   * Test aggregate method to ensure averages, percentiles and histograms are computed over
+   * the current selection, both single-threaded and split into parallel tasks.
+   */
+  @Test
+  public void backendTest7() {
+    Tree_Placeholder tree = new Tree_Placeholder();
+    Backend backend = new Backend(tree);
+
+    backend.getRange(2015, 2017);
+    FeatureStats bpm = backend.aggregate(SongFeature.BPM);
+    Assertions.assertEquals(3, bpm.getCount(), "There should be 3 songs within 2015-2017.");
+    Assertions.assertEquals(123.333, bpm.mean(), 0.001, "Average BPM of 148, 103 and 119.");
+    Assertions.assertEquals(103, bpm.getMin(), "Minimum BPM should be 103.");
+    Assertions.assertEquals(119, bpm.percentile(50), "Median BPM should be 119.");
+    Assertions.assertEquals(148, bpm.percentile(100), "Maximum BPM should be 148.");
+
+    // Split a larger column into many tasks and compare with the single-threaded result
+    int[] values = new int[10000];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = (i * 31) % 101 - 50;
+    }
+    FeatureStats single = new ParallelAggregator(values.length).aggregate(values);
+    FeatureStats parallel = new ParallelAggregator(100).aggregate(values);
+    Assertions.assertEquals(single.getSum(), parallel.getSum(), "Sums should match.");
+    Assertions.assertEquals(-50, parallel.getMin(), "Minimum should be -50.");
+    Assertions.assertEquals(single.percentile(99), parallel.percentile(99), "p99 should match.");
+    long[] histogram = parallel.histogram(4);
+    Assertions.assertEquals(10000, histogram[0] + histogram[1] + histogram[2] + histogram[3],
+        "Every value should be counted in the histogram.");
+
+    // Outliers at both ends of the int range do not size the histogram by the range of values
+    values[0] = Integer.MIN_VALUE;
+    values[1] = Integer.MAX_VALUE;
+    FeatureStats outliers = new ParallelAggregator(100).aggregate(values);
+    Assertions.assertEquals(Integer.MIN_VALUE, outliers.getMin(), "Minimum should be the outlier.");
+    Assertions.assertEquals(Integer.MAX_VALUE, outliers.percentile(100),
+        "p100 should be the outlier.");
+    Assertions.assertEquals(single.percentile(50), outliers.percentile(50),
+        "The median should not move.");
+    histogram = outliers.histogram(4);
+    Assertions.assertEquals(1, histogram[3], "Only the largest outlier is in the last bucket.");
+  }
+
+  /**
+   * Test aggregate method on a loaded catalog to ensure that splitting the scan of the tree into
+   * parallel tasks gives the same aggregate as a single-threaded scan of the selection.
+   */
+  @Test
+  public void backendTest16() throws IOException {
+    File catalog = File.createTempFile("generated", ".csv");
+    try {
+      new SongCatalogGenerator(29).write(catalog, 5000);
+      Backend backend = new Backend(new IterableRedBlackTree<>());
+      backend.readData(catalog.getPath());
+      int selected = backend.getRange(1980, 2009).size();
+      backend.filterSongs(-5);
+      FeatureStats single = backend.aggregate(SongFeature.ENERGY);
+      backend.setParallelThreshold(64);
+      FeatureStats parallel = backend.aggregate(SongFeature.ENERGY);
+      Assertions.assertTrue(single.getCount() > 0 && single.getCount() < selected,
+          "The loudness filter should keep some of the songs of the range.");
+      Assertions.assertEquals(single.getCount(), parallel.getCount(), "Counts should match.");
+      Assertions.assertEquals(single.getSum(), parallel.getSum(), "Sums should match.");
+      Assertions.assertEquals(single.getMin(), parallel.getMin(), "Minimums should match.");
+      Assertions.assertEquals(single.percentile(90), parallel.percentile(90),
+          "p90 should match.");
+    } finally {
+      catalog.delete();
+    }
+  }
+
+  /**
+   * Test SongCatalogGenerator to ensure generated catalogs, including quoted titles with
+   * commas, can be loaded by readData, and that equal seeds generate equal catalogs, also when
+   * the same generator writes twice.
+   */
+  @Test
+  public void backendTest8() throws IOException {
+    File first = File.createTempFile("generated", ".csv");
+    File second = File.createTempFile("generated", ".csv");
+    try {
+      new SongCatalogGenerator(7).write(first, 2000);
+      SongCatalogGenerator generator = new SongCatalogGenerator(7);
+      generator.write(second, 2000);
+      Assertions.assertEquals(Files.readString(first.toPath()), Files.readString(second.toPath()),
+          "Equal seeds should generate equal catalogs.");
+      generator.write(second, 2000);
+      Assertions.assertEquals(Files.readString(first.toPath()), Files.readString(second.toPath()),
+          "Writing twice with one generator should generate equal catalogs.");
+      Assertions.assertTrue(Files.readString(first.toPath()).contains(", "),
+          "Some titles should contain a comma.");
+
+      IterableSortedCollection<Song> tree = new IterableRedBlackTree<>();
+      Backend backend = new Backend(tree);
+      backend.readData(first.getPath());
+      Assertions.assertEquals(2000, tree.size(), "Every generated row should be loaded.");
+      Assertions.assertEquals(2000, backend.getRange(null, null).size(),
+          "Every loaded song should be in the unbounded range.");
+    } finally {
+      first.delete();
+      second.delete();
+    }
+  }
+
+  /**
+   * Test getMetrics method to ensure query latencies and visited songs are recorded once per call,
+   * and that recorded percentiles stay within the precision of the latency histogram.
+   */
+  @Test
+  public void backendTest9() {
+    Tree_Placeholder tree = new Tree_Placeholder();
+    Backend backend = new Backend(tree);
+
+    backend.getRange(2015, 2017);
+    backend.fiveMost();
+    BackendMetrics metrics = backend.getMetrics();
+    Assertions.assertEquals(1, metrics.getGetRange().getCount(), "One getRange call expected.");
+    Assertions.assertEquals(1, metrics.getFiveMost().getCount(), "One fiveMost call expected.");
+    // fiveMost is answered from the most danceable songs kept per year, without a scan
+    Assertions.assertEquals(3, metrics.getNodesVisited(), "Only getRange visits 3 songs.");
+    backend.filterSongs(null);
+    Assertions.assertEquals(1, metrics.getGetRange().getCount(),
+        "filterSongs should not be recorded as a getRange call.");
+    Assertions.assertEquals(1, metrics.getFilterSongs().getCount(),
+        "One filterSongs call expected.");
+
+    LatencyRecorder recorder = new LatencyRecorder("test");
+    for (long micros = 1; micros <= 10000; micros++) {
+      recorder.record(micros * 1000);
+    }
+    long p50 = recorder.percentile(50);
+    Assertions.assertTrue(p50 >= 5000000 && p50 <= 5000000 * 1.016, "p50 should be about 5 ms.");
+    long p999 = recorder.percentile(99.9);
+    Assertions.assertTrue(p999 >= 9990000 && p999 <= 9990000 * 1.016, "p999 should be about 9.99 ms.");
+    Assertions.assertEquals(10000000, recorder.percentile(100), "p100 should be the maximum.");
+  }
+
+  /**
+   * Test readData with parallel ingest threads to ensure every row is loaded in the same order
+   * as by a sequential load, and that a malformed row, or an Error of the writer, still fails
+   * the whole load after every row before the malformed one has been loaded.
+   */
+  @Test
+  public void backendTest10() throws IOException {
+    File catalog = File.createTempFile("generated", ".csv");
+    File broken = File.createTempFile("broken", ".csv");
+    try {
+      new SongCatalogGenerator(11).write(catalog, 20000);
+      Backend sequential = new Backend(new IterableRedBlackTree<>());
+      sequential.readData(catalog.getPath());
+      IterableSortedCollection<Song> tree = new IterableRedBlackTree<>();
+      Backend parallel = new Backend(tree);
+      parallel.setIngestThreads(3);
+      parallel.readData(catalog.getPath());
+
+      Assertions.assertEquals(20000, tree.size(), "Every generated row should be loaded.");
+      Assertions.assertEquals(20000, parallel.getMetrics().getRowsParsed(),
+          "Every row should be counted as parsed.");
+      // the batches are written in file order, so songs of the same year keep their order
+      Assertions.assertEquals(sequential.getRange(null, null), parallel.getRange(null, null),
+          "Both loads should hold the songs in the same order.");
+
+      Files.writeString(broken.toPath(), Files.readString(catalog.toPath())
+          + "Broken Song,Someone,pop,not a year,2020-01-01,100,50,50,-5,10,50,200,10,5,50\n");
+      Backend failing = new Backend(new IterableRedBlackTree<>());
+      failing.setIngestThreads(3);
+      Assertions.assertThrows(IOException.class, () -> failing.readData(broken.getPath()),
+          "A malformed row should fail the parallel load.");
+      Backend failingSequential = new Backend(new IterableRedBlackTree<>());
+      Assertions.assertThrows(IOException.class,
+          () -> failingSequential.readData(broken.getPath()),
+          "A malformed row should fail the sequential load.");
+      Assertions.assertEquals(failingSequential.getRange(null, null),
+          failing.getRange(null, null),
+          "Both failed loads should hold every row before the malformed one.");
+
+      // however the threads are scheduled, exactly the values before the malformed line are
+      // written, including those of later batches that were parsed first
+      List<String> lines = new ArrayList<>();
+      for (int i = 0; i < 10000; i++) {
+        lines.add(i == 5003 ? "not a number" : Integer.toString(i));
+      }
+      for (int run = 0; run < 20; run++) {
+        List<Integer> loaded = new ArrayList<>();
+        IngestPipeline<Integer> partial = new IngestPipeline<>(3, 10, 2);
+        Assertions.assertThrows(IOException.class,
+            () -> partial.run(lines.iterator(), Integer::valueOf, loaded::addAll),
+            "The malformed line should fail the load.");
+        Assertions.assertEquals(5003, loaded.size(),
+            "Every value before the malformed line, and no later one, should be written.");
+        for (int i = 0; i < loaded.size(); i++) {
+          Assertions.assertEquals(i, loaded.get(i), "The values should be written in order.");
+        }
+      }
+
+      // an Error in the writer stops the load instead of leaving the parsers waiting
+      List<String> numbers = new ArrayList<>();
+      for (int i = 0; i < 10000; i++) {
+        numbers.add(Integer.toString(i));
+      }
+      IngestPipeline<Integer> pipeline = new IngestPipeline<>(3, 10, 2);
+      Assertions.assertThrows(InternalError.class, () -> pipeline.run(numbers.iterator(),
+          Integer::valueOf, batch -> {
+            throw new InternalError("The writer failed.");
+          }), "The Error of the writer should be rethrown.");
+    } finally {
+      catalog.delete();
+      broken.delete();
+    }
+  }
+
+  /**
+   * Tests that a backend over a ShardedCatalog returns the same five most danceable songs as a
+   * backend over a single tree, and the same range when it is loaded by parallel ingest threads.
+   */
+  @Test
+  public void backendTest11() throws IOException {
+    File catalog = File.createTempFile("generated", ".csv");
+    try {
+      new SongCatalogGenerator(13).write(catalog, 20000);
+      Backend single = new Backend(new IterableRedBlackTree<>());
+      single.readData(catalog.getPath());
+      Backend sharded = new Backend(ShardedCatalog.byWidth(1950, 2029, 10));
+      sharded.readData(catalog.getPath());
+      Backend parallel = new Backend(ShardedCatalog.byWidth(1950, 2029, 10));
+      parallel.setIngestThreads(3);
+      parallel.readData(catalog.getPath());
+
+      Assertions.assertEquals(single.getRange(1985, 2004).stream().sorted()
+          .collect(Collectors.toList()), parallel.getRange(1985, 2004).stream().sorted()
+          .collect(Collectors.toList()), "Both loads should find the same songs.");
+      single.getRange(1985, 2004);
+      single.filterSongs(-6);
+      sharded.getRange(1985, 2004);
+      sharded.filterSongs(-6);
+      List<String> expected = single.fiveMost();
+      Assertions.assertEquals(5, expected.size(), "Five songs should pass the filter.");
+      Assertions.assertEquals(expected, sharded.fiveMost(),
+          "The shards should find the same five songs in the same order.");
+    } finally {
+      catalog.delete();
+    }
+  }
+
+  /**
+   * Tests that similar returns songs of the current year range that are closer to the song than
+   * the other songs of the range, and rejects unknown titles.
+   */
+  @Test
+  public void backendTest12() throws IOException {
+    File catalog = File.createTempFile("generated", ".csv");
+    try {
+      new SongCatalogGenerator(17).write(catalog, 5000);
+      Backend backend = new Backend(new IterableRedBlackTree<>());
+      backend.readData(catalog.getPath());
+      List<Song> songs = backend.streamRange(1990, 1999).collect(Collectors.toList());
+      Song song = songs.get(0);
+      List<String> similar = backend.similar(song.getTitle().toUpperCase(), 3);
+      Assertions.assertEquals(3, similar.size(), "Three similar songs should be found.");
+      Assertions.assertFalse(similar.contains(song.getTitle()),
+          "The song itself should not be returned.");
+      for (String title : similar) {
+        Assertions.assertTrue(songs.stream().anyMatch(other -> other.getTitle().equals(title)),
+            "Similar songs should be within the year range.");
+      }
+      Assertions.assertThrows(IllegalArgumentException.class,
+          () -> backend.similar("No Such Song Title", 3), "Unknown titles should be rejected.");
+    } finally {
+      catalog.delete();
+    }
+  }
+
+  /**
+   * Tests that similar and box do not answer from indexes of songs that are gone, when the tree
+   * is cleared and reloaded with as many other songs.
+   */
+  @Test
+  public void backendTest17() throws IOException {
+    File first = File.createTempFile("generated", ".csv");
+    File second = File.createTempFile("generated", ".csv");
+    try {
+      new SongCatalogGenerator(41).write(first, 2000);
+      new SongCatalogGenerator(42).write(second, 2000);
+      IterableSortedCollection<Song> tree = new IterableRedBlackTree<>();
+      Backend backend = new Backend(tree);
+      backend.readData(first.getPath());
+      String oldTitle = backend.getRange(null, null).get(0);
+      Assertions.assertEquals(3, backend.similar(oldTitle, 3).size(), "Expected 3 songs.");
+      List<String> oldBox = backend.box(1990, 1999, null, null, null);
+
+      tree.clear();
+      backend.readData(second.getPath());
+      List<String> titles = backend.getRange(null, null);
+      Assertions.assertEquals(2000, titles.size(), "The tree should hold as many songs again.");
+      for (String title : backend.similar(titles.get(0), 3)) {
+        Assertions.assertTrue(titles.contains(title), "Similar songs should be loaded songs.");
+      }
+      List<String> box = backend.box(1990, 1999, null, null, null);
+      Assertions.assertFalse(box.equals(oldBox), "The box should hold the songs loaded later.");
+      Assertions.assertTrue(titles.containsAll(box), "Box songs should be loaded songs.");
+    } finally {
+      first.delete();
+      second.delete();
+    }
+  }
+
+  /**
+   * Tests that box returns the songs within every bound of the box, in year order, and that
+   * songs loaded later are found as well.
+   */
+  @Test
+  public void backendTest13() throws IOException {
+    File catalog = File.createTempFile("generated", ".csv");
+    try {
+      new SongCatalogGenerator(48).write(catalog, 5000);
+      Backend backend = new Backend(new IterableRedBlackTree<>());
+      backend.readData(catalog.getPath());
+      List<String> expected = backend.streamRange(1980, 1999)
+          .filter(song -> song.getLoudness() >= -10 && song.getLoudness() <= -4)
+          .filter(song -> song.getDanceability() >= 60)
+          .map(Song::getTitle).sorted().collect(Collectors.toList());
+      List<String> titles = backend.box(1980, 1999, -10, -4, 60);
+      Assertions.assertFalse(expected.isEmpty(), "The generated box should hold songs.");
+      Assertions.assertEquals(expected, titles.stream().sorted().collect(Collectors.toList()),
+          "The box should hold exactly the songs within all bounds.");
+      int before = backend.box(null, null, null, null, null).size();
+      backend.readData(catalog.getPath());
+      Assertions.assertEquals(2 * before, backend.box(null, null, null, null, null).size(),
+          "Songs loaded after the first box query should be found.");
+    } finally {
+      catalog.delete();
+    }
+  }
+
+  /**
+   * Tests that fiveMost finds songs as danceable as those of a sort of the selection, both when
+   * the kept songs of every year answer it and when a strict filter needs a scan.
+   */
+  @Test
+  public void backendTest14() throws IOException {
+    File catalog = File.createTempFile("generated", ".csv");
+    try {
+      new SongCatalogGenerator(49).write(catalog, 20000);
+      Backend backend = new Backend(new IterableRedBlackTree<>());
+      backend.readData(catalog.getPath());
+      backend.getRange(1975, 2004);
+      for (Integer threshold : new Integer[] {null, -6, -30, -60}) {
+        backend.filterSongs(threshold);
+        List<Integer> expected = backend.streamRange(1975, 2004)
+            .filter(song -> threshold == null || song.getLoudness() < threshold)
+            .map(Song::getDanceability).sorted(Comparator.reverseOrder()).limit(5)
+            .collect(Collectors.toList());
+        List<String> titles = backend.fiveMost();
+        List<Integer> actual = backend.streamRange(1975, 2004)
+            .filter(song -> titles.contains(song.getTitle())
+                && (threshold == null || song.getLoudness() < threshold))
+            .map(Song::getDanceability).sorted(Comparator.reverseOrder()).limit(5)
+            .collect(Collectors.toList());
+        Assertions.assertEquals(expected, actual,
+            "fiveMost should find the most danceable songs with threshold " + threshold + ".");
+      }
+    } finally {
+      catalog.delete();
+    }
+  }
+
+  /**
+   * Tests that stats counts the songs of a year range and sums and maximizes their features like
+   * a scan, both for songs loaded by readData and for a tree that was filled without the backend.
+   */
+  @Test
+  public void backendTest15() throws IOException {
+    File catalog = File.createTempFile("generated", ".csv");
+    try {
+      new SongCatalogGenerator(50).write(catalog, 5000);
+      Backend backend = new Backend(new IterableRedBlackTree<>());
+      backend.readData(catalog.getPath());
+      List<Song> songs = backend.streamRange(1985, 1994).collect(Collectors.toList());
+      List<String> selected = backend.getRange(2000, 2001);
+      YearRangeStats stats = backend.stats(1985, 1994);
+      Assertions.assertEquals(songs.size(), stats.getCount(), "Every song should be counted.");
+      Assertions.assertEquals(songs.stream().mapToLong(Song::getEnergy).sum(),
+          stats.getSum(SongFeature.ENERGY), "Energy should be summed.");
+      Assertions.assertEquals(songs.stream().mapToInt(Song::getBPM).max().getAsInt(),
+          stats.getMax(SongFeature.BPM), "BPM should be maximized.");
+      Assertions.assertEquals(selected, backend.filterSongs(null),
+          "stats should not change the year range.");
+
+      Tree_Placeholder tree = new Tree_Placeholder();
+      Backend placeholder = new Backend(tree);
+      Assertions.assertEquals(3, placeholder.stats(2015, 2017).getCount(),
+          "The songs the tree held should be counted.");
+      tree.insert(songs.get(0));
+      Assertions.assertEquals(1, placeholder.stats(1985, 1994).getCount(),
+          "Songs inserted without the backend should be scanned.");
+    } finally {
+      catalog.delete();
+    }
+  }
+
+  /**
+   * Tests that a load with parser threads reports every batch of its pipeline as an
+   * IngestChunkEvent, and that the rows and bytes of the events add up to the whole file.
+   */
+  @Test
+  public void backendTest18() throws IOException {
+    File catalog = File.createTempFile("generated", ".csv");
+    File recorded = File.createTempFile("ingest", ".jfr");
+    try {
+      new SongCatalogGenerator(18).write(catalog, 10000);
+      Backend backend = new Backend(new IterableRedBlackTree<>());
+      backend.setIngestThreads(2);
+      try (Recording recording = new Recording()) {
+        recording.enable("isongly.IngestChunk");
+        recording.start();
+        backend.readData(catalog.getPath());
+        recording.stop();
+        recording.dump(recorded.toPath());
+      }
+
+      List<RecordedEvent> chunks = RecordingFile.readAllEvents(recorded.toPath());
+      List<String> lines = Files.readAllLines(catalog.toPath());
+      long bytes = 0;
+      for (String line : lines.subList(1, lines.size())) {
+        bytes += line.length() + 1;
+      }
+      Assertions.assertEquals(3, chunks.size(), "Every batch of 4096 rows should be reported.");
+      Assertions.assertEquals(10000, chunks.stream().mapToInt(e -> e.getInt("rows")).sum(),
+          "The events should count every row.");
+      Assertions.assertEquals(bytes, chunks.stream().mapToLong(e -> e.getLong("bytes")).sum(),
+          "The events should count every byte of the rows.");
+      Assertions.assertEquals(catalog.getPath(), chunks.get(0).getString("file"),
+          "The events should name the file.");
+    } finally {
+      catalog.delete();
+      recorded.delete();
+    }
+  }
+}
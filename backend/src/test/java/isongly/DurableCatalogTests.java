@@ -0,0 +1,163 @@
+package isongly;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class contains JUnit tests for the DurableCatalog and WriteAheadLog classes.
+ */
+public class DurableCatalogTests {
+
+  // orders songs by year, like the comparator that Backend passes to every Song
+  private static final Comparator<Song> BY_YEAR = Comparator.comparingInt(Song::getYear);
+
+  /**
+   * Test that a catalog recovers the same songs in the same order from its snapshot and log,
+   * with checkpoints taken in between that keep the iterator bounds, and that only the log after
+   * the checkpoint is kept.
+   */
+  @Test
+  public void catalogTest1() throws IOException {
+    File directory = Files.createTempDirectory("catalog").toFile();
+    try {
+      IterableRedBlackTree<Song> expected = new IterableRedBlackTree<>();
+      Random random = new Random(9);
+      try (DurableCatalog catalog = new DurableCatalog(directory, new IterableRedBlackTree<>(),
+          BY_YEAR, 20000)) {
+        Song bound = randomSong(random, -1);
+        catalog.setIteratorMin(bound);
+        for (int i = 0; i < 3000; i++) {
+          Song song = randomSong(random, i);
+          catalog.insert(song);
+          expected.insert(song);
+        }
+        List<Song> batch = new ArrayList<>();
+        for (int i = 3000; i < 3500; i++) {
+          batch.add(randomSong(random, i));
+        }
+        batch.sort(BY_YEAR);
+        catalog.insertAll(batch);
+        expected.insertAll(batch);
+        Assertions.assertSame(bound, catalog.getIteratorMin(),
+            "A checkpoint should restore the iterator bounds of the caller.");
+        catalog.setIteratorMin(null);
+      }
+      Assertions.assertTrue(new File(directory, "catalog.snapshot").exists(),
+          "The log should have been checkpointed.");
+      Assertions.assertTrue(new File(directory, "catalog.wal").length() < 20000,
+          "Only the changes after the last checkpoint should be logged.");
+
+      try (DurableCatalog catalog = new DurableCatalog(directory, new IterableRedBlackTree<>(),
+          BY_YEAR, 20000)) {
+        Assertions.assertEquals(3500, catalog.size(), "Every song should be recovered.");
+        Iterator<Song> songs = expected.iterator();
+        for (Song song : catalog) {
+          Assertions.assertEquals(songs.next().getTitle(), song.getTitle(),
+              "Songs should be recovered in the same order.");
+        }
+      }
+    } finally {
+      deleteDirectory(directory);
+    }
+  }
+
+  /**
+   * Test that a torn record at the end of the log is ignored, that a logged clear is replayed,
+   * and that a catalog is only recovered into an empty collection.
+   */
+  @Test
+  public void catalogTest2() throws IOException {
+    File directory = Files.createTempDirectory("catalog").toFile();
+    try {
+      Random random = new Random(4);
+      try (DurableCatalog catalog = new DurableCatalog(directory, new IterableRedBlackTree<>(),
+          BY_YEAR)) {
+        catalog.insert(randomSong(random, 0));
+        catalog.clear();
+        catalog.insert(randomSong(random, 1));
+        catalog.insert(randomSong(random, 2));
+      }
+      // a crash in the middle of writing a record leaves part of it at the end of the log
+      Files.write(new File(directory, "catalog.wal").toPath(), new byte[] {0, 0, 0, 40, 1, 2},
+          StandardOpenOption.APPEND);
+
+      try (DurableCatalog catalog = new DurableCatalog(directory, new IterableRedBlackTree<>(),
+          BY_YEAR)) {
+        Assertions.assertEquals(2, catalog.size(), "Only the songs after the clear remain.");
+        catalog.insert(randomSong(random, 3));
+      }
+      try (DurableCatalog catalog = new DurableCatalog(directory, new IterableRedBlackTree<>(),
+          BY_YEAR)) {
+        Assertions.assertEquals(3, catalog.size(), "The torn record should have been cut off.");
+      }
+      IterableRedBlackTree<Song> loaded = new IterableRedBlackTree<>();
+      loaded.insert(randomSong(random, 4));
+      Assertions.assertThrows(IllegalArgumentException.class,
+          () -> new DurableCatalog(directory, loaded, BY_YEAR),
+          "Recovering into a collection with songs would duplicate them.");
+    } finally {
+      deleteDirectory(directory);
+    }
+  }
+
+  /**
+   * Test that readData loads a CSV into a catalog in batches, leaving the songs in the same
+   * order as a row by row load into a plain tree, and that the loaded songs are recovered.
+   */
+  @Test
+  public void catalogTest3() throws IOException {
+    File directory = Files.createTempDirectory("catalog").toFile();
+    File csv = File.createTempFile("generated", ".csv");
+    try {
+      new SongCatalogGenerator(41).write(csv, 10000);
+      IterableRedBlackTree<Song> plain = new IterableRedBlackTree<>();
+      new Backend(plain).readData(csv.getPath());
+      List<String> expected = new ArrayList<>();
+      plain.forEach(song -> expected.add(song.getTitle()));
+      try (DurableCatalog catalog = new DurableCatalog(directory, new IterableRedBlackTree<>(),
+          BY_YEAR)) {
+        new Backend(catalog).readData(csv.getPath());
+      }
+      try (DurableCatalog catalog = new DurableCatalog(directory, new IterableRedBlackTree<>(),
+          BY_YEAR)) {
+        List<String> recovered = new ArrayList<>();
+        catalog.forEach(song -> recovered.add(song.getTitle()));
+        Assertions.assertEquals(expected, recovered,
+            "Batched loading should keep the order of a row by row load.");
+      }
+    } finally {
+      csv.delete();
+      deleteDirectory(directory);
+    }
+  }
+
+  /**
+   * Helper method that creates a song with a random year.
+   */
+  private static Song randomSong(Random random, int index) {
+    return new Song("Title " + index, "Artist " + random.nextInt(50), "pop",
+        2000 + random.nextInt(10), 120, 60, 70, -6, 10, BY_YEAR);
+  }
+
+  /**
+   * Helper method that deletes a directory and the files in it.
+   */
+  private static void deleteDirectory(File directory) {
+    File[] files = directory.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+    directory.delete();
+  }
+}
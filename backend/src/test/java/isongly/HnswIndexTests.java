@@ -0,0 +1,67 @@
+package isongly;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains JUnit tests for the HnswIndex class.
+ */
+public class HnswIndexTests {
+
+    /**
+     * Test that the approximate search finds nearly all of the exact nearest songs, and that a
+     * filter that few songs pass is still met.
+     */
+    @Test
+    public void testRecall() {
+        Random random = new Random(4);
+        List<Song> songs = RandomSongs.create(random, 5000);
+        HnswIndex index = new HnswIndex(12, 100, new Random(5));
+        songs.forEach(index::insert);
+        assertEquals(5000, index.size());
+        HnswIndex.Evaluation evaluation = index.evaluate(songs.subList(0, 200), 10);
+        assertTrue(evaluation.getRecall() >= 0.95, "recall " + evaluation.getRecall());
+        assertEquals(200, evaluation.getApproximate().getCount());
+        assertEquals(3, evaluation.report().size());
+
+        Song query = songs.get(0);
+        List<Song> found = index.nearest(query, 5, song -> song.getYear() == 1975);
+        assertEquals(5, found.size());
+        for (Song song : found) {
+            assertEquals(1975, song.getYear());
+        }
+        // a filter that no song passes gives up after a bounded search
+        assertNull(index.nearest(query, 5, song -> false));
+    }
+
+    /**
+     * Test that a backend with an approximate index inserts the songs it loads into the index,
+     * and answers similar from it.
+     */
+    @Test
+    public void testBackendIndex() throws IOException {
+        File catalog = File.createTempFile("generated", ".csv");
+        try {
+            new SongCatalogGenerator(19).write(catalog, 3000);
+            Backend backend = new Backend(new IterableRedBlackTree<>());
+            HnswIndex index = new HnswIndex();
+            backend.setApproximateIndex(index);
+            backend.readData(catalog.getPath());
+            assertEquals(3000, index.size());
+            Song song = backend.streamRange(null, null).findFirst().get();
+            backend.getRange(2000, 2009);
+            List<String> similar = backend.similar(song.getTitle(), 4);
+            assertEquals(4, similar.size());
+            assertEquals(1, backend.getMetrics().getSimilar().getCount());
+            // the exact k-d tree answers when the graph gives up
+            backend.getRange(3000, 3001);
+            assertTrue(backend.similar(song.getTitle(), 4).isEmpty());
+        } finally {
+            catalog.delete();
+        }
+    }
+}
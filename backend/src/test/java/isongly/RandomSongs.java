@@ -0,0 +1,37 @@
+package isongly;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * This class creates random songs for the tests of the song indexes. Every feature takes only a
+ * few distinct values, so that many songs tie on every axis and within every year, which is
+ * where the ordering of equal songs and the pruning of searches are most easily wrong.
+ */
+public class RandomSongs {
+
+    // orders songs by year, like the comparator that Backend passes to every Song
+    private static final Comparator<Song> BY_YEAR = Comparator.comparingInt(Song::getYear);
+
+    private RandomSongs() {
+    }
+
+    /**
+     * Creates random songs, titled "Song 0", "Song 1" and so on, from 1960 to 2019.
+     *
+     * @param random the source of the years and features
+     * @param count  the number of songs to create
+     * @return the songs, in the order they were created
+     */
+    public static List<Song> create(Random random, int count) {
+        List<Song> songs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            songs.add(new Song("Song " + i, "Artist", "pop", 1960 + random.nextInt(60),
+                    60 + random.nextInt(140), random.nextInt(20), random.nextInt(100),
+                    -random.nextInt(30), random.nextInt(50), BY_YEAR));
+        }
+        return songs;
+    }
+}
@@ -0,0 +1,70 @@
+package isongly;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains JUnit tests for the SongKdTree class.
+ */
+public class SongKdTreeTests {
+
+    /**
+     * Helper method that computes the normalized distance of two songs the slow way.
+     */
+    private static double distance(Song a, Song b) {
+        double sum = 0;
+        for (SongFeature feature : SongFeature.values()) {
+            double difference = feature.normalized(a) - feature.normalized(b);
+            sum += difference * difference;
+        }
+        return sum;
+    }
+
+    /**
+     * Test that the nearest songs have the same distances as those found by a scan of all songs,
+     * with and without a year filter.
+     */
+    @Test
+    public void testNearestMatchesScan() {
+        Random random = new Random(21);
+        List<Song> songs = RandomSongs.create(random, 2000);
+        SongKdTree tree = new SongKdTree(songs);
+        assertEquals(2000, tree.size());
+        for (int query = 0; query < 20; query++) {
+            Song target = songs.get(random.nextInt(songs.size()));
+            Predicate<Song> filter = query % 2 == 0 ? song -> song != target
+                    : song -> song != target && song.getYear() >= 1980 && song.getYear() <= 1990;
+            List<Song> expected = new ArrayList<>();
+            for (Song song : songs) {
+                if (filter.test(song)) {
+                    expected.add(song);
+                }
+            }
+            expected.sort(Comparator.comparingDouble(song -> distance(song, target)));
+            List<Song> actual = tree.nearest(target, 10, filter);
+            assertEquals(10, actual.size());
+            for (int i = 0; i < 10; i++) {
+                assertEquals(distance(expected.get(i), target),
+                        distance(actual.get(i), target), 1e-9);
+                assertTrue(filter.test(actual.get(i)));
+            }
+        }
+    }
+
+    /**
+     * Test that an empty tree, and a filter that no song passes, return no songs.
+     */
+    @Test
+    public void testEmpty() {
+        Song song = RandomSongs.create(new Random(1), 1).get(0);
+        assertTrue(new SongKdTree(new ArrayList<>()).nearest(song, 5, s -> true).isEmpty());
+        SongKdTree tree = new SongKdTree(RandomSongs.create(new Random(2), 100));
+        assertTrue(tree.nearest(song, 5, s -> false).isEmpty());
+        assertEquals(100, tree.nearest(song, 500, s -> true).size());
+    }
+}
@@ -0,0 +1,80 @@
+package isongly;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains JUnit tests for the SongRangeTree class.
+ */
+public class SongRangeTreeTests {
+
+    /**
+     * Helper method that returns the titles of songs, sorted, so that results can be compared
+     * regardless of the order of songs within the same year.
+     */
+    private static List<String> titles(List<Song> songs) {
+        List<String> titles = new ArrayList<>();
+        for (Song song : songs) {
+            titles.add(song.getYear() + " " + song.getTitle());
+        }
+        titles.sort(null);
+        return titles;
+    }
+
+    /**
+     * Test that random box queries, some of them unbounded on a side, find the same songs as a
+     * scan of all songs, in year order and in loudness order within a year.
+     */
+    @Test
+    public void testQueryMatchesScan() {
+        Random random = new Random(48);
+        List<Song> songs = RandomSongs.create(random, 3000);
+        SongRangeTree tree = new SongRangeTree(songs);
+        assertEquals(3000, tree.size());
+        for (int query = 0; query < 200; query++) {
+            int year = 1955 + random.nextInt(70);
+            Integer minYear = query % 5 == 0 ? null : year;
+            Integer maxYear = query % 7 == 0 ? null : year + random.nextInt(30);
+            int loudness = -32 + random.nextInt(34);
+            Integer minLoudness = query % 3 == 0 ? null : loudness;
+            Integer maxLoudness = query % 4 == 0 ? null : loudness + random.nextInt(15);
+            Integer minDance = query % 6 == 0 ? null : random.nextInt(110);
+            List<Song> expected = new ArrayList<>();
+            for (Song song : songs) {
+                if ((minYear == null || song.getYear() >= minYear)
+                        && (maxYear == null || song.getYear() <= maxYear)
+                        && (minLoudness == null || song.getLoudness() >= minLoudness)
+                        && (maxLoudness == null || song.getLoudness() <= maxLoudness)
+                        && (minDance == null || song.getDanceability() >= minDance)) {
+                    expected.add(song);
+                }
+            }
+            List<Song> actual = tree.query(minYear, maxYear, minLoudness, maxLoudness, minDance);
+            assertEquals(titles(expected), titles(actual));
+            for (int i = 1; i < actual.size(); i++) {
+                Song previous = actual.get(i - 1);
+                assertTrue(previous.getYear() <= actual.get(i).getYear());
+                assertTrue(previous.getYear() < actual.get(i).getYear()
+                        || previous.getLoudness() <= actual.get(i).getLoudness());
+            }
+        }
+    }
+
+    /**
+     * Test that an empty tree, and boxes that are empty on some axis, return no songs.
+     */
+    @Test
+    public void testEmpty() {
+        assertTrue(new SongRangeTree(new ArrayList<>()).query(null, null, null, null, null)
+                .isEmpty());
+        SongRangeTree tree = new SongRangeTree(RandomSongs.create(new Random(3), 500));
+        assertEquals(500, tree.query(null, null, null, null, null).size());
+        assertTrue(tree.query(2000, 1990, null, null, null).isEmpty());
+        assertTrue(tree.query(null, null, -5, -10, null).isEmpty());
+        assertTrue(tree.query(null, null, null, null, 100).isEmpty());
+        assertTrue(tree.query(2100, null, null, null, null).isEmpty());
+    }
+}
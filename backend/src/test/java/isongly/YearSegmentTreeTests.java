@@ -0,0 +1,151 @@
+package isongly;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains JUnit tests for the YearSegmentTree class.
+ */
+public class YearSegmentTreeTests {
+
+    /**
+     * Test that the aggregates of random year ranges match those of a scan of all songs, while
+     * songs in random year order make the tree grow in both directions.
+     */
+    @Test
+    public void testQueryMatchesScan() {
+        Random random = new Random(50);
+        List<Song> songs = RandomSongs.create(random, 3000);
+        Collections.shuffle(songs, random);
+        YearSegmentTree tree = new YearSegmentTree(SongFeature.DANCEABILITY, SongFeature.BPM);
+        for (int inserted = 0; inserted < songs.size(); inserted++) {
+            tree.insert(songs.get(inserted));
+            if (inserted % 300 != 0) {
+                continue;
+            }
+            for (int query = 0; query < 20; query++) {
+                Integer low = query % 4 == 0 ? null : 1950 + random.nextInt(80);
+                Integer high = query % 5 == 0 ? null : 1950 + random.nextInt(80);
+                long count = 0;
+                long sum = 0;
+                int max = Integer.MIN_VALUE;
+                for (Song song : songs.subList(0, inserted + 1)) {
+                    if ((low == null || song.getYear() >= low)
+                            && (high == null || song.getYear() <= high)) {
+                        count++;
+                        sum += song.getBPM();
+                        max = Math.max(max, song.getDanceability());
+                    }
+                }
+                YearRangeStats stats = tree.query(low, high);
+                assertEquals(count, stats.getCount());
+                assertEquals(sum, stats.getSum(SongFeature.BPM));
+                if (count > 0) {
+                    assertEquals(max, stats.getMax(SongFeature.DANCEABILITY));
+                }
+            }
+        }
+        assertEquals(3000, tree.size());
+    }
+
+    /**
+     * Test that growing the years downwards, upwards and then far past both ends keeps the
+     * aggregates of the years that were covered before, and covers no years without songs.
+     */
+    @Test
+    public void testGrowth() {
+        YearSegmentTree tree = new YearSegmentTree(SongFeature.ENERGY);
+        // every year from 2000 down to 1990 grows the leaves towards earlier years
+        for (int year = 2000; year >= 1990; year--) {
+            tree.insert(new Song("Song " + year, "Artist", "pop", year, 120, year - 1900, 50,
+                    -5, 10));
+        }
+        tree.insert(new Song("Late", "Artist", "pop", 2030, 120, 99, 50, -5, 10));
+        tree.insert(new Song("Ancient", "Artist", "pop", 1000, 120, 1, 50, -5, 10));
+        tree.insert(new Song("Future", "Artist", "pop", 3000, 120, 100, 50, -5, 10));
+
+        assertEquals(14, tree.size());
+        for (int year = 1990; year <= 2000; year++) {
+            YearRangeStats stats = tree.query(year, year);
+            assertEquals(1, stats.getCount(), "Year " + year + " should keep its song.");
+            assertEquals(year - 1900, stats.getMax(SongFeature.ENERGY));
+        }
+        assertEquals(11, tree.query(1990, 2000).getCount());
+        assertEquals(0, tree.query(2001, 2029).getCount());
+        assertEquals(0, tree.query(1001, 1989).getCount());
+        assertEquals(1, tree.query(null, 1000).getCount());
+        assertEquals(1, tree.query(3000, null).getCount());
+        assertEquals(0, tree.query(3001, null).getCount());
+        assertEquals(14, tree.query(null, null).getCount());
+        assertEquals(100, tree.query(null, null).getMax(SongFeature.ENERGY));
+    }
+
+    /**
+     * Test that an empty tree and an empty year range hold no songs, and that features that
+     * were not aggregated are rejected.
+     */
+    @Test
+    public void testEmpty() {
+        YearSegmentTree tree = new YearSegmentTree(SongFeature.ENERGY);
+        assertEquals(0, tree.query(null, null).getCount());
+        tree.insert(new Song("Song", "Artist", "pop", 2000, 120, 70, 60, -5, 10));
+        YearRangeStats stats = tree.query(2000, 2000);
+        assertEquals(1, stats.getCount());
+        assertEquals(70, stats.getMax(SongFeature.ENERGY));
+        assertEquals(70.0, stats.mean(SongFeature.ENERGY), 1e-9);
+        assertEquals(0, tree.query(2001, null).getCount());
+        assertEquals(0, tree.query(2000, 1999).getCount());
+        assertThrows(IllegalStateException.class,
+                () -> tree.query(1990, 1995).getMax(SongFeature.ENERGY));
+        assertThrows(IllegalArgumentException.class, () -> stats.getSum(SongFeature.BPM));
+    }
+
+    /**
+     * Test that Backend.stats never counts fewer songs than an earlier call while parser threads
+     * load songs into a concurrent tree, whether it queries the segment tree or scans the songs
+     * that the segment tree does not hold yet, and that it counts every song once loaded.
+     */
+    @Test
+    public void testBackendStatsWhileLoading() throws IOException, InterruptedException {
+        File catalog = File.createTempFile("generated", ".csv");
+        try {
+            new SongCatalogGenerator(48).write(catalog, 20000);
+            Backend backend = new Backend(new ConcurrentSkipList<>());
+            backend.setIngestThreads(3);
+            // build the segment tree before loading, so that readData keeps it up to date
+            assertEquals(0, backend.stats(null, null).getCount());
+
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            Thread loader = new Thread(() -> {
+                try {
+                    backend.readData(catalog.getPath());
+                } catch (Throwable e) {
+                    failure.set(e);
+                }
+            });
+            loader.start();
+            long seen = 0;
+            while (loader.isAlive()) {
+                long count = backend.stats(null, null).getCount();
+                assertTrue(count >= seen, "stats should not lose songs while loading.");
+                assertTrue(count <= 20000, "stats should not count a song twice.");
+                seen = count;
+            }
+            loader.join();
+            assertNull(failure.get());
+
+            YearRangeStats stats = backend.stats(null, null);
+            assertEquals(20000, stats.getCount());
+            assertEquals(backend.streamRange(1990, 1999).count(),
+                    backend.stats(1990, 1999).getCount());
+        } finally {
+            catalog.delete();
+        }
+    }
+}
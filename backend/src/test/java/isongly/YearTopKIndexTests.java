@@ -0,0 +1,99 @@
+package isongly;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains JUnit tests for the YearTopKIndex class.
+ */
+public class YearTopKIndexTests {
+
+    private static final Comparator<Song> BY_YEAR = Comparator.comparingInt(Song::getYear);
+    private static final Comparator<Song> MOST_DANCEABLE =
+            Comparator.comparingInt(Song::getDanceability).reversed();
+
+    /**
+     * Test that the best songs of random year ranges, with and without a loudness filter, have
+     * the same danceability as those found by sorting all songs, and that null is only returned
+     * when the filter rejects more songs than the lists hold.
+     */
+    @Test
+    public void testTopKMatchesSort() {
+        Random random = new Random(49);
+        List<Song> songs = RandomSongs.create(random, 5000);
+        YearTopKIndex index = new YearTopKIndex(MOST_DANCEABLE, 8);
+        songs.forEach(index::insert);
+        assertEquals(5000, index.size());
+        for (int query = 0; query < 100; query++) {
+            Integer low = query % 4 == 0 ? null : 1955 + random.nextInt(70);
+            Integer high = query % 5 == 0 ? null : 1960 + random.nextInt(70);
+            int threshold = -random.nextInt(40);
+            Predicate<Song> filter = query % 2 == 0 ? song -> true
+                    : song -> song.getLoudness() < threshold;
+            List<Song> expected = new ArrayList<>();
+            for (Song song : songs) {
+                if ((low == null || song.getYear() >= low)
+                        && (high == null || song.getYear() <= high) && filter.test(song)) {
+                    expected.add(song);
+                }
+            }
+            expected.sort(MOST_DANCEABLE);
+            List<Song> actual = index.topK(5, low, high, filter);
+            if (actual == null) {
+                assertTrue(threshold < -20, "Only strict filters should need a scan.");
+                continue;
+            }
+            assertEquals(Math.min(5, expected.size()), actual.size());
+            for (int i = 0; i < actual.size(); i++) {
+                assertEquals(expected.get(i).getDanceability(), actual.get(i).getDanceability());
+                assertTrue(filter.test(actual.get(i)));
+            }
+        }
+    }
+
+    /**
+     * Test that a filter that rejects every kept song of a year with more songs returns null,
+     * while a year whose list holds all of its songs returns what passes.
+     */
+    @Test
+    public void testFallback() {
+        YearTopKIndex index = new YearTopKIndex(MOST_DANCEABLE, 2);
+        for (int dance = 0; dance < 4; dance++) {
+            index.insert(new Song("Song " + dance, "Artist", "pop", 2000, 100, 50, dance,
+                    -dance, 10, BY_YEAR));
+        }
+        index.insert(new Song("Single", "Artist", "pop", 2001, 100, 50, 1, -1, 10, BY_YEAR));
+        assertEquals(2, index.topK(2, 2000, 2000, song -> true).size());
+        assertEquals(3, index.topK(2, 2000, 2000, song -> true).get(0).getDanceability());
+        assertNull(index.topK(1, 2000, 2000, song -> song.getLoudness() > -1));
+        assertEquals(1, index.topK(5, 2001, null, song -> true).size());
+        assertTrue(index.topK(5, 2001, 2001, song -> false).isEmpty());
+        assertTrue(index.topK(5, 2002, null, song -> true).isEmpty());
+    }
+
+    /**
+     * Test that appending songs in the order of a tree keeps equal songs in the same order as
+     * inserting them one at a time, newest first.
+     */
+    @Test
+    public void testAppendKeepsTreeOrder() {
+        YearTopKIndex inserted = new YearTopKIndex(MOST_DANCEABLE, 2);
+        List<Song> treeOrder = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Song song = new Song("Song " + i, "Artist", "pop", 2000, 100, 50, 70, -5, 10, BY_YEAR);
+            inserted.insert(song);
+            treeOrder.add(0, song);
+        }
+        YearTopKIndex appended = new YearTopKIndex(MOST_DANCEABLE, 2);
+        treeOrder.forEach(appended::append);
+        List<Song> expected = inserted.topK(2, null, null, song -> true);
+        assertEquals(treeOrder.subList(0, 2), expected);
+        assertEquals(expected, appended.topK(2, null, null, song -> true));
+        assertEquals(3, appended.size());
+    }
+}
@@ -0,0 +1,106 @@
+package isongly;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.Scanner;
+
+/**
+ * Main entry point for running the CS400 Project 1: iSongly app.
+ * <p>
+ * The songs are stored in an IterableRedBlackTree, unless the system property isongly.tree is
+ * set to "bplus", which stores them in a BPlusTree instead, or to "skiplist", which stores them
+ * in a ConcurrentSkipList that parallel ingest threads insert into without a lock, or to
+ * "sharded", which stores them in a ShardedCatalog with one IterableRedBlackTree and lock for
+ * every isongly.shardYears years (10 by default) from 1900 to 2029. The fanout of the BPlusTree
+ * can be set with the system property isongly.fanout, for example:
+ * java -Disongly.tree=bplus -Disongly.fanout=128 -jar cli/target/isongly.jar
+ * <p>
+ * The load command reads files on a single thread, unless isongly.ingestThreads is set to the
+ * number of threads that parse rows while the file is read, for example:
+ * java -Disongly.tree=skiplist -Disongly.ingestThreads=4 -jar cli/target/isongly.jar
+ * <p>
+ * For catalogs that do not fit in the heap, isongly.tree can be set to "disk", which stores the
+ * songs in a DiskBPlusTree in the file named by isongly.file (songs.bpt by default). Songs that
+ * are already stored in that file are kept, and the file is closed on exit.
+ * <p>
+ * When the system property isongly.catalog names a directory, the tree is wrapped in a
+ * DurableCatalog that logs every change there, and the songs of earlier runs are recovered on
+ * start. The load command inserts rows into it in batches, so the log is forced once per batch
+ * rather than once per song. A disk tree keeps its songs by itself, so it can not be combined
+ * with isongly.catalog.
+ * <p>
+ * The similar command searches an exact k-d tree, unless isongly.similarity is set to "hnsw",
+ * which searches an approximate HnswIndex that is updated while songs are loaded. Its
+ * parameters can be set with isongly.hnswM, isongly.efConstruction and isongly.efSearch.
+ */
+public class App {
+    public static void main(String[] args) throws IOException {
+        String implementation = System.getProperty("isongly.tree", "redblack");
+        if ("disk".equals(implementation) && System.getProperty("isongly.catalog") != null) {
+            // a disk tree keeps its songs, which recovering the catalog would add a second time
+            throw new IllegalArgumentException("isongly.catalog can not be used with a disk tree, "
+                    + "which is durable by itself.");
+        }
+        IterableSortedCollection<Song> tree = newTree(implementation);
+        if (System.getProperty("isongly.catalog") != null) {
+            tree = new DurableCatalog(new File(System.getProperty("isongly.catalog")), tree,
+                    Comparator.comparingInt(Song::getYear));
+        }
+        Backend backend = new Backend(tree);
+        backend.setIngestThreads(Integer.getInteger("isongly.ingestThreads", 0));
+        if ("hnsw".equals(System.getProperty("isongly.similarity"))) {
+            HnswIndex index = new HnswIndex(
+                    Integer.getInteger("isongly.hnswM", HnswIndex.DEFAULT_M),
+                    Integer.getInteger("isongly.efConstruction", HnswIndex.DEFAULT_EF_CONSTRUCTION),
+                    new Random());
+            index.setEfSearch(Integer.getInteger("isongly.efSearch", HnswIndex.DEFAULT_EF_SEARCH));
+            backend.setApproximateIndex(index);
+        }
+        Scanner in = new Scanner(System.in);
+        FrontendInterface frontend = new Frontend(in,backend);
+
+        System.out.println("Welcome to iSongly");
+        System.out.println("==================");
+
+        frontend.runCommandLoop();
+
+        System.out.println();
+        System.out.println("====================");
+        System.out.println("Thanks, and Goodbye.");
+        if (tree instanceof Closeable) {
+            ((Closeable) tree).close();
+        }
+    }
+
+    /**
+     * Creates the tree that the backend stores songs in, which is empty unless it is a disk tree
+     * whose file already holds songs.
+     *
+     * @param implementation "redblack", "bplus", "skiplist", "sharded" or "disk"
+     * @return the new tree
+     * @throws IOException              when the file of a disk tree cannot be opened
+     * @throws IllegalArgumentException when the implementation is not known
+     */
+    static IterableSortedCollection<Song> newTree(String implementation) throws IOException {
+        switch (implementation) {
+            case "redblack":
+                return new IterableRedBlackTree<>();
+            case "bplus":
+                return new BPlusTree<>(Integer.getInteger("isongly.fanout",
+                        BPlusTree.DEFAULT_FANOUT));
+            case "skiplist":
+                return new ConcurrentSkipList<>();
+            case "sharded":
+                return ShardedCatalog.byWidth(1900, 2029,
+                        Integer.getInteger("isongly.shardYears", 10));
+            case "disk":
+                return new DiskBPlusTree(new File(System.getProperty("isongly.file", "songs.bpt")),
+                        Comparator.comparingInt(Song::getYear));
+            default:
+                throw new IllegalArgumentException("Unknown tree implementation: " + implementation);
+        }
+    }
+}
@@ -1,5 +1,8 @@
+package isongly;
+
 import java.util.List;
 import java.util.Scanner;
+import java.util.stream.Collectors;
 import java.io.IOException;
 
 /**
@@ -10,6 +13,8 @@ import java.io.IOException;
  * results of a command requested by the user.
  */
 public class Frontend implements FrontendInterface {
+    // maximum number of genres and artists listed by the facets command
+    private static final int FACET_LIMIT = 10;
     private Scanner in;
     private BackendInterface backend;
 
@@ -76,6 +81,10 @@ public class Frontend implements FrontendInterface {
      * loudness MAX
      * show MAX_COUNT
      * show most danceable
+     * facets
+     * similar TITLE N
+     * stats
+     * stats MIN to MAX
      * help
      * quit
      */
@@ -88,6 +97,10 @@ public class Frontend implements FrontendInterface {
         System.out.println("loudness MAX          :set the loudness filter threshold");
         System.out.println("show MAX_COUNT        :display up to first MAX_COUNT number of songs");
         System.out.println("show most danceable   :display five most danceable songs");
+        System.out.println("facets                :display song counts per genre, artist and decade");
+        System.out.println("similar TITLE N       :display N songs most similar to the song TITLE");
+        System.out.println("stats                 :display latency and throughput of backend operations");
+        System.out.println("stats MIN to MAX      :display count, sum and max of features from MIN to MAX");
         System.out.println("help                  :display command instructions");
         System.out.println("quit                  :exit the app");
     }
@@ -113,6 +126,15 @@ public class Frontend implements FrontendInterface {
      *           to the first MAX_COUNT in the list returned from backend
      *           most danceable: argument displays results returned from the
      *           backend's fiveMost method
+     *     facets: displays song counts per genre, artist and decade for the
+     *             songs selected by the current year range and filter
+     *     similar: displays the N songs most similar to the song TITLE among
+     *              the songs selected by the current year range and filter
+     *     stats: displays latency percentiles and throughput of the backend
+     *            operations, and the rows parsed and songs visited so far
+     *            MIN to MAX: argument instead displays the count of the songs
+     *            from year MIN to MAX, and the sum, average and maximum of
+     *            their danceability, energy and BPM
      *     help: displays command instructions
      *     quit: ends this program (handled by runCommandLoop method above)
      *           (do NOT use System.exit(), as this will interfere with tests)
@@ -199,10 +221,13 @@ public class Frontend implements FrontendInterface {
             } else { // entered a number
                 try {
                     int number = Integer.parseInt(MAX_COUNT);
-                    List<String> songs = backend.fiveMost();
+                    // the stream is lazy, so only about number songs are read from the tree
+                    List<String> songs = backend.selectionStream()
+                            .limit(Math.max(0, number)).map(Song::getTitle)
+                            .collect(Collectors.toList());
                     System.out.println("Showing up to " + number + " songs:");
-                    for (int i = 0; i < Math.min(number, songs.size()); i++) {
-                        System.out.println("  " + songs.get(i));
+                    for (String song : songs) {
+                        System.out.println("  " + song);
                     }
                 } catch (NumberFormatException e) {
                     System.out.println("Please enter 'most danceable' or an integer.");
@@ -210,6 +235,76 @@ public class Frontend implements FrontendInterface {
             }
             return;
         }
+        // facets command
+        if (lowerCase.equals("facets")) {
+            SongFacets facets = backend.facets();
+            System.out.println("Facets for " + facets.getTotal() + " songs:");
+            System.out.println("Top genres:");
+            for (String line : facets.topGenres(FACET_LIMIT)) {
+                System.out.println("   " + line);
+            }
+            System.out.println("Top artists:");
+            for (String line : facets.topArtists(FACET_LIMIT)) {
+                System.out.println("   " + line);
+            }
+            System.out.println("Decades:");
+            for (String line : facets.decades()) {
+                System.out.println("   " + line);
+            }
+            return;
+        }
+        // similar TITLE N
+        if (lowerCase.startsWith("similar ")) {
+            String[] parts = command.substring(8).trim().split("\\s+");
+            if (parts.length < 2) {
+                System.out.println("Invalid Command, please use 'similar TITLE N'.");
+                return;
+            }
+            try {
+                int count = Integer.parseInt(parts[parts.length - 1]);
+                String title = command.substring(8).trim();
+                title = title.substring(0, title.lastIndexOf(parts[parts.length - 1])).trim();
+                List<String> songs = backend.similar(title, count);
+                System.out.println("Songs similar to " + title + ":");
+                for (String song : songs) {
+                    System.out.println("   " + song);
+                }
+            } catch (NumberFormatException e) {
+                System.out.println("Please end the command with an integer.");
+            } catch (IllegalArgumentException e) {
+                System.out.println(e.getMessage());
+            }
+            return;
+        }
+        // stats command
+        if (lowerCase.equals("stats")) {
+            System.out.println("Backend statistics:");
+            for (String line : backend.getMetrics().report()) {
+                System.out.println("   " + line);
+            }
+            return;
+        }
+        // stats MIN to MAX
+        if (lowerCase.startsWith("stats ")) {
+            String[] yearBound = command.substring(6).trim().split("\\s+");
+            if (yearBound.length != 3 || !yearBound[1].equalsIgnoreCase("to")) {
+                System.out.println("Invalid Command, please use 'stats' or 'stats MIN to MAX'.");
+                return;
+            }
+            try {
+                int minYear = Integer.parseInt(yearBound[0]);
+                int maxYear = Integer.parseInt(yearBound[2]);
+                YearRangeStats stats = backend.stats(minYear, maxYear);
+                System.out.println(stats.getCount() + " songs from " + minYear + " through "
+                        + maxYear + ":");
+                for (String line : stats.report()) {
+                    System.out.println("   " + line);
+                }
+            } catch (NumberFormatException e) {
+                System.out.println("Please enter integers for the years.");
+            }
+            return;
+        }
         // help command
         if (lowerCase.equals("help")) {
             displayCommandInstructions();
@@ -1,3 +1,5 @@
+package isongly;
+
 /**
  * FrontendInterface - CS400 Project 1: iSongly
  */
@@ -39,6 +41,10 @@ public interface FrontendInterface {
      * loudness MAX 
      * show MAX_COUNT
      * show most danceable
+     * facets
+     * similar TITLE N
+     * stats
+     * stats MIN to MAX
      * help
      * quit
      */
@@ -65,6 +71,15 @@ public interface FrontendInterface {
      *           to the first MAX_COUNT in the list returned from backend
      *           most danceable: argument displays results returned from the
      *           backend's fiveMost method
+     *     facets: displays song counts per genre, artist and decade for the
+     *             songs selected by the current year range and filter
+     *     similar: displays the N songs most similar to the song TITLE among
+     *              the songs selected by the current year range and filter
+     *     stats: displays latency percentiles and throughput of the backend
+     *            operations, and the rows parsed and songs visited so far
+     *            MIN to MAX: argument instead displays the count of the songs
+     *            from year MIN to MAX, and the sum, average and maximum of
+     *            their danceability, energy and BPM
      *     help: displays command instructions
      *     quit: ends this program (handled by runCommandLoop method above)
      *           (do NOT use System.exit(), as this will interfere with tests)
@@ -1,3 +1,5 @@
+package isongly;
+
 import java.util.Scanner;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -5,6 +7,8 @@ import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.List;
 
 
 /**
@@ -83,6 +87,46 @@ public class FrontendTests {
                 "Help command test failed.");
     }
 
+    /**
+     * frontendTest4 tests that show MAX_COUNT lists the first selected songs of the backend, and
+     * only reads about that many songs from the tree
+     */
+    @Test
+    public void frontendTest4() throws IOException {
+        File catalog = File.createTempFile("generated", ".csv");
+        try {
+            new SongCatalogGenerator(3).write(catalog, 5000);
+            Backend backend = new Backend(new IterableRedBlackTree<>());
+            Frontend frontend = new Frontend(new Scanner("dummy"), backend);
+            frontend.executeSingleCommand("load " + catalog.getAbsolutePath());
+            frontend.executeSingleCommand("year 1990 to 1999");
+            List<String> expected = backend.getRange(1990, 1999).subList(0, 3);
+            long visited = backend.getMetrics().getNodesVisited();
+            TextUITester tester = new TextUITester("", true);
+            frontend.executeSingleCommand("show 3");
+            String output = tester.checkOutput();
+            assertTrue(output.contains("Showing up to 3 songs:"), "Show command output is wrong.");
+            for (String title : expected) {
+                assertTrue(output.contains("  " + title), "Expected " + title + " in the output.");
+            }
+            assertTrue(backend.getMetrics().getNodesVisited() - visited <= 4,
+                    "show 3 should only read about three songs.");
+
+            // show streams the selection of the backend, however its year range was set
+            backend.getRange(2000, 2001);
+            backend.filterSongs(-5);
+            expected = backend.getRange(2000, 2001).subList(0, 2);
+            tester = new TextUITester("", true);
+            frontend.executeSingleCommand("show 2");
+            output = tester.checkOutput();
+            for (String title : expected) {
+                assertTrue(output.contains("  " + title), "Expected " + title + " in the output.");
+            }
+        } finally {
+            catalog.delete();
+        }
+    }
+
     /**
      * Integration test for the load command using SongsTest.csv file.
      */
@@ -1,3 +1,5 @@
+package isongly;
+
 import java.io.OutputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -0,0 +1,383 @@
+package isongly;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * This class implements a B+ tree: every value is stored in a leaf, leaves hold up to fanout
+ * values in an array and are linked from left to right, and internal nodes hold up to fanout
+ * children with the separating keys between them. A search reads one array per level, and a tree
+ * of n values only has about log(n) / log(fanout) levels, so there are far fewer cache misses
+ * than in a binary tree. Iterating over a range finds the first leaf once, and then walks the
+ * leaf arrays in order.
+ * <p>
+ * Duplicates are stored like in RedBlackTree: a new value is placed before the equal values that
+ * are already in the tree, so both trees iterate equal values in the same order.
+ *
+ * @param <T> the type of data stored in the BPlusTree
+ */
+public class BPlusTree<T extends Comparable<T>> implements IterableSortedCollection<T> {
+
+    // fanout used by the no-args constructor, a leaf of 64 references spans a few cache lines
+    public static final int DEFAULT_FANOUT = 64;
+
+    /**
+     * Nested class for the nodes of the tree. count is the number of values in a leaf, or the
+     * number of children of an internal node.
+     */
+    private abstract static class Node {
+        protected int count = 0;
+    }
+
+    /**
+     * Nested class for leaves, which hold values in ascending order and a reference to the next
+     * leaf. The arrays have room for one more value than the fanout, so that a full leaf can
+     * take the new value before it is split.
+     */
+    private static class Leaf extends Node {
+        protected final Object[] values;
+        protected Leaf next = null;
+
+        protected Leaf(int fanout) {
+            this.values = new Object[fanout + 1];
+        }
+    }
+
+    /**
+     * Nested class for internal nodes. Every value in children[i] is at most keys[i], and every
+     * value in children[i + 1] is at least keys[i].
+     */
+    private static class Internal extends Node {
+        protected final Object[] keys;
+        protected final Node[] children;
+
+        protected Internal(int fanout) {
+            this.keys = new Object[fanout];
+            this.children = new Node[fanout + 1];
+        }
+    }
+
+    private final int fanout;
+    private Node root = null;
+    private int size = 0;
+    // separating key of the node that the last call of insertHelper split off, if any
+    private T separator = null;
+    private Comparable<T> min = null;
+    private Comparable<T> max = null;
+
+    /**
+     * A no-args constructor, which creates a tree with the DEFAULT_FANOUT.
+     */
+    public BPlusTree() {
+        this(DEFAULT_FANOUT);
+    }
+
+    /**
+     * Constructor that creates an empty tree with the given fanout.
+     *
+     * @param fanout the maximum number of values per leaf and children per internal node
+     * @throws IllegalArgumentException when fanout is less than 3
+     */
+    public BPlusTree(int fanout) {
+        if (fanout < 3) {
+            throw new IllegalArgumentException("The fanout of a B+ tree must be at least 3.");
+        }
+        this.fanout = fanout;
+    }
+
+    /**
+     * Inserts a new value into the tree. Full nodes on the path from the root are split, and the
+     * tree grows a new root when the old root is split.
+     *
+     * @param data the new value being inserted
+     * @throws NullPointerException if data argument is null, we do not allow null values to be
+     *                              stored within a BPlusTree
+     */
+    @Override
+    public void insert(T data) throws NullPointerException {
+        if (data == null) {
+            throw new NullPointerException("Null can not be inserted into the tree.");
+        }
+        if (root == null) {
+            root = new Leaf(fanout);
+        }
+        Node sibling = insertHelper(root, data);
+        if (sibling != null) {
+            Internal newRoot = new Internal(fanout);
+            newRoot.keys[0] = separator;
+            newRoot.children[0] = root;
+            newRoot.children[1] = sibling;
+            newRoot.count = 2;
+            root = newRoot;
+        }
+        separator = null;
+        size++;
+    }
+
+    /**
+     * Helper method that inserts data into the subtree of node. When node overflows, it is split,
+     * and the new right half is returned, with its separating key stored in separator.
+     *
+     * @param node the root of the subtree to insert into
+     * @param data the new value
+     * @return the node that was split off, or null when node did not overflow
+     */
+    private Node insertHelper(Node node, T data) {
+        if (node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            int index = lowerBound(leaf.values, leaf.count, data);
+            System.arraycopy(leaf.values, index, leaf.values, index + 1, leaf.count - index);
+            leaf.values[index] = data;
+            leaf.count++;
+            if (leaf.count <= fanout) {
+                return null;
+            }
+            // split the leaf in halves, the first value on the right separates them
+            Leaf right = new Leaf(fanout);
+            int half = leaf.count / 2;
+            right.count = leaf.count - half;
+            System.arraycopy(leaf.values, half, right.values, 0, right.count);
+            Arrays.fill(leaf.values, half, leaf.count, null);
+            leaf.count = half;
+            right.next = leaf.next;
+            leaf.next = right;
+            separator = valueAt(right.values, 0);
+            return right;
+        }
+
+        Internal internal = (Internal) node;
+        int index = lowerBound(internal.keys, internal.count - 1, data);
+        Node sibling = insertHelper(internal.children[index], data);
+        if (sibling == null) {
+            return null;
+        }
+        System.arraycopy(internal.keys, index, internal.keys, index + 1,
+                internal.count - 1 - index);
+        System.arraycopy(internal.children, index + 1, internal.children, index + 2,
+                internal.count - 1 - index);
+        internal.keys[index] = separator;
+        internal.children[index + 1] = sibling;
+        internal.count++;
+        if (internal.count <= fanout) {
+            return null;
+        }
+        // split the node, the middle key moves up to separate the halves
+        Internal right = new Internal(fanout);
+        int leftCount = (internal.count + 1) / 2;
+        right.count = internal.count - leftCount;
+        separator = valueAt(internal.keys, leftCount - 1);
+        System.arraycopy(internal.keys, leftCount, right.keys, 0, right.count - 1);
+        System.arraycopy(internal.children, leftCount, right.children, 0, right.count);
+        Arrays.fill(internal.keys, leftCount - 1, internal.count - 1, null);
+        Arrays.fill(internal.children, leftCount, internal.count, null);
+        internal.count = leftCount;
+        return right;
+    }
+
+    /**
+     * Helper method that finds the index of the first of the first count values in array that is
+     * not less than bound, or count when all of them are less, by binary search.
+     */
+    private static <T> int lowerBound(Object[] array, int count, Comparable<T> bound) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (bound.compareTo(valueAt(array, middle)) > 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Helper method that returns array[index] as a value of the tree. The arrays of the nodes are
+     * Object arrays, since generic arrays cannot be created, but only ever hold values of type T.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T valueAt(Object[] array, int index) {
+        return (T) array[index];
+    }
+
+    /**
+     * Helper method that finds the leaf that holds the first value that is not less than bound,
+     * or the leftmost leaf when bound is null.
+     *
+     * @param bound the lower bound, or null
+     * @return the leaf, or null when the tree is empty
+     */
+    private Leaf findLeaf(Comparable<T> bound) {
+        Node node = root;
+        while (node instanceof Internal) {
+            Internal internal = (Internal) node;
+            int index = bound == null ? 0 : lowerBound(internal.keys, internal.count - 1, bound);
+            node = internal.children[index];
+        }
+        return (Leaf) node;
+    }
+
+    /**
+     * Check whether data is stored in the tree.
+     *
+     * @param data the value to check for in the collection
+     * @return true if the collection contains data one or more times, and false otherwise
+     */
+    @Override
+    public boolean contains(Comparable<T> data) {
+        if (data == null) {
+            return false;
+        }
+        Iterator<T> values = new BPlusIterator<>(findLeaf(data), data, data);
+        return values.hasNext();
+    }
+
+    /**
+     * Counts the number of values in the collection, with each duplicate value being counted
+     * separately within the value returned.
+     *
+     * @return the number of values in the collection, including duplicates
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if the collection is empty.
+     *
+     * @return true if the collection contains 0 values, false otherwise
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all values and duplicates from the collection.
+     */
+    @Override
+    public void clear() {
+        root = null;
+        size = 0;
+    }
+
+    /**
+     * Allows setting the start (minimum) value of the iterator. When this method is called,
+     * every iterator created after it will use the minimum set by this method until this method
+     * is called again to set a new minimum value.
+     *
+     * @param min the minimum for iterators created for this tree, or null for no minimum
+     */
+    @Override
+    public void setIteratorMin(Comparable<T> min) {
+        this.min = min;
+    }
+
+    /**
+     * Allows setting the stop (maximum) value of the iterator. When this method is called,
+     * every iterator created after it will use the maximum set by this method until this method
+     * is called again to set a new maximum value.
+     *
+     * @param max the maximum for iterators created for this tree, or null for no maximum
+     */
+    @Override
+    public void setIteratorMax(Comparable<T> max) {
+        this.max = max;
+    }
+
+    /**
+     * @return the minimum for iterators created for this tree, or null for no minimum
+     */
+    @Override
+    public Comparable<T> getIteratorMin() {
+        return min;
+    }
+
+    /**
+     * @return the maximum for iterators created for this tree, or null for no maximum
+     */
+    @Override
+    public Comparable<T> getIteratorMax() {
+        return max;
+    }
+
+    /**
+     * Returns an iterator over the values stored in this tree. The iterator uses the start
+     * (minimum) value set by a previous call to setIteratorMin, and the stop (maximum) value set
+     * by a previous call to setIteratorMax. The first leaf is found in O(log n) time, after which
+     * each value takes O(1) time.
+     *
+     * @return the iterator
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new BPlusIterator<>(findLeaf(min), min, max);
+    }
+
+    /**
+     * Nested class for Iterator objects created for this tree and returned by the iterator
+     * method. The iterator walks the linked leaves from the first value that is not less than
+     * min, and stops before the first value that is greater than max.
+     *
+     * @param <R> the type of data stored in the tree
+     */
+    private static class BPlusIterator<R> implements Iterator<R> {
+        private Leaf leaf;
+        private int index;
+        private final Comparable<R> max;
+
+        /**
+         * Constructor for a new iterator.
+         *
+         * @param first the leaf that holds the first value that is not less than min
+         * @param min   the minimum value that the iterator will return, or null
+         * @param max   the maximum value that the iterator will return, or null
+         */
+        private BPlusIterator(Leaf first, Comparable<R> min, Comparable<R> max) {
+            this.leaf = first;
+            this.index = first == null || min == null ? 0
+                    : lowerBound(first.values, first.count, min);
+            this.max = max;
+            skipToValue();
+        }
+
+        /**
+         * Helper method that moves to the next leaf when this leaf has no values left.
+         */
+        private void skipToValue() {
+            while (leaf != null && index >= leaf.count) {
+                leaf = leaf.next;
+                index = 0;
+            }
+        }
+
+        /**
+         * Determines whether there is another value at or below max in this iterator.
+         *
+         * @return true of there are more values, false otherwise
+         */
+        @Override
+        public boolean hasNext() {
+            return leaf != null && (max == null || max.compareTo(valueAt(leaf.values, index)) >= 0);
+        }
+
+        /**
+         * Returns the next value of the iterator.
+         *
+         * @return the next value
+         * @throws NoSuchElementException if the iterator has no more values to return
+         */
+        @Override
+        public R next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("There are no more values in this range.");
+            }
+            R value = valueAt(leaf.values, index++);
+            skipToValue();
+            return value;
+        }
+    }
+}
@@ -1,3 +1,5 @@
+package isongly;
+
 /**
  * The BSTRotation class execute a rotation within a binary search tree which is a local change to
  * the shape of a tree that does not introduce any order violations. It takes two input nodes that
@@ -1,3 +1,5 @@
+package isongly;
+
 //////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
 //
 // Title:    P09 Leaderboard
@@ -1,3 +1,5 @@
+package isongly;
+
 import java.util.LinkedList;
 import java.util.Queue;
 import java.util.Stack;
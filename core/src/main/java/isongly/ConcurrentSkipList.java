@@ -0,0 +1,247 @@
+package isongly;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class implements a sorted collection as a lock-free skip list, so that several threads
+ * can insert at the same time without a lock. Every node is linked into the bottom level, and
+ * into each level above with probability 1/2, so a search skips over most nodes on the upper
+ * levels and takes O(log n) expected steps.
+ * <p>
+ * Values are never removed one by one, so an insert only has to link its node with a
+ * compare-and-set of the next reference of each predecessor. Before each compare-and-set, the
+ * insert moves past any smaller node that another thread has linked after the predecessor since
+ * it was found, and it tries again when the compare-and-set fails. Duplicates are stored like
+ * in RedBlackTree: a new value is placed before the equal values that are already in the list.
+ * <p>
+ * Iterators walk the bottom level and are weakly consistent: they never fail because of
+ * concurrent inserts, and they return the values that were inserted before they were created,
+ * and may or may not return values that are inserted while they are in use.
+ *
+ * @param <T> the type of data stored in the ConcurrentSkipList
+ */
+public class ConcurrentSkipList<T extends Comparable<T>> implements IterableSortedCollection<T> {
+
+    // highest number of levels, enough for 2^32 values
+    private static final int MAX_LEVELS = 32;
+
+    /**
+     * Nested class for the nodes of the list. next holds the successor on each level that the
+     * node is linked into.
+     */
+    private static class Node<T> {
+        private final T data;
+        private final AtomicReferenceArray<Node<T>> next;
+
+        private Node(T data, int levels) {
+            this.data = data;
+            this.next = new AtomicReferenceArray<>(levels);
+        }
+    }
+
+    private volatile Node<T> head = new Node<>(null, MAX_LEVELS);
+    private final LongAdder size = new LongAdder();
+    private volatile Comparable<T> min = null;
+    private volatile Comparable<T> max = null;
+
+    /**
+     * Inserts a new value into the list without locking. The node is first linked into the
+     * bottom level, which makes it visible to iterators, and then into the levels above.
+     *
+     * @param data the new value being inserted
+     * @throws NullPointerException if data argument is null, we do not allow null values to be
+     *                              stored within a ConcurrentSkipList
+     */
+    @Override
+    public void insert(T data) throws NullPointerException {
+        if (data == null) {
+            throw new NullPointerException("Null can not be inserted into the list.");
+        }
+        Node<T> list = head;
+        int levels = randomLevels();
+        Node<T> node = new Node<>(data, levels);
+        // find the predecessor of node on every level it is linked into
+        @SuppressWarnings("unchecked")
+        Node<T>[] predecessors = (Node<T>[]) new Node<?>[levels];
+        Node<T> predecessor = list;
+        for (int level = MAX_LEVELS - 1; level >= 0; level--) {
+            predecessor = advance(predecessor, level, data);
+            if (level < levels) {
+                predecessors[level] = predecessor;
+            }
+        }
+        for (int level = 0; level < levels; level++) {
+            predecessor = predecessors[level];
+            while (true) {
+                Node<T> successor = predecessor.next.get(level);
+                if (successor != null && data.compareTo(successor.data) > 0) {
+                    // another thread linked a smaller node after predecessor, so move past it
+                    predecessor = successor;
+                    continue;
+                }
+                node.next.set(level, successor);
+                if (predecessor.next.compareAndSet(level, successor, node)) {
+                    break;
+                }
+            }
+        }
+        size.increment();
+    }
+
+    /**
+     * Helper method that moves forward from node on level as long as the next value is less than
+     * bound, and returns the last node that it reaches.
+     */
+    private static <T> Node<T> advance(Node<T> node, int level, Comparable<T> bound) {
+        Node<T> next = node.next.get(level);
+        while (next != null && bound.compareTo(next.data) > 0) {
+            node = next;
+            next = node.next.get(level);
+        }
+        return node;
+    }
+
+    /**
+     * Helper method that draws the number of levels of a new node, each level above the bottom
+     * with probability 1/2.
+     */
+    private static int randomLevels() {
+        int random = ThreadLocalRandom.current().nextInt();
+        return Math.min(Integer.numberOfTrailingZeros(random) + 1, MAX_LEVELS);
+    }
+
+    /**
+     * Helper method that finds the first node whose value is not less than bound, or the first
+     * node of the list when bound is null.
+     */
+    private Node<T> lowerBound(Comparable<T> bound) {
+        Node<T> node = head;
+        if (bound != null) {
+            for (int level = MAX_LEVELS - 1; level >= 0; level--) {
+                node = advance(node, level, bound);
+            }
+        }
+        return node.next.get(0);
+    }
+
+    /**
+     * Check whether data is stored in the list.
+     *
+     * @param data the value to check for in the collection
+     * @return true if the collection contains data one or more times, and false otherwise
+     */
+    @Override
+    public boolean contains(Comparable<T> data) {
+        if (data == null) {
+            return false;
+        }
+        Node<T> node = lowerBound(data);
+        return node != null && data.compareTo(node.data) == 0;
+    }
+
+    /**
+     * Counts the number of values in the collection, with each duplicate value being counted
+     * separately within the value returned. While other threads insert, the count may miss some
+     * of their values.
+     *
+     * @return the number of values in the collection, including duplicates
+     */
+    @Override
+    public int size() {
+        return (int) Math.min(size.sum(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Checks if the collection is empty.
+     *
+     * @return true if the collection contains 0 values, false otherwise
+     */
+    @Override
+    public boolean isEmpty() {
+        return head.next.get(0) == null;
+    }
+
+    /**
+     * Removes all values and duplicates from the collection by replacing the list with an empty
+     * one. Values that other threads insert at the same time may be lost.
+     */
+    @Override
+    public void clear() {
+        head = new Node<>(null, MAX_LEVELS);
+        size.reset();
+    }
+
+    /**
+     * Allows setting the start (minimum) value of the iterator. When this method is called,
+     * every iterator created after it will use the minimum set by this method until this method
+     * is called again to set a new minimum value.
+     *
+     * @param min the minimum for iterators created for this list, or null for no minimum
+     */
+    @Override
+    public void setIteratorMin(Comparable<T> min) {
+        this.min = min;
+    }
+
+    /**
+     * Allows setting the stop (maximum) value of the iterator. When this method is called,
+     * every iterator created after it will use the maximum set by this method until this method
+     * is called again to set a new maximum value.
+     *
+     * @param max the maximum for iterators created for this list, or null for no maximum
+     */
+    @Override
+    public void setIteratorMax(Comparable<T> max) {
+        this.max = max;
+    }
+
+    /**
+     * @return the minimum for iterators created for this list, or null for no minimum
+     */
+    @Override
+    public Comparable<T> getIteratorMin() {
+        return min;
+    }
+
+    /**
+     * @return the maximum for iterators created for this list, or null for no maximum
+     */
+    @Override
+    public Comparable<T> getIteratorMax() {
+        return max;
+    }
+
+    /**
+     * Returns a weakly consistent iterator over the values stored in this list, from the minimum
+     * set by setIteratorMin to the maximum set by setIteratorMax.
+     *
+     * @return the iterator
+     */
+    @Override
+    public Iterator<T> iterator() {
+        Comparable<T> max = this.max;
+        Node<T> first = lowerBound(min);
+        return new Iterator<T>() {
+            private Node<T> next = first;
+
+            @Override
+            public boolean hasNext() {
+                return next != null && (max == null || max.compareTo(next.data) >= 0);
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException("There are no more values in this range.");
+                }
+                T data = next.data;
+                next = next.next.get(0);
+                return data;
+            }
+        };
+    }
+}
@@ -0,0 +1,694 @@
+package isongly;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * This class implements a B+ tree of songs that is stored in a file, for catalogs that do not fit
+ * in the heap. The file is divided into pages of PAGE_SIZE bytes that are read and written through
+ * a FileChannel: page 0 holds the header, and every other page is a leaf or an internal node. A
+ * node is split when its records no longer fit in one page, so the fanout adapts to the lengths
+ * of the titles, artists and genres.
+ * <p>
+ * Only a bounded number of pages is kept in memory, in a cache that evicts the least recently
+ * used page and writes it back when it was changed. Range iteration walks the linked leaves and
+ * reads each leaf through the cache, so a scan streams from disk and only holds one leaf at a
+ * time. Changes reach the file when pages are evicted, and completely on flush or close.
+ * <p>
+ * The header is written when the file is created and whenever the root or the number of pages
+ * changes, and every new page is written as an empty leaf when it is allocated, so the file
+ * opens even when the process ended without close. A flag in the header tells whether the pages
+ * were complete when it was written; when they were not, opening counts the songs again, and the
+ * songs that were only in the cache are lost. Wrap the tree in a DurableCatalog for crash safety.
+ * <p>
+ * The comparator of the songs is not stored in the file, so a tree must be reopened with the
+ * same ordering it was written with. Like the other trees, this class is not thread-safe.
+ */
+public class DiskBPlusTree implements IterableSortedCollection<Song>, Closeable {
+
+    // bytes per page, a common file system block size
+    public static final int PAGE_SIZE = 8192;
+    // number of pages that the cache holds by default, 8 MB
+    public static final int DEFAULT_CACHE_PAGES = 1024;
+    // largest record, so that each half of a split page fits in a page
+    public static final int MAX_RECORD_SIZE = PAGE_SIZE / 4;
+
+    private static final int MAGIC = 0x69536f6e; // "iSon"
+    private static final byte LEAF = 1;
+    private static final byte INTERNAL = 2;
+    // bytes of the type, count and next leaf at the start of every node page
+    private static final int NODE_HEADER = 1 + 4 + 4;
+    // bytes of the magic, page size, root, page count, size and clean flag of the header page
+    private static final int FILE_HEADER = 4 + 4 + 4 + 4 + 8 + 4;
+    private static final int NO_PAGE = -1;
+
+    /**
+     * Nested class for a decoded node page. A leaf holds songs and the id of the next leaf, an
+     * internal node holds children and the separating keys between them: every song in
+     * children[i] is at most keys[i], and every song in children[i + 1] is at least keys[i].
+     */
+    private static class Page {
+        private final int id;
+        private final boolean leaf;
+        private final List<Song> songs = new ArrayList<>(); // values of a leaf, keys otherwise
+        private final List<Integer> children = new ArrayList<>();
+        private int next = NO_PAGE;
+        private int bytes = NODE_HEADER; // encoded size
+        private boolean dirty = false;
+
+        private Page(int id, boolean leaf) {
+            this.id = id;
+            this.leaf = leaf;
+        }
+    }
+
+    private final FileChannel channel;
+    private final Comparator<Song> comparator;
+    private final Map<Integer, Page> cache;
+    private int rootId;
+    private int pageCount;
+    private long size;
+    // whether the header in the file says that every page was written when it was last written
+    private boolean headerClean = false;
+    // separating key of the page that the last call of insertHelper split off, if any
+    private Song separator = null;
+    private Comparable<Song> min = null;
+    private Comparable<Song> max = null;
+
+    /**
+     * Opens the tree stored in file with a cache of DEFAULT_CACHE_PAGES pages, or creates an
+     * empty tree when the file does not exist or is empty.
+     *
+     * @param file       the file of the tree
+     * @param comparator the ordering of the songs in the tree, for example by year
+     * @throws IOException when the file cannot be opened, or is not a tree of this class
+     */
+    public DiskBPlusTree(File file, Comparator<Song> comparator) throws IOException {
+        this(file, comparator, DEFAULT_CACHE_PAGES);
+    }
+
+    /**
+     * Opens the tree stored in file, or creates an empty tree when the file does not exist or is
+     * empty.
+     *
+     * @param file       the file of the tree
+     * @param comparator the ordering of the songs in the tree, for example by year
+     * @param cachePages the maximum number of pages kept in memory, at least 16
+     * @throws IOException              when the file cannot be opened, or is not a tree of this
+     *                                  class
+     * @throws IllegalArgumentException when cachePages is less than 16
+     */
+    public DiskBPlusTree(File file, Comparator<Song> comparator, int cachePages)
+            throws IOException {
+        if (cachePages < 16) {
+            throw new IllegalArgumentException("The page cache needs room for at least 16 pages.");
+        }
+        this.comparator = comparator;
+        this.cache = new LinkedHashMap<Integer, Page>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Page> eldest) {
+                if (size() <= cachePages) {
+                    return false;
+                }
+                writePage(eldest.getValue());
+                return true;
+            }
+        };
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() == 0) {
+            reset();
+        } else if (!readHeader()) {
+            // the tree was not closed, so the size in the header may be out of date
+            size = countSongs();
+        }
+    }
+
+    /**
+     * Helper method that starts an empty tree: the header page and an empty root leaf.
+     */
+    private void reset() {
+        cache.clear();
+        pageCount = 1;
+        size = 0;
+        rootId = newPage(true).id;
+        writeHeader(false);
+    }
+
+    /**
+     * Helper method that reads and checks the header page, and returns whether it was written
+     * by flush. Files without the clean flag count as not clean.
+     */
+    private boolean readHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER);
+        channel.read(header, 0);
+        header.flip();
+        if (header.remaining() < FILE_HEADER - 4 || header.getInt() != MAGIC
+                || header.getInt() != PAGE_SIZE) {
+            throw new IOException("The file does not hold a DiskBPlusTree.");
+        }
+        rootId = header.getInt();
+        pageCount = header.getInt();
+        size = header.getLong();
+        headerClean = header.remaining() >= 4 && header.getInt() == 1;
+        return headerClean;
+    }
+
+    /**
+     * Helper method that writes the header, with the flag that tells whether every page has been
+     * written.
+     */
+    private void writeHeader(boolean clean) {
+        try {
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER);
+            header.putInt(MAGIC).putInt(PAGE_SIZE).putInt(rootId).putInt(pageCount).putLong(size)
+                    .putInt(clean ? 1 : 0);
+            header.flip();
+            writeFully(header, 0);
+            headerClean = clean;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Helper method that counts the songs of all leaves, from the leftmost leaf along the links.
+     */
+    private long countSongs() {
+        long count = 0;
+        Page leaf = findLeaf(null);
+        while (true) {
+            count += leaf.songs.size();
+            if (leaf.next == NO_PAGE) {
+                return count;
+            }
+            leaf = page(leaf.next);
+        }
+    }
+
+    /**
+     * Inserts a new song into the tree. Pages on the path from the root that overflow are split,
+     * and the tree grows a new root when the old root is split.
+     *
+     * @param data the new song being inserted
+     * @throws NullPointerException     if data argument is null, we do not allow null values to be
+     *                                  stored within a DiskBPlusTree
+     * @throws IllegalArgumentException when the record of data is larger than MAX_RECORD_SIZE
+     * @throws UncheckedIOException     when a page cannot be read or written
+     */
+    @Override
+    public void insert(Song data) throws NullPointerException {
+        if (data == null) {
+            throw new NullPointerException("Null can not be inserted into the tree.");
+        }
+        if (SongCodec.encodedSize(data) > MAX_RECORD_SIZE) {
+            throw new IllegalArgumentException("The song is too large to be stored in a page.");
+        }
+        if (headerClean) {
+            writeHeader(false);
+        }
+        Page sibling = insertHelper(page(rootId), data);
+        if (sibling != null) {
+            Page newRoot = newPage(false);
+            newRoot.children.add(rootId);
+            newRoot.bytes += Integer.BYTES;
+            addKey(newRoot, 0, separator, sibling.id);
+            rootId = newRoot.id;
+            // the header must never name a root that is not in the file
+            writePage(newRoot);
+            writeHeader(false);
+        }
+        separator = null;
+        size++;
+    }
+
+    /**
+     * Helper method that inserts data into the subtree of page. A new song is placed before the
+     * equal songs that are already in the tree, like RedBlackTree does. When page no longer fits
+     * in PAGE_SIZE bytes, it is split, and the new right half is returned, with its separating key
+     * stored in separator.
+     *
+     * @param page the root of the subtree to insert into
+     * @param data the new song
+     * @return the page that was split off, or null when page did not overflow
+     */
+    private Page insertHelper(Page page, Song data) {
+        if (page.leaf) {
+            page.songs.add(lowerBound(page.songs, data), data);
+            page.bytes += SongCodec.encodedSize(data);
+            markDirty(page);
+            if (page.bytes <= PAGE_SIZE) {
+                return null;
+            }
+            // split off the songs after the first half of the bytes
+            Page right = newPage(true);
+            int split = splitIndex(page, 0);
+            moveSongs(page, split, right);
+            right.next = page.next;
+            page.next = right.id;
+            separator = right.songs.get(0);
+            return right;
+        }
+
+        int index = lowerBound(page.songs, data);
+        Page sibling = insertHelper(page(page.children.get(index)), data);
+        if (sibling == null) {
+            return null;
+        }
+        addKey(page, index, separator, sibling.id);
+        if (page.bytes <= PAGE_SIZE) {
+            return null;
+        }
+        // split the page, the key at the split moves up to separate the halves
+        Page right = newPage(false);
+        int split = splitIndex(page, Integer.BYTES);
+        Song middle = page.songs.get(split);
+        right.children.add(page.children.get(split + 1));
+        right.bytes += Integer.BYTES;
+        moveSongs(page, split + 1, right);
+        page.songs.remove(split);
+        page.children.remove(split + 1);
+        page.bytes -= SongCodec.encodedSize(middle) + Integer.BYTES;
+        separator = middle;
+        return right;
+    }
+
+    /**
+     * Helper method that adds key, and the child to its right, at index of an internal page.
+     */
+    private void addKey(Page page, int index, Song key, int child) {
+        page.songs.add(index, key);
+        page.children.add(index + 1, child);
+        page.bytes += SongCodec.encodedSize(key) + Integer.BYTES;
+        markDirty(page);
+    }
+
+    /**
+     * Helper method that finds the first index at which the songs of page, each with extra bytes
+     * for its child, have used half of the bytes of the page.
+     */
+    private static int splitIndex(Page page, int extra) {
+        int half = (page.bytes - NODE_HEADER) / 2;
+        int used = 0;
+        int index = 0;
+        while (index < page.songs.size() - 1 && used < half) {
+            used += SongCodec.encodedSize(page.songs.get(index)) + extra;
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Helper method that moves the songs from index on, and for internal pages the children to
+     * their right, from page to the end of page right.
+     */
+    private void moveSongs(Page page, int index, Page right) {
+        List<Song> moved = page.songs.subList(index, page.songs.size());
+        for (Song song : moved) {
+            int bytes = SongCodec.encodedSize(song) + (page.leaf ? 0 : Integer.BYTES);
+            page.bytes -= bytes;
+            right.bytes += bytes;
+        }
+        right.songs.addAll(moved);
+        moved.clear();
+        if (!page.leaf) {
+            List<Integer> children = page.children.subList(index + 1, page.children.size());
+            right.children.addAll(children);
+            children.clear();
+        }
+        markDirty(page);
+        markDirty(right);
+    }
+
+    /**
+     * Helper method that finds the index of the first song in songs that is not less than bound,
+     * or the number of songs when all of them are less, by binary search.
+     */
+    private static int lowerBound(List<Song> songs, Comparable<Song> bound) {
+        int low = 0;
+        int high = songs.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (bound.compareTo(songs.get(middle)) > 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Helper method that finds the leaf that holds the first song that is not less than bound,
+     * or the leftmost leaf when bound is null.
+     */
+    private Page findLeaf(Comparable<Song> bound) {
+        Page page = page(rootId);
+        while (!page.leaf) {
+            int index = bound == null ? 0 : lowerBound(page.songs, bound);
+            page = page(page.children.get(index));
+        }
+        return page;
+    }
+
+    /**
+     * Helper method that returns the page with the given id, from the cache or else from the
+     * file.
+     */
+    private Page page(int id) {
+        Page page = cache.get(id);
+        if (page == null) {
+            page = readPage(id);
+            cache.put(id, page);
+        }
+        return page;
+    }
+
+    /**
+     * Helper method that allocates a new empty page at the end of the file. The page is written
+     * as an empty leaf before the header counts it, so that pages which are written later never
+     * refer to a page that is missing from the file.
+     */
+    private Page newPage(boolean leaf) {
+        Page placeholder = new Page(pageCount, true);
+        placeholder.dirty = true;
+        writePage(placeholder);
+        Page page = new Page(pageCount++, leaf);
+        writeHeader(false);
+        markDirty(page);
+        return page;
+    }
+
+    /**
+     * Helper method that marks page as changed, and puts it back into the cache in case it was
+     * evicted while it was being changed.
+     */
+    private void markDirty(Page page) {
+        page.dirty = true;
+        cache.put(page.id, page);
+    }
+
+    /**
+     * Helper method that reads and decodes a page from the file.
+     */
+    private Page readPage(int id) {
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(PAGE_SIZE);
+            channel.read(buffer, (long) id * PAGE_SIZE);
+            DataInputStream in = new DataInputStream(
+                    new ByteArrayInputStream(buffer.array(), 0, PAGE_SIZE));
+            byte type = in.readByte();
+            if (type != LEAF && type != INTERNAL) {
+                throw new IOException("Page " + id + " is not a node of the tree.");
+            }
+            Page page = new Page(id, type == LEAF);
+            int count = in.readInt();
+            page.next = in.readInt();
+            if (!page.leaf) {
+                page.children.add(in.readInt());
+                page.bytes += Integer.BYTES;
+            }
+            for (int i = 0; i < count; i++) {
+                Song song = SongCodec.read(in, comparator);
+                page.songs.add(song);
+                page.bytes += SongCodec.encodedSize(song);
+                if (!page.leaf) {
+                    page.children.add(in.readInt());
+                    page.bytes += Integer.BYTES;
+                }
+            }
+            return page;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Helper method that encodes and writes page to the file, when it was changed since it was
+     * last written.
+     */
+    private void writePage(Page page) {
+        if (!page.dirty) {
+            return;
+        }
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(PAGE_SIZE);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(page.leaf ? LEAF : INTERNAL);
+            out.writeInt(page.songs.size());
+            out.writeInt(page.next);
+            if (!page.leaf) {
+                out.writeInt(page.children.get(0));
+            }
+            for (int i = 0; i < page.songs.size(); i++) {
+                SongCodec.write(out, page.songs.get(i));
+                if (!page.leaf) {
+                    out.writeInt(page.children.get(i + 1));
+                }
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(PAGE_SIZE);
+            buffer.put(bytes.toByteArray()).flip();
+            buffer.limit(PAGE_SIZE);
+            writeFully(buffer, (long) page.id * PAGE_SIZE);
+            page.dirty = false;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Helper method that writes all remaining bytes of buffer at position.
+     */
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    /**
+     * Writes every changed page and the header to the file, and forces them to the storage
+     * device.
+     *
+     * @throws IOException when writing fails
+     */
+    public void flush() throws IOException {
+        try {
+            for (Page page : cache.values()) {
+                writePage(page);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        // the pages must be on the device before the header says that they are complete
+        channel.force(false);
+        try {
+            writeHeader(true);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        channel.force(true);
+    }
+
+    /**
+     * Flushes the tree and closes its file.
+     *
+     * @throws IOException when writing fails
+     */
+    @Override
+    public void close() throws IOException {
+        if (!channel.isOpen()) {
+            return;
+        }
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Check whether data is stored in the tree.
+     *
+     * @param data the value to check for in the collection
+     * @return true if the collection contains data one or more times, and false otherwise
+     */
+    @Override
+    public boolean contains(Comparable<Song> data) {
+        if (data == null) {
+            return false;
+        }
+        return new DiskIterator(findLeaf(data), data, data).hasNext();
+    }
+
+    /**
+     * Counts the number of songs in the tree, with each duplicate being counted separately.
+     *
+     * @return the number of songs, or Integer.MAX_VALUE when there are more
+     */
+    @Override
+    public int size() {
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Checks if the collection is empty.
+     *
+     * @return true if the collection contains 0 values, false otherwise
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all songs from the tree, and shrinks its file to an empty tree.
+     *
+     * @throws UncheckedIOException when the file cannot be truncated
+     */
+    @Override
+    public void clear() {
+        try {
+            channel.truncate(PAGE_SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        reset();
+    }
+
+    /**
+     * Allows setting the start (minimum) value of the iterator. When this method is called,
+     * every iterator created after it will use the minimum set by this method until this method
+     * is called again to set a new minimum value.
+     *
+     * @param min the minimum for iterators created for this tree, or null for no minimum
+     */
+    @Override
+    public void setIteratorMin(Comparable<Song> min) {
+        this.min = min;
+    }
+
+    /**
+     * Allows setting the stop (maximum) value of the iterator. When this method is called,
+     * every iterator created after it will use the maximum set by this method until this method
+     * is called again to set a new maximum value.
+     *
+     * @param max the maximum for iterators created for this tree, or null for no maximum
+     */
+    @Override
+    public void setIteratorMax(Comparable<Song> max) {
+        this.max = max;
+    }
+
+    /**
+     * @return the minimum for iterators created for this tree, or null for no minimum
+     */
+    @Override
+    public Comparable<Song> getIteratorMin() {
+        return min;
+    }
+
+    /**
+     * @return the maximum for iterators created for this tree, or null for no maximum
+     */
+    @Override
+    public Comparable<Song> getIteratorMax() {
+        return max;
+    }
+
+    /**
+     * Returns an iterator over the songs stored in this tree, from the minimum set by
+     * setIteratorMin to the maximum set by setIteratorMax. The iterator reads one leaf at a time
+     * through the page cache, and must not be used after the tree has changed.
+     *
+     * @return the iterator
+     * @throws UncheckedIOException when a page cannot be read
+     */
+    @Override
+    public Iterator<Song> iterator() {
+        return new DiskIterator(findLeaf(min), min, max);
+    }
+
+    /**
+     * Nested class for Iterator objects created for this tree and returned by the iterator
+     * method. The iterator walks the linked leaves from the first song that is not less than
+     * min, and stops before the first song that is greater than max.
+     */
+    private class DiskIterator implements Iterator<Song> {
+        private List<Song> songs;
+        private int next;
+        private int index;
+        private final Comparable<Song> max;
+
+        /**
+         * Constructor for a new iterator.
+         *
+         * @param first the leaf that holds the first song that is not less than min
+         * @param min   the minimum song that the iterator will return, or null
+         * @param max   the maximum song that the iterator will return, or null
+         */
+        private DiskIterator(Page first, Comparable<Song> min, Comparable<Song> max) {
+            this.songs = first.songs;
+            this.next = first.next;
+            this.index = min == null ? 0 : lowerBound(songs, min);
+            this.max = max;
+            skipToValue();
+        }
+
+        /**
+         * Helper method that reads the next leaf when this leaf has no songs left.
+         */
+        private void skipToValue() {
+            while (songs != null && index >= songs.size()) {
+                songs = null;
+                if (next != NO_PAGE) {
+                    Page leaf = page(next);
+                    songs = leaf.songs;
+                    next = leaf.next;
+                    index = 0;
+                }
+            }
+        }
+
+        /**
+         * Determines whether there is another song at or below max in this iterator.
+         *
+         * @return true of there are more songs, false otherwise
+         */
+        @Override
+        public boolean hasNext() {
+            return songs != null && (max == null || max.compareTo(songs.get(index)) >= 0);
+        }
+
+        /**
+         * Returns the next song of the iterator.
+         *
+         * @return the next song
+         * @throws NoSuchElementException if the iterator has no more songs to return
+         */
+        @Override
+        public Song next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("There are no more songs in this range.");
+            }
+            Song song = songs.get(index++);
+            skipToValue();
+            return song;
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package isongly;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * DurableCatalog - CS400 Project 1: iSongly
+ * This class makes the changes to an in-memory song collection survive a crash. Every insert and
+ * clear is appended to a WriteAheadLog and committed before it returns, so concurrent writers
+ * share the forces of the log through group commit. When the log grows past a threshold, a
+ * checkpoint writes all songs into a snapshot file and empties the log.
+ * <p>
+ * A commit forces the log to the storage device, so a single writer that inserts one song at a
+ * time pays one device flush per song, which makes loading many times slower than loading an
+ * in-memory collection. Loads should insert sorted batches with insertAll, which commits the
+ * whole batch with one force, as Backend.readData does for a DurableCatalog.
+ * <p>
+ * Opening a catalog recovers it: the snapshot is read sequentially and bulk loaded with
+ * insertAll, and only the log records after the checkpoint are replayed, so the replay work is
+ * proportional to the changes since the last checkpoint, not to the size of the catalog.
+ * <p>
+ * Changes are serialized by this catalog, but reading while another thread changes the catalog
+ * is only as safe as the wrapped collection allows.
+ */
+public class DurableCatalog implements IterableSortedCollection<Song>, Closeable {
+  // log size at which a checkpoint is taken by default
+  public static final long DEFAULT_CHECKPOINT_BYTES = 64L << 20;
+
+  private static final int SNAPSHOT_MAGIC = 0x69536e70; // "iSnp"
+
+  private final IterableSortedCollection<Song> songs;
+  private final Comparator<Song> comparator;
+  private final File snapshotFile;
+  private final WriteAheadLog log;
+  private final long checkpointBytes;
+
+  /**
+   * Opens or creates the catalog stored in directory, with the DEFAULT_CHECKPOINT_BYTES.
+   *
+   * @param directory  the directory of the snapshot and log files, created when it is missing
+   * @param songs      the empty collection that holds the songs in memory
+   * @param comparator the ordering of the songs, for example by year
+   * @throws IOException              when the files cannot be read or created
+   * @throws IllegalArgumentException when songs is not empty
+   */
+  public DurableCatalog(File directory, IterableSortedCollection<Song> songs,
+      Comparator<Song> comparator) throws IOException {
+    this(directory, songs, comparator, DEFAULT_CHECKPOINT_BYTES);
+  }
+
+  /**
+   * Opens or creates the catalog stored in directory, and recovers its songs into songs.
+   *
+   * @param directory       the directory of the snapshot and log files, created when missing
+   * @param songs           the empty collection that holds the songs in memory
+   * @param comparator      the ordering of the songs, for example by year
+   * @param checkpointBytes the log size at which a checkpoint is taken
+   * @throws IOException              when the files cannot be read or created
+   * @throws IllegalArgumentException when songs is not empty, since the recovered songs would
+   *                                  be added to the songs that it holds already
+   */
+  public DurableCatalog(File directory, IterableSortedCollection<Song> songs,
+      Comparator<Song> comparator, long checkpointBytes) throws IOException {
+    if (!songs.isEmpty()) {
+      throw new IllegalArgumentException("A catalog can only be recovered into an empty "
+          + "collection.");
+    }
+    Files.createDirectories(directory.toPath());
+    this.songs = songs;
+    this.comparator = comparator;
+    this.checkpointBytes = checkpointBytes;
+    this.snapshotFile = new File(directory, "catalog.snapshot");
+    long snapshotLsn = readSnapshot();
+    this.log = new WriteAheadLog(new File(directory, "catalog.wal"), comparator);
+    log.continueAfter(snapshotLsn);
+    List<Song> inserted = new ArrayList<>();
+    log.replay(snapshotLsn, record -> {
+      if (record.operation == WriteAheadLog.INSERT) {
+        inserted.add(record.song);
+      } else {
+        inserted.clear();
+        songs.clear();
+      }
+    });
+    inserted.forEach(songs::insert);
+  }
+
+  /**
+   * Helper method that loads the snapshot, when there is one, and returns the LSN of the last
+   * log record that it includes.
+   */
+  private long readSnapshot() throws IOException {
+    if (!snapshotFile.exists()) {
+      return 0;
+    }
+    CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(
+        new FileInputStream(snapshotFile), 1 << 16), new CRC32());
+    try (DataInputStream in = new DataInputStream(checked)) {
+      if (in.readInt() != SNAPSHOT_MAGIC) {
+        throw new IOException("The snapshot " + snapshotFile + " is not a catalog snapshot.");
+      }
+      long lsn = in.readLong();
+      long count = in.readLong();
+      List<Song> sorted = new ArrayList<>();
+      for (long i = 0; i < count; i++) {
+        sorted.add(SongCodec.read(in, comparator));
+      }
+      long checksum = checked.getChecksum().getValue();
+      if (in.readLong() != checksum) {
+        throw new IOException("The snapshot " + snapshotFile + " is corrupt.");
+      }
+      // insertAll puts later equal songs first, so reverse equal songs to keep their order
+      for (int first = 0, last; first < sorted.size(); first = last + 1) {
+        last = first;
+        while (last + 1 < sorted.size()
+            && comparator.compare(sorted.get(last + 1), sorted.get(first)) == 0) {
+          last++;
+        }
+        Collections.reverse(sorted.subList(first, last + 1));
+      }
+      songs.insertAll(sorted);
+      return lsn;
+    }
+  }
+
+  /**
+   * Writes every song into a new snapshot, and then empties the log. The snapshot is written to
+   * a temporary file that replaces the old snapshot in one atomic move, so a crash leaves either
+   * the old snapshot and the full log, or the new snapshot. The snapshot holds all songs, so the
+   * iterator bounds are cleared while it is written, and restored afterwards.
+   *
+   * @throws IOException when the snapshot cannot be written
+   */
+  public synchronized void checkpoint() throws IOException {
+    log.commit();
+    long lsn = log.getLastLsn();
+    File temporary = new File(snapshotFile.getPath() + ".tmp");
+    try (FileOutputStream file = new FileOutputStream(temporary)) {
+      CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(file,
+          1 << 16), new CRC32());
+      DataOutputStream out = new DataOutputStream(checked);
+      out.writeInt(SNAPSHOT_MAGIC);
+      out.writeLong(lsn);
+      out.writeLong(songs.size());
+      Comparable<Song> min = songs.getIteratorMin();
+      Comparable<Song> max = songs.getIteratorMax();
+      Iterator<Song> all;
+      try {
+        songs.setIteratorMin(null);
+        songs.setIteratorMax(null);
+        all = songs.iterator();
+      } finally {
+        songs.setIteratorMin(min);
+        songs.setIteratorMax(max);
+      }
+      while (all.hasNext()) {
+        SongCodec.write(out, all.next());
+      }
+      out.writeLong(checked.getChecksum().getValue());
+      out.flush();
+      file.getFD().sync();
+    }
+    Files.move(temporary.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+    log.truncate();
+  }
+
+  /**
+   * Inserts a song, and returns after the insert has been committed to the log. Unless other
+   * threads commit at the same time, this forces the log once for the single song, so songs
+   * that arrive together should be inserted with insertAll instead.
+   *
+   * @param data the new song being inserted
+   * @throws NullPointerException if data argument is null
+   * @throws UncheckedIOException  when the log cannot be written
+   */
+  @Override
+  public void insert(Song data) throws NullPointerException {
+    insertAll(Collections.singletonList(data));
+  }
+
+  /**
+   * Inserts a sorted batch of songs, and returns after the whole batch has been committed to the
+   * log with a single force.
+   *
+   * @param sortedBatch the new songs, in ascending order
+   * @throws NullPointerException     if sortedBatch or any of its songs is null
+   * @throws IllegalArgumentException if sortedBatch is not in ascending order
+   * @throws UncheckedIOException     when the log cannot be written
+   */
+  @Override
+  public void insertAll(List<Song> sortedBatch)
+      throws NullPointerException, IllegalArgumentException {
+    long lsn = 0;
+    try {
+      synchronized (this) {
+        // check the batch before logging it, so that the log only holds inserts that succeed
+        Song previous = null;
+        for (Song song : sortedBatch) {
+          if (song == null) {
+            throw new NullPointerException("Null can not be inserted into the catalog.");
+          }
+          if (previous != null && previous.compareTo(song) > 0) {
+            throw new IllegalArgumentException("The batch is not sorted in ascending order.");
+          }
+          previous = song;
+        }
+        for (Song song : sortedBatch) {
+          lsn = log.append(WriteAheadLog.INSERT, song);
+        }
+        songs.insertAll(sortedBatch);
+      }
+      log.commit(lsn);
+      checkpointIfNeeded();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Removes all songs, and returns after the clear has been committed to the log.
+   *
+   * @throws UncheckedIOException when the log cannot be written
+   */
+  @Override
+  public void clear() {
+    try {
+      long lsn;
+      synchronized (this) {
+        lsn = log.append(WriteAheadLog.CLEAR, null);
+        songs.clear();
+      }
+      log.commit(lsn);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Helper method that takes a checkpoint once the log has grown past checkpointBytes.
+   */
+  private void checkpointIfNeeded() throws IOException {
+    if (log.size() >= checkpointBytes) {
+      synchronized (this) {
+        if (log.size() >= checkpointBytes) {
+          checkpoint();
+        }
+      }
+    }
+  }
+
+  /**
+   * Check whether data is stored in the catalog.
+   *
+   * @param data the value to check for in the collection
+   * @return true if the collection contains data one or more times, and false otherwise
+   */
+  @Override
+  public boolean contains(Comparable<Song> data) {
+    return songs.contains(data);
+  }
+
+  /**
+   * @return the number of songs in the catalog, including duplicates
+   */
+  @Override
+  public int size() {
+    return songs.size();
+  }
+
+  /**
+   * @return true if the catalog contains no songs, false otherwise
+   */
+  @Override
+  public boolean isEmpty() {
+    return songs.isEmpty();
+  }
+
+  /**
+   * Sets the minimum of the iterators of the wrapped collection.
+   *
+   * @param min the minimum for iterators, or null for no minimum
+   */
+  @Override
+  public void setIteratorMin(Comparable<Song> min) {
+    songs.setIteratorMin(min);
+  }
+
+  /**
+   * Sets the maximum of the iterators of the wrapped collection.
+   *
+   * @param max the maximum for iterators, or null for no maximum
+   */
+  @Override
+  public void setIteratorMax(Comparable<Song> max) {
+    songs.setIteratorMax(max);
+  }
+
+  /**
+   * @return the minimum of the iterators of the wrapped collection, or null for no minimum
+   */
+  @Override
+  public Comparable<Song> getIteratorMin() {
+    return songs.getIteratorMin();
+  }
+
+  /**
+   * @return the maximum of the iterators of the wrapped collection, or null for no maximum
+   */
+  @Override
+  public Comparable<Song> getIteratorMax() {
+    return songs.getIteratorMax();
+  }
+
+  /**
+   * @return an iterator of the wrapped collection over the songs within the iterator bounds
+   */
+  @Override
+  public Iterator<Song> iterator() {
+    return songs.iterator();
+  }
+
+  /**
+   * Commits all changes and closes the log. The next open replays the changes since the last
+   * checkpoint.
+   *
+   * @throws IOException when the log cannot be committed or closed
+   */
+  @Override
+  public void close() throws IOException {
+    log.close();
+  }
+}
@@ -0,0 +1,61 @@
+package isongly;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * This class checks the red-black invariants of a tree in the background. At a fixed rate it
+ * verifies one randomly chosen root-to-leaf path of the tree, which costs O(log n) per check, so
+ * the balance of a huge catalog can be watched continuously without ever walking the whole tree.
+ * <p>
+ * RedBlackTree is not synchronized, so the sampler should only run while the tree is not being
+ * modified, for example after loading has finished; a check that overlaps an insert can report
+ * a violation that is only temporary, or a failure of the check itself.
+ */
+public class InvariantSampler implements AutoCloseable {
+
+    private final ScheduledExecutorService executor;
+
+    /**
+     * Starts sampling the invariants of tree.
+     *
+     * @param tree     the tree to check
+     * @param period   the time between two checks
+     * @param unit     the unit of period
+     * @param listener receives the violations of every check that found any
+     */
+    public InvariantSampler(RedBlackTree<?> tree, long period, TimeUnit unit,
+                            Consumer<List<String>> listener) {
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rbt-invariant-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Random random = new Random();
+        executor.scheduleAtFixedRate(() -> {
+            List<String> violations;
+            try {
+                violations = tree.verifyRandomPath(random);
+            } catch (RuntimeException e) {
+                // a check that overlaps an insert can follow a half-updated node; reporting that
+                // instead of throwing keeps the executor from cancelling all later checks
+                violations = List.of("check failed: " + e);
+            }
+            if (!violations.isEmpty()) {
+                listener.accept(violations);
+            }
+        }, 0, period, unit);
+    }
+
+    /**
+     * Stops sampling. Checks that are already running are allowed to finish.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,460 @@
+package isongly;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * This class extends RedBlackTree into a tree that supports iterating over the values it stores in
+ * sorted, ascending order.
+ */
+public class IterableRedBlackTree<T extends Comparable<T>>
+        extends RedBlackTree<T> implements IterableSortedCollection<T> {
+    private Comparable<T> maximum = null;
+    private Comparable<T> minimum = null;
+
+    /**
+     * Allows setting the start (minimum) value of the iterator. When this method is called, every
+     * iterator created after it will use the minimum set by this method until this method is called
+     * again to set a new minimum value.
+     *
+     * @param min the minimum for iterators created for this tree, or null for no minimum
+     */
+    public void setIteratorMin(Comparable<T> min) {
+        this.minimum = min;
+    }
+
+    /**
+     * Allows setting the stop (maximum) value of the iterator. When this method is called, every
+     * iterator created after it will use the maximum set by this method until this method is called
+     * again to set a new maximum value.
+     *
+     * @param max the maximum for iterators created for this tree, or null for no maximum
+     */
+    public void setIteratorMax(Comparable<T> max) {
+        this.maximum = max;
+    }
+
+    /**
+     * @return the minimum for iterators created for this tree, or null for no minimum
+     */
+    public Comparable<T> getIteratorMin() {
+        return this.minimum;
+    }
+
+    /**
+     * @return the maximum for iterators created for this tree, or null for no maximum
+     */
+    public Comparable<T> getIteratorMax() {
+        return this.maximum;
+    }
+
+    /**
+     * Returns an iterator over the values stored in this tree. The iterator uses the start
+     * (minimum) value set by a previous call to setIteratorMin, and the stop (maximum) value set by
+     * a previous call to setIteratorMax. If setIteratorMin has not been called before, or if it was
+     * called with a null argument, the iterator uses no minimum value and starts with the lowest
+     * value that exists in the tree. If setIteratorMax has not been called before, or if it was
+     * called with a null argument, the iterator uses no maximum value and finishes with the highest
+     * value that exists in the tree.
+     */
+    public Iterator<T> iterator() {
+        return iterator(minimum, maximum);
+    }
+
+    /**
+     * Returns an iterator over the values stored in this tree from min to max, ignoring the values
+     * set by setIteratorMin and setIteratorMax and leaving them unchanged, so that threads that
+     * only hold a read lock of the tree can iterate over different ranges at once.
+     *
+     * @param min the minimum value that the iterator returns, or null for no minimum
+     * @param max the maximum value that the iterator returns, or null for no maximum
+     * @return the iterator
+     */
+    public Iterator<T> iterator(Comparable<T> min, Comparable<T> max) {
+        return new RBTIterator<>(this.root, min, max);
+    }
+
+    /**
+     * Returns an iterator over the values stored in this tree, which uses the same start
+     * (minimum) and stop (maximum) values as the iterator method. Instead of keeping a stack of
+     * ancestors, this iterator follows the parent references of the nodes to find the next value,
+     * so creating and advancing it allocates nothing beyond the iterator itself.
+     */
+    public Iterator<T> successorIterator() {
+        return new RBTSuccessorIterator<>(this.root, minimum, maximum);
+    }
+
+    /**
+     * Returns a spliterator over the values stored in this tree, which uses the same start
+     * (minimum) and stop (maximum) values as the iterator method. The spliterator splits by
+     * subtree, so it can be used to build parallel streams such as
+     * StreamSupport.stream(tree.spliterator(), true).
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        return new RBTSpliterator<>(this.root, minimum, maximum);
+    }
+
+    /**
+     * Nested class for Iterator objects created for this tree and returned by the iterator method.
+     * This iterator follows an in-order traversal of the tree and returns the values in sorted,
+     * ascending order.
+     */
+    protected static class RBTIterator<R> implements Iterator<R> {
+
+        // stores the start point (minimum) for the iterator
+        Comparable<R> min = null;
+        // stores the stop point (maximum) for the iterator
+        Comparable<R> max = null;
+        // stores the stack that keeps track of the inorder traversal, stack[top - 1] is its top
+        BinaryTreeNode<R>[] stack = null;
+        int top = 0;
+
+        /**
+         * Constructor for a new iterator if the tree with root as its root node, and min as the
+         * start (minimum) value (or null if no start value) and max as the stop (maximum) value (or
+         * null if no stop value) of the new iterator.
+         *
+         * @param root root node of the tree to traverse
+         * @param min  the minimum value that the iterator will return
+         * @param max  the maximum value that the iterator will return
+         */
+        public RBTIterator(BinaryTreeNode<R> root, Comparable<R> min, Comparable<R> max) {
+            this.min = min;
+            this.max = max;
+            @SuppressWarnings("unchecked")
+            BinaryTreeNode<R>[] stack =
+                    (BinaryTreeNode<R>[]) new BinaryTreeNode<?>[stackCapacity(root)];
+            this.stack = stack;
+            buildStackHelper(root);
+        }
+
+        /**
+         * Returns the largest number of nodes the stack can hold while traversing the tree rooted
+         * at root. The stack only ever holds nodes of one root-to-leaf path, and a red-black tree
+         * with n nodes is at most 2 * log2(n + 1) levels high.
+         *
+         * @param root root node of the tree to traverse
+         * @return the capacity for the stack
+         */
+        private static int stackCapacity(BinaryTreeNode<?> root) {
+            if (root instanceof RBTNode) {
+                int size = ((RBTNode<?>) root).subtreeSize();
+                return 2 * (32 - Integer.numberOfLeadingZeros(size + 1));
+            }
+            return 16; // not a red-black tree: the stack grows when needed
+        }
+
+        /**
+         * Helper method for initializing and updating the stack. This method both - finds the next
+         * data value stored in the tree (or subtree) that is between start(minimum) and
+         * stop(maximum) point (including start and stop points themselves), and - builds up the
+         * stack of ancestor nodes that contain values between start(minimum) and stop(maximum)
+         * values (including start and stop values themselves) so that those nodes can be visited in
+         * the future.
+         *
+         * @param node the root node of the subtree to process
+         */
+        private void buildStackHelper(BinaryTreeNode<R> node) {
+            while (node != null) {
+                // If a min is set and the current node's value is less than min, skip its left
+                // subtree, because all nodes on the left subtree can only be smaller
+                if (min != null && min.compareTo(node.getData()) > 0) {
+                    node = node.childRight();
+                } else {
+                    // push this node to the stack and continue with its left subtree
+                    if (top == stack.length) {
+                        stack = Arrays.copyOf(stack, 2 * stack.length);
+                    }
+                    stack[top++] = node;
+                    node = node.childLeft();
+                }
+            }
+        }
+
+        /**
+         * Returns true if the iterator has another value to return, and false otherwise.
+         */
+        public boolean hasNext() {
+            if (top == 0) {
+                return false;
+            }
+            // If there is a max being set, check if the next node's value exceeds it.
+            if (max != null) {
+                BinaryTreeNode<R> nextNode = stack[top - 1];
+                if (max.compareTo(nextNode.getData()) < 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Returns the next value of the iterator.
+         *
+         * @throws NoSuchElementException if the iterator has no more values to return
+         */
+        public R next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            BinaryTreeNode<R> current = stack[--top];
+            stack[top] = null;
+            // deal with the right subtree of current node
+            buildStackHelper(current.childRight());
+            return current.getData();
+        }
+    }
+
+    /**
+     * Nested class for Iterator objects created for this tree and returned by the
+     * successorIterator method. This iterator needs no stack: it moves from each node to its
+     * in-order successor by following the parent references of the nodes.
+     */
+    protected static class RBTSuccessorIterator<R> implements Iterator<R> {
+
+        // stores the stop point (maximum) for the iterator
+        Comparable<R> max = null;
+        // the node whose value is returned next, or null when there is none
+        BinaryTreeNode<R> next = null;
+
+        /**
+         * Constructor for a new iterator of the tree with root as its root node, and min as the
+         * start (minimum) value (or null if no start value) and max as the stop (maximum) value (or
+         * null if no stop value) of the new iterator.
+         *
+         * @param root root node of the tree to traverse
+         * @param min  the minimum value that the iterator will return
+         * @param max  the maximum value that the iterator will return
+         */
+        public RBTSuccessorIterator(BinaryTreeNode<R> root, Comparable<R> min, Comparable<R> max) {
+            this.max = max;
+            // find the leftmost node whose value is not below min
+            BinaryTreeNode<R> node = root;
+            while (node != null) {
+                if (min != null && min.compareTo(node.getData()) > 0) {
+                    node = node.childRight();
+                } else {
+                    next = node;
+                    node = node.childLeft();
+                }
+            }
+        }
+
+        /**
+         * Returns true if the iterator has another value to return, and false otherwise.
+         */
+        public boolean hasNext() {
+            return next != null
+                    && (max == null || max.compareTo(next.getData()) >= 0);
+        }
+
+        /**
+         * Returns the next value of the iterator.
+         *
+         * @throws NoSuchElementException if the iterator has no more values to return
+         */
+        public R next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            BinaryTreeNode<R> current = next;
+            if (current.childRight() != null) {
+                // the successor is the leftmost node of the right subtree
+                next = current.childRight();
+                while (next.childLeft() != null) {
+                    next = next.childLeft();
+                }
+            } else {
+                // the successor is the first ancestor that has current in its left subtree
+                next = current;
+                while (next.isRightChild()) {
+                    next = next.parent();
+                }
+                next = next.parent();
+            }
+            return current.getData();
+        }
+    }
+
+    /**
+     * Nested class for Spliterator objects created for this tree and returned by the spliterator
+     * method. Each spliterator covers one pending node followed by a whole subtree, in sorted,
+     * ascending order. Splitting hands the pending node and the left subtree of the subtree root
+     * to a new spliterator, and keeps the subtree root and its right subtree, so the sizes of
+     * both halves are read from the subtree sizes of the nodes in constant time.
+     */
+    protected static class RBTSpliterator<R> implements Spliterator<R> {
+
+        // stores the start point (minimum) for the spliterator
+        Comparable<R> min = null;
+        // stores the stop point (maximum) for the spliterator
+        Comparable<R> max = null;
+        // the node returned before any node of subtree, or null
+        BinaryTreeNode<R> pending = null;
+        // the subtree that is returned after pending
+        BinaryTreeNode<R> subtree = null;
+        // stores the stack of the inorder traversal, null until the traversal has started
+        ArrayDeque<BinaryTreeNode<R>> stack = null;
+        // number of values left to return, exact unless a min or max is set
+        long estimate;
+
+        /**
+         * Constructor for a new spliterator over the tree with root as its root node, and min as
+         * the start (minimum) value (or null if no start value) and max as the stop (maximum)
+         * value (or null if no stop value).
+         *
+         * @param root root node of the tree to traverse
+         * @param min  the minimum value that the spliterator will return
+         * @param max  the maximum value that the spliterator will return
+         */
+        public RBTSpliterator(BinaryTreeNode<R> root, Comparable<R> min, Comparable<R> max) {
+            this(null, root, min, max);
+        }
+
+        /**
+         * Constructor for a new spliterator that first returns pending, and then the values of
+         * subtree.
+         */
+        private RBTSpliterator(BinaryTreeNode<R> pending, BinaryTreeNode<R> subtree,
+                               Comparable<R> min, Comparable<R> max) {
+            this.pending = pending;
+            this.subtree = subtree;
+            this.min = min;
+            this.max = max;
+            this.estimate = (pending == null ? 0 : 1) + sizeOf(subtree);
+        }
+
+        /**
+         * Returns the number of nodes in the subtree rooted at node.
+         */
+        private static long sizeOf(BinaryTreeNode<?> node) {
+            if (node == null) {
+                return 0;
+            }
+            if (node instanceof RBTNode) {
+                return ((RBTNode<?>) node).subtreeSize();
+            }
+            return 1 + sizeOf(node.childLeft()) + sizeOf(node.childRight());
+        }
+
+        /**
+         * Splits off the pending node and the left subtree of the subtree root into a new
+         * spliterator, which covers the values that come before those that remain in this one.
+         * Subtrees that lie entirely below min or above max are dropped instead of being split.
+         *
+         * @return a spliterator over the lower part of the values, or null when this spliterator
+         * cannot be split any further
+         */
+        public Spliterator<R> trySplit() {
+            if (stack != null) {
+                return null;
+            }
+            while (subtree != null) {
+                if (min != null && min.compareTo(subtree.getData()) > 0) {
+                    // subtree root and its left subtree (and pending) are all below min
+                    pending = null;
+                    subtree = subtree.childRight();
+                } else if (max != null && max.compareTo(subtree.getData()) < 0) {
+                    // subtree root and its right subtree are all above max
+                    subtree = subtree.childLeft();
+                } else if (pending == null && subtree.childLeft() == null) {
+                    // nothing comes before the subtree root, so move on to its right subtree
+                    pending = subtree;
+                    subtree = subtree.childRight();
+                } else {
+                    RBTSpliterator<R> prefix =
+                            new RBTSpliterator<>(pending, subtree.childLeft(), min, max);
+                    pending = subtree;
+                    subtree = subtree.childRight();
+                    estimate = 1 + sizeOf(subtree);
+                    return prefix;
+                }
+            }
+            estimate = pending == null ? 0 : 1;
+            return null;
+        }
+
+        /**
+         * Passes the next value to action, if there is one.
+         *
+         * @param action the action to perform on the next value
+         * @return false if no values remain, true otherwise
+         */
+        public boolean tryAdvance(Consumer<? super R> action) {
+            if (stack == null) {
+                stack = new ArrayDeque<>();
+                pushLeftSpine(subtree);
+                subtree = null;
+            }
+            BinaryTreeNode<R> next;
+            if (pending != null) {
+                next = pending;
+                pending = null;
+                if (min != null && min.compareTo(next.getData()) > 0) {
+                    return tryAdvance(action);
+                }
+            } else if (!stack.isEmpty()) {
+                next = stack.pop();
+                pushLeftSpine(next.childRight());
+            } else {
+                return false;
+            }
+            if (max != null && max.compareTo(next.getData()) < 0) {
+                stack.clear();
+                estimate = 0;
+                return false;
+            }
+            if (estimate > 0) {
+                estimate--;
+            }
+            action.accept(next.getData());
+            return true;
+        }
+
+        /**
+         * Pushes node and its left descendants onto the stack, skipping nodes below min together
+         * with their left subtrees.
+         */
+        private void pushLeftSpine(BinaryTreeNode<R> node) {
+            while (node != null) {
+                if (min != null && min.compareTo(node.getData()) > 0) {
+                    node = node.childRight();
+                } else {
+                    stack.push(node);
+                    node = node.childLeft();
+                }
+            }
+        }
+
+        /**
+         * Returns the number of values left, or an upper bound on it when a min or max is set.
+         */
+        public long estimateSize() {
+            return estimate;
+        }
+
+        /**
+         * Values are always sorted and never null. Sizes are only exact when no min or max is set.
+         */
+        public int characteristics() {
+            int characteristics = ORDERED | SORTED | NONNULL;
+            if (min == null && max == null) {
+                characteristics |= SIZED | SUBSIZED;
+            }
+            return characteristics;
+        }
+
+        /**
+         * Returns null, because values are sorted in their natural order.
+         */
+        public Comparator<? super R> getComparator() {
+            return null;
+        }
+    }
+}
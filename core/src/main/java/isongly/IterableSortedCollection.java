@@ -1,3 +1,5 @@
+package isongly;
+
 /**
  * This interface defines an ADT for data structures that support storing a 
  * collection of comparable values in their natural ordering (similar to the
@@ -8,6 +10,8 @@ public interface IterableSortedCollection<T extends Comparable<T>>
 
     public void setIteratorMin(Comparable<T> min); // null to clear min
     public void setIteratorMax(Comparable<T> max); // null to clear max
+    public Comparable<T> getIteratorMin(); // null when there is no min
+    public Comparable<T> getIteratorMax(); // null when there is no max
     
     
 }
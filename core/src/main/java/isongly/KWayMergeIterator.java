@@ -0,0 +1,102 @@
+package isongly;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * This class merges several iterators, which each return their values in ascending order, into
+ * one iterator over all values in ascending order. A heap holds the next value of every source
+ * that is not used up, so creating the iterator takes O(k log k) steps for k sources, and each
+ * value it returns takes O(log k) steps. Values that are equal are returned from the sources in
+ * the order of the list of sources.
+ * <p>
+ * The values are not copied: each source is advanced only when its previous value is returned,
+ * so a merge of lazy iterators stays lazy.
+ *
+ * @param <T> the type of the merged values
+ */
+public class KWayMergeIterator<T> implements Iterator<T> {
+
+    /**
+     * Nested class for the entries of the heap: the next value of a source, and the index of the
+     * source.
+     */
+    private static class Head<T> {
+        private final T data;
+        private final int source;
+
+        private Head(T data, int source) {
+            this.data = data;
+            this.source = source;
+        }
+    }
+
+    private final List<? extends Iterator<? extends T>> sources;
+    private final PriorityQueue<Head<T>> heap;
+
+    /**
+     * Creates an iterator that merges sources by the natural ordering of their values.
+     *
+     * @param sources the iterators to merge, each in ascending order
+     * @param <T>     the type of the merged values
+     * @return the merging iterator
+     */
+    public static <T extends Comparable<T>> KWayMergeIterator<T> of(
+            List<? extends Iterator<? extends T>> sources) {
+        return new KWayMergeIterator<>(sources, Comparator.naturalOrder());
+    }
+
+    /**
+     * Creates an iterator that merges sources by order.
+     *
+     * @param sources the iterators to merge, each in ascending order by order
+     * @param order   the ordering of the values of every source
+     */
+    public KWayMergeIterator(List<? extends Iterator<? extends T>> sources,
+            Comparator<? super T> order) {
+        this.sources = sources;
+        this.heap = new PriorityQueue<>(Math.max(1, sources.size()), (a, b) -> {
+            int compare = order.compare(a.data, b.data);
+            return compare != 0 ? compare : Integer.compare(a.source, b.source);
+        });
+        for (int i = 0; i < sources.size(); i++) {
+            advance(i);
+        }
+    }
+
+    /**
+     * Helper method that puts the next value of source i into the heap, if it has one.
+     */
+    private void advance(int i) {
+        Iterator<? extends T> source = sources.get(i);
+        if (source.hasNext()) {
+            heap.add(new Head<>(source.next(), i));
+        }
+    }
+
+    /**
+     * Returns true if any source has another value to return, and false otherwise.
+     */
+    @Override
+    public boolean hasNext() {
+        return !heap.isEmpty();
+    }
+
+    /**
+     * Returns the smallest next value of the sources.
+     *
+     * @throws NoSuchElementException if every source is used up
+     */
+    @Override
+    public T next() {
+        Head<T> head = heap.poll();
+        if (head == null) {
+            throw new NoSuchElementException("There are no more values to merge.");
+        }
+        advance(head.source);
+        return head.data;
+    }
+}
@@ -0,0 +1,175 @@
+package isongly;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * This class presents several sorted collections as one read-only sorted collection, without
+ * copying their values. Its iterator passes the minimum and maximum to every collection, so
+ * each of them skips the values outside of the range, and merges their bounded iterators with a
+ * KWayMergeIterator. A range query over k collections therefore costs O(k log k) steps to start,
+ * and O(log k) steps for every value it returns, on top of the searches of the collections.
+ * <p>
+ * Values that are equal are returned from the collections in the order they were passed in.
+ * Values are inserted into the collections themselves, so the view is read-only: insert,
+ * insertAll and clear throw an UnsupportedOperationException, as SortedCollection allows.
+ *
+ * @param <T> the type of data stored in the collections
+ */
+public class MergedCollection<T extends Comparable<T>> implements IterableSortedCollection<T> {
+
+    private final List<IterableSortedCollection<T>> collections;
+    private Comparable<T> min = null;
+    private Comparable<T> max = null;
+
+    /**
+     * Creates a view of collections.
+     *
+     * @param collections the collections to merge, in the order in which equal values are
+     *                    returned
+     */
+    public MergedCollection(List<? extends IterableSortedCollection<T>> collections) {
+        this.collections = new ArrayList<>(collections);
+    }
+
+    /**
+     * Not supported, since a view does not know which collection a value belongs in.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void insert(T data) throws NullPointerException {
+        throw new UnsupportedOperationException("Values are inserted into the merged collections.");
+    }
+
+    /**
+     * Not supported, since a view does not know which collection a value belongs in.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void insertAll(List<T> sortedBatch) throws NullPointerException {
+        throw new UnsupportedOperationException("Values are inserted into the merged collections.");
+    }
+
+    /**
+     * Check whether data is stored in any of the collections.
+     *
+     * @param data the value to check for in the collection
+     * @return true if a collection contains data one or more times, and false otherwise
+     */
+    @Override
+    public boolean contains(Comparable<T> data) {
+        for (IterableSortedCollection<T> collection : collections) {
+            if (collection.contains(data)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Counts the values of all collections, with each duplicate value being counted separately
+     * within the value returned.
+     *
+     * @return the number of values in the collections, including duplicates
+     */
+    @Override
+    public int size() {
+        long size = 0;
+        for (IterableSortedCollection<T> collection : collections) {
+            size += collection.size();
+        }
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return true if every collection is empty, false otherwise
+     */
+    @Override
+    public boolean isEmpty() {
+        for (IterableSortedCollection<T> collection : collections) {
+            if (!collection.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Not supported, since the view does not own the collections.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("The merged collections are cleared one by one.");
+    }
+
+    /**
+     * Allows setting the start (minimum) value of the iterator. When this method is called,
+     * every iterator created after it will use the minimum set by this method until this method
+     * is called again to set a new minimum value.
+     *
+     * @param min the minimum for iterators created for this view, or null for no minimum
+     */
+    @Override
+    public void setIteratorMin(Comparable<T> min) {
+        this.min = min;
+    }
+
+    /**
+     * Allows setting the stop (maximum) value of the iterator. When this method is called,
+     * every iterator created after it will use the maximum set by this method until this method
+     * is called again to set a new maximum value.
+     *
+     * @param max the maximum for iterators created for this view, or null for no maximum
+     */
+    @Override
+    public void setIteratorMax(Comparable<T> max) {
+        this.max = max;
+    }
+
+    /**
+     * @return the minimum for iterators created for this view, or null for no minimum
+     */
+    @Override
+    public Comparable<T> getIteratorMin() {
+        return min;
+    }
+
+    /**
+     * @return the maximum for iterators created for this view, or null for no maximum
+     */
+    @Override
+    public Comparable<T> getIteratorMax() {
+        return max;
+    }
+
+    /**
+     * Returns an iterator over the values of all collections from the minimum set by
+     * setIteratorMin to the maximum set by setIteratorMax, in ascending order. The bounds are set
+     * on every collection to create its iterator, and then the bounds that the collection had
+     * before are restored.
+     *
+     * @return the iterator
+     */
+    @Override
+    public Iterator<T> iterator() {
+        List<Iterator<T>> sources = new ArrayList<>(collections.size());
+        for (IterableSortedCollection<T> collection : collections) {
+            Comparable<T> previousMin = collection.getIteratorMin();
+            Comparable<T> previousMax = collection.getIteratorMax();
+            try {
+                collection.setIteratorMin(min);
+                collection.setIteratorMax(max);
+                sources.add(collection.iterator());
+            } finally {
+                collection.setIteratorMin(previousMin);
+                collection.setIteratorMax(previousMax);
+            }
+        }
+        return KWayMergeIterator.of(sources);
+    }
+}
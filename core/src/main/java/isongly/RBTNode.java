@@ -1,3 +1,5 @@
+package isongly;
+
 /**
  * This class represents a node in a RedBlackTree and inherits from BinaryTreeNode.
  */
@@ -5,6 +7,8 @@ public class RBTNode<T> extends BinaryTreeNode<T> {
 
     // store whether this is a red or black node
     protected boolean isRed = true;
+    // store the number of nodes in the subtree rooted at this node, including this node
+    protected int size = 1;
 
     /**
      * Constructor that creates a new node with the value data.
@@ -48,6 +52,31 @@ public class RBTNode<T> extends BinaryTreeNode<T> {
         return this.isRed;
     }
 
+    /**
+     * Returns the number of nodes in the subtree rooted at this node, including this node.
+     * @return the subtree size
+     */
+    public int subtreeSize() {
+        return this.size;
+    }
+
+    /**
+     * Recomputes the subtree size of this node from the sizes of its children. Must be called
+     * whenever the children of this node change.
+     */
+    public void updateSize() {
+        this.size = 1 + sizeOf(this.childLeft()) + sizeOf(this.childRight());
+    }
+
+    /**
+     * Returns the subtree size of node, or 0 when node is null.
+     * @param node the root of the subtree, or null
+     * @return the number of nodes in the subtree
+     */
+    public static int sizeOf(RBTNode<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
     /**
      * Inverts the color of this node, turning it either from red to black, or from
      * black to red.
@@ -0,0 +1,38 @@
+package isongly;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * RebalanceEvent - CS400 Project 1: iSongly
+ * JFR event that a RedBlackTree emits once per sample of inserts, recording how many rotations
+ * and recolorings ensureRedProperty performed to repair those inserts. The event duration spans
+ * the whole sample. Disabled unless turned on by a JFR configuration such as isongly.jfc.
+ */
+@Name("isongly.Rebalance")
+@Label("Red-Black Rebalance")
+@Category({"iSongly", "Tree"})
+@Description("Rotations and recolorings performed by a sample of red-black tree inserts")
+@Enabled(false)
+@StackTrace(false)
+public class RebalanceEvent extends Event {
+  // number of inserts summarized by every event
+  public static final int SAMPLE_INSERTS = 1024;
+
+  @Label("Inserts")
+  public int inserts;
+
+  @Label("Rotations")
+  public int rotations;
+
+  @Label("Recolorings")
+  public int recolorings;
+
+  @Label("Tree Size")
+  public int treeSize;
+}
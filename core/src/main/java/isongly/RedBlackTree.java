@@ -0,0 +1,370 @@
+package isongly;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * This class implements a Red-Black Tree.
+ *
+ * @param <T> the type of data stored in the RedBlackTree
+ */
+public class RedBlackTree<T extends Comparable<T>> extends BSTRotation<T> {
+
+    // JFR event of the current sample of inserts, and the repairs counted for it so far
+    private RebalanceEvent rebalanceSample = null;
+    private int sampleInserts = 0;
+    private int sampleRotations = 0;
+    private int sampleRecolorings = 0;
+
+    // steps per node of a rebuild by insertAll, compared to the steps of single inserts
+    private static final int REBUILD_COST = 4;
+
+    /**
+     * A no-args constructor.
+     */
+    public RedBlackTree() {
+        super();
+    }
+
+    /**
+     * Checks if a new red node in the RedBlackTree causes a red property violation by having a red
+     * parent. If this is not the case, the method terminates without making any changes to the
+     * tree. If a red property violation is detected, then the method repairs this violation and any
+     * additional red property violations that are generated as a result of the applied repair
+     * operation.
+     *
+     * @param newNode a newly inserted red node, or a node turned red by previous repair
+     */
+    protected void ensureRedProperty(RBTNode<T> newNode) {
+        // if newNode is the root or its parent is black, no violation.
+        if (newNode == root || !newNode.parent().isRed) {
+            return;
+        }
+        RBTNode<T> parent = newNode.parent();
+        RBTNode<T> grandparent = parent.parent();
+        if (grandparent == null) return; // Safety check
+
+        RBTNode<T> uncle = (parent == grandparent.childLeft()) ? grandparent.childRight() : grandparent.childLeft();
+
+        // When uncle is red, execute recoloring
+        if (uncle != null && uncle.isRed) {
+            parent.isRed = false;
+            uncle.isRed = false;
+            grandparent.isRed = true;
+            sampleRecolorings++;
+            // Recursive call, check if it causes any violations
+            ensureRedProperty(grandparent);
+        } else {
+            // If the uncle is black or null, execute rotation
+            if (parent == grandparent.childLeft()) {
+                if (newNode == parent.childRight()) {
+                    // first, perform a left rotation on parent
+                    rotate(parent.childRight(), parent);
+                    parent = newNode; // newNode is parent now
+                }
+                // Fix colors and rotate the grandparent right
+                parent.isRed = false;
+                grandparent.isRed = true;
+                rotate(grandparent.childLeft(), grandparent);
+            } else {
+                // When newNode is right child of parent
+                if (newNode == parent.childLeft()) {
+                    // First, perform a right rotation on parent
+                    rotate(parent.childLeft(), parent);
+                    parent = newNode; // newNode becomes parent
+                }
+                // fix color and rotate the grandparent left
+                parent.isRed = false;
+                grandparent.isRed = true;
+                rotate(grandparent.childRight(), grandparent);
+            }
+        }
+    }
+
+    /**
+     * Insert a new value into the RedBlackTree. New nodes are always inserted as red nodes. After
+     * inserting, the tree is repaired by ensureRedProperty method.
+     *
+     * @param data the new value being inserted
+     * @throws NullPointerException if data argument is null, we do not allow null values to be
+     *                              stored within a RedBlackTree
+     */
+    @Override
+    public void insert(T data) throws NullPointerException {
+        if (data == null) {
+            throw new NullPointerException("Null can not be inserted into the tree.");
+        }
+        insertNode(new RBTNode<>(data), (RBTNode<T>) root);
+    }
+
+    /**
+     * Helper method that inserts newNode below start, which must be the root or a node whose
+     * subtree the root-to-leaf search for the value of newNode passes through, and then repairs
+     * the tree and updates the subtree sizes of all ancestors of newNode.
+     *
+     * @param newNode the red node to insert
+     * @param start   the node to start searching from, or null when the tree is empty
+     */
+    private void insertNode(RBTNode<T> newNode, RBTNode<T> start) {
+        if (rebalanceSample == null) {
+            rebalanceSample = new RebalanceEvent();
+            rebalanceSample.begin();
+        }
+        // if there is no root, add it to root directly
+        if (root == null) {
+            root = newNode;
+        } else {
+            insertHelper(newNode, start);
+            // every ancestor of newNode now has one more node in its subtree
+            for (RBTNode<T> node = newNode.parent(); node != null; node = node.parent()) {
+                node.size++;
+            }
+        }
+        ensureRedProperty(newNode);
+        // Always ensure the root is black
+        ((RBTNode<T>) root).isRed = false;
+        if (++sampleInserts == RebalanceEvent.SAMPLE_INSERTS) {
+            commitRebalanceSample();
+        }
+    }
+
+    /**
+     * Inserts every value of a batch that is sorted in ascending order. A cost model picks one of
+     * two strategies. When the batch is small compared to the tree, each value is inserted on its
+     * own, but the search starts at the node inserted before it instead of the root: the search
+     * climbs from that finger only until it reaches a subtree that must contain the new value, so
+     * values that land close to each other take O(log d) comparisons for a distance d instead of
+     * O(log n). When the batch is large compared to the tree, the values of the tree and of the
+     * batch are merged in O(n + m) time, and the tree is rebuilt from the merged sequence as a
+     * perfectly balanced tree whose deepest level is red, reusing the existing nodes.
+     * <p>
+     * Both strategies store duplicates in the same order as single inserts of the batch values do:
+     * a new value comes before the equal values that were already in the tree, and before the
+     * equal values that come earlier in the batch.
+     *
+     * @param sortedBatch the new values, in ascending order
+     * @throws NullPointerException     if sortedBatch or any of its values is null
+     * @throws IllegalArgumentException if sortedBatch is not in ascending order
+     */
+    @Override
+    public void insertAll(List<T> sortedBatch)
+            throws NullPointerException, IllegalArgumentException {
+        T previous = null;
+        for (T data : sortedBatch) {
+            if (data == null) {
+                throw new NullPointerException("Null can not be inserted into the tree.");
+            }
+            if (previous != null && previous.compareTo(data) > 0) {
+                throw new IllegalArgumentException("The batch is not sorted in ascending order.");
+            }
+            previous = data;
+        }
+        int n = size();
+        int m = sortedBatch.size();
+        if (m == 0) {
+            return;
+        }
+        // each single insert costs about log2(n + m) steps for the search, the size updates and
+        // the repairs, while a rebuild costs about REBUILD_COST steps for each node of the tree
+        double insertCost = (double) m * (32 - Integer.numberOfLeadingZeros(n + m));
+        if (insertCost >= REBUILD_COST * ((double) n + m)) {
+            rebuild(sortedBatch);
+            return;
+        }
+        RBTNode<T> finger = null;
+        for (T data : sortedBatch) {
+            RBTNode<T> newNode = new RBTNode<>(data);
+            insertNode(newNode, fingerStart(finger, data));
+            finger = newNode;
+        }
+    }
+
+    /**
+     * Helper method that finds where the search for data can start, given that finger holds the
+     * previous value of the batch, which is at most data. Since an equal value is stored in the
+     * left subtree, a value equal to the finger is inserted right before it. A greater value lies
+     * after the finger, so the search climbs from the finger until it is in the left subtree of a
+     * node that is at least data, or at the root.
+     *
+     * @param finger the node of the previous value of the batch, or null for the first value
+     * @param data   the value to insert next
+     * @return the node to start searching from
+     */
+    private RBTNode<T> fingerStart(RBTNode<T> finger, T data) {
+        if (finger == null || data.compareTo(finger.getData()) == 0) {
+            return finger == null ? (RBTNode<T>) root : finger;
+        }
+        RBTNode<T> start = finger;
+        while (start.parent() != null && (start == start.parent().childRight()
+                || data.compareTo(start.parent().getData()) > 0)) {
+            start = start.parent();
+        }
+        return start;
+    }
+
+    /**
+     * Helper method that merges the values of this tree with sortedBatch, and replaces this tree
+     * with a perfectly balanced tree of the merged values. Existing nodes are reused, and the
+     * nodes on the deepest level of the new tree are colored red, which gives every path from the
+     * root to a missing child the same number of black nodes.
+     *
+     * @param sortedBatch the new values, in ascending order
+     */
+    private void rebuild(List<T> sortedBatch) {
+        // single inserts place each value before the equal values inserted earlier, so equal
+        // values of the batch are merged in reverse
+        List<T> batch = new ArrayList<>(sortedBatch);
+        for (int first = 0, last; first < batch.size(); first = last + 1) {
+            last = first;
+            while (last + 1 < batch.size() && batch.get(last + 1).compareTo(batch.get(first)) == 0) {
+                last++;
+            }
+            Collections.reverse(batch.subList(first, last + 1));
+        }
+        @SuppressWarnings("unchecked")
+        RBTNode<T>[] nodes = (RBTNode<T>[]) new RBTNode<?>[size() + batch.size()];
+        int count = 0;
+        int next = 0;
+        // visit the existing nodes in order through parent references, merging in the batch
+        RBTNode<T> node = (RBTNode<T>) root;
+        while (node != null && node.childLeft() != null) {
+            node = node.childLeft();
+        }
+        while (node != null) {
+            while (next < batch.size() && batch.get(next).compareTo(node.getData()) <= 0) {
+                nodes[count++] = new RBTNode<>(batch.get(next++));
+            }
+            nodes[count++] = node;
+            if (node.childRight() != null) {
+                node = node.childRight();
+                while (node.childLeft() != null) {
+                    node = node.childLeft();
+                }
+            } else {
+                while (node.parent() != null && node == node.parent().childRight()) {
+                    node = node.parent();
+                }
+                node = node.parent();
+            }
+        }
+        while (next < batch.size()) {
+            nodes[count++] = new RBTNode<>(batch.get(next++));
+        }
+        int redDepth = 31 - Integer.numberOfLeadingZeros(count);
+        root = buildBalanced(nodes, 0, count - 1, 0, redDepth == 0 ? -1 : redDepth);
+        root.setParent(null);
+        ((RBTNode<T>) root).isRed = false;
+    }
+
+    /**
+     * Helper method that links nodes[low..high] into a balanced subtree, whose root is the middle
+     * node, and sets the sizes and colors of its nodes.
+     *
+     * @param nodes    the nodes in ascending order
+     * @param low      the index of the first node of the subtree
+     * @param high     the index of the last node of the subtree
+     * @param depth    the depth of the root of the subtree
+     * @param redDepth the depth of the nodes that are colored red
+     * @return the root of the subtree, or null when it is empty
+     */
+    private RBTNode<T> buildBalanced(RBTNode<T>[] nodes, int low, int high, int depth,
+                                     int redDepth) {
+        if (low > high) {
+            return null;
+        }
+        int middle = (low + high) >>> 1;
+        RBTNode<T> node = nodes[middle];
+        RBTNode<T> left = buildBalanced(nodes, low, middle - 1, depth + 1, redDepth);
+        RBTNode<T> right = buildBalanced(nodes, middle + 1, high, depth + 1, redDepth);
+        node.setChildLeft(left);
+        node.setChildRight(right);
+        if (left != null) {
+            left.setParent(node);
+        }
+        if (right != null) {
+            right.setParent(node);
+        }
+        node.size = high - low + 1;
+        node.isRed = depth == redDepth;
+        return node;
+    }
+
+    /**
+     * Commits the JFR event that summarizes the repairs of the current sample of inserts, and
+     * starts counting a new sample with the next insert.
+     */
+    private void commitRebalanceSample() {
+        rebalanceSample.inserts = sampleInserts;
+        rebalanceSample.rotations = sampleRotations;
+        rebalanceSample.recolorings = sampleRecolorings;
+        rebalanceSample.treeSize = size();
+        rebalanceSample.commit();
+        rebalanceSample = null;
+        sampleInserts = 0;
+        sampleRotations = 0;
+        sampleRecolorings = 0;
+    }
+
+    /**
+     * Performs the rotation like BSTRotation does, and then repairs the subtree sizes of the two
+     * rotated nodes. The former parent is now the child, so its size is recomputed first.
+     *
+     * @param child  is the node being rotated from child to parent position
+     * @param parent is the node being rotated from parent to child position
+     * @throws NullPointerException     when either passed argument is null
+     * @throws IllegalArgumentException when the provided child and parent nodes are not initially
+     *                                  (pre-rotation) related that way
+     */
+    @Override
+    protected void rotate(BinaryTreeNode<T> child, BinaryTreeNode<T> parent)
+            throws NullPointerException, IllegalArgumentException {
+        super.rotate(child, parent);
+        ((RBTNode<T>) parent).updateSize();
+        ((RBTNode<T>) child).updateSize();
+        sampleRotations++;
+    }
+
+    /**
+     * Measures the shape and balance of this tree: height, black-height, node count, average and
+     * maximum depth, red and black node counts, and the histogram of node depths. Runs in O(n)
+     * time without building any strings or copies of the tree.
+     *
+     * @return the diagnostics of this tree
+     */
+    public TreeDiagnostics diagnostics() {
+        return TreeDiagnostics.analyze((RBTNode<T>) root);
+    }
+
+    /**
+     * Verifies all red-black tree invariants of this tree in O(n) time.
+     *
+     * @return descriptions of the violations found, empty when this tree is valid
+     */
+    public List<String> verifyInvariants() {
+        return TreeDiagnostics.verify((RBTNode<T>) root);
+    }
+
+    /**
+     * Verifies the red-black tree invariants along one random path from the root of this tree
+     * down to a missing child, in O(log n) time. Used by InvariantSampler for background checks.
+     *
+     * @param random the source of the path choices
+     * @return descriptions of the violations found, empty when there are none on the path
+     */
+    public List<String> verifyRandomPath(Random random) {
+        return TreeDiagnostics.verifyRandomPath((RBTNode<T>) root, random);
+    }
+
+    /**
+     * Returns the number of values in the tree in constant time, by reading the subtree size that
+     * is stored in the root node.
+     *
+     * @return the number of values in the tree, including duplicates
+     */
+    @Override
+    public int size() {
+        return RBTNode.sizeOf((RBTNode<T>) root);
+    }
+}
@@ -0,0 +1,508 @@
+package isongly;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * This class implements a sorted collection of songs that is partitioned by year into several
+ * IterableRedBlackTree shards. Shard i holds the songs whose year lies between boundary i - 1
+ * (inclusive) and boundary i (exclusive), so the shards are ordered and an iteration over the
+ * whole catalog visits them one after the other. The songs must be ordered by year, for example
+ * with Comparator.comparingInt(Song::getYear).
+ * <p>
+ * Every shard has its own read-write lock. An insert only locks the shard of its year, so
+ * writers of different eras do not contend, and readers of one shard do not block writers of
+ * another. An iterator bounded by year only visits the shards that overlap its range, and reads
+ * the songs of each shard lazily, a chunk at a time under the read lock of that shard. It
+ * therefore never fails because of concurrent inserts, returns every song that was stored when it
+ * reached the shard exactly once, and may or may not return songs inserted after that.
+ * <p>
+ * The boundaries can be fixed, for example one shard per decade with byWidth, or adapted to the
+ * data with byQuantiles, so that every shard holds about as many songs.
+ */
+public class ShardedCatalog implements IterableSortedCollection<Song> {
+
+    // number of songs that an iterator reads from a shard under one acquisition of its read lock
+    private static final int CHUNK_SONGS = 256;
+
+    /**
+     * Nested class for a shard: a tree and the lock that guards it.
+     */
+    private static class Shard {
+        private final IterableRedBlackTree<Song> tree = new IterableRedBlackTree<>();
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        // number of changes to the tree, guarded by lock, so that readers notice rebalancing
+        private long version = 0;
+    }
+
+    /**
+     * Nested class that reads the songs of a shard from min to max in chunks of CHUNK_SONGS, each
+     * under one acquisition of the read lock of the shard, so that an iterator neither changes
+     * the bounds of the shard tree nor copies the whole shard. When the shard was changed between
+     * two chunks, its tree may have been rotated under the stack of the tree iterator, so the
+     * reader finds the last song it returned again, by identity, and continues after it. Rotations
+     * keep the order of the songs that were already stored, so no song is read twice or skipped,
+     * while songs that were inserted in the meantime may or may not be read.
+     */
+    private static class ShardReader {
+        private final Shard shard;
+        private final Comparable<Song> min;
+        private final Comparable<Song> max;
+        private final List<Song> chunk = new ArrayList<>(CHUNK_SONGS);
+        private Iterator<Song> songs = null;
+        private long version;
+        private Song last = null;
+        private boolean done = false;
+
+        private ShardReader(Shard shard, Comparable<Song> min, Comparable<Song> max) {
+            this.shard = shard;
+            this.min = min;
+            this.max = max;
+        }
+
+        /**
+         * Reads the next chunk of songs, which replaces the previous chunk.
+         *
+         * @return the next songs in ascending order, empty once every song has been read
+         */
+        private List<Song> nextChunk() {
+            chunk.clear();
+            if (done) {
+                return chunk;
+            }
+            shard.lock.readLock().lock();
+            try {
+                if (songs == null) {
+                    songs = shard.tree.iterator(min, max);
+                } else if (version != shard.version) {
+                    songs = shard.tree.iterator(last, max);
+                    while (songs.hasNext() && songs.next() != last) {
+                        // skip the songs that equal the last song and are stored before it
+                    }
+                }
+                version = shard.version;
+                while (chunk.size() < CHUNK_SONGS && songs.hasNext()) {
+                    last = songs.next();
+                    chunk.add(last);
+                }
+                done = !songs.hasNext();
+            } finally {
+                shard.lock.readLock().unlock();
+            }
+            return chunk;
+        }
+    }
+
+    private final int[] boundaries;
+    private final Shard[] shards;
+    private volatile Comparable<Song> min = null;
+    private volatile Comparable<Song> max = null;
+
+    /**
+     * Creates an empty catalog with one shard more than there are boundaries: the first shard
+     * holds the years before boundaries[0], and the last shard the years from the last boundary
+     * on.
+     *
+     * @param boundaries the first year of every shard but the first, in strictly ascending order
+     * @throws IllegalArgumentException if boundaries is not in strictly ascending order
+     */
+    public ShardedCatalog(int[] boundaries) {
+        for (int i = 1; i < boundaries.length; i++) {
+            if (boundaries[i - 1] >= boundaries[i]) {
+                throw new IllegalArgumentException("The shard boundaries are not ascending.");
+            }
+        }
+        this.boundaries = boundaries.clone();
+        this.shards = new Shard[boundaries.length + 1];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard();
+        }
+    }
+
+    /**
+     * Creates an empty catalog with a shard for every width years from firstYear up to lastYear,
+     * and one shard each for the years before and after. A width of 10 with a firstYear that
+     * ends in 0 gives one shard per decade.
+     *
+     * @param firstYear the first year of the second shard
+     * @param lastYear  the last year that is covered by a bucket of width years
+     * @param width     the number of years per shard
+     * @return the new catalog
+     * @throws IllegalArgumentException if width is not positive or lastYear is before firstYear
+     */
+    public static ShardedCatalog byWidth(int firstYear, int lastYear, int width) {
+        if (width <= 0 || lastYear < firstYear) {
+            throw new IllegalArgumentException("The year range or width of the shards is invalid.");
+        }
+        int[] boundaries = new int[(lastYear - firstYear) / width + 2];
+        for (int i = 0; i < boundaries.length; i++) {
+            boundaries[i] = firstYear + i * width;
+        }
+        return new ShardedCatalog(boundaries);
+    }
+
+    /**
+     * Creates an empty catalog whose boundaries are the quantiles of a sample of years, so that
+     * songs with years like the sample spread about evenly over the shards. Years that repeat
+     * often can not be split over shards, so fewer shards than requested may be created.
+     *
+     * @param years  a sample of the years of the songs that will be inserted
+     * @param shards the number of shards to create
+     * @return the new catalog
+     * @throws IllegalArgumentException if shards is not positive
+     */
+    public static ShardedCatalog byQuantiles(int[] years, int shards) {
+        if (shards <= 0) {
+            throw new IllegalArgumentException("The number of shards must be positive.");
+        }
+        int[] sorted = years.clone();
+        Arrays.sort(sorted);
+        int[] boundaries = new int[shards - 1];
+        int count = 0;
+        for (int i = 1; i < shards && sorted.length > 0; i++) {
+            int year = sorted[(int) ((long) i * sorted.length / shards)];
+            if (count == 0 || boundaries[count - 1] < year) {
+                boundaries[count++] = year;
+            }
+        }
+        return new ShardedCatalog(Arrays.copyOf(boundaries, count));
+    }
+
+    /**
+     * @return the number of shards of this catalog
+     */
+    public int shardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Helper method that returns the index of the shard that holds the songs of year.
+     */
+    private int shardOf(int year) {
+        int index = Arrays.binarySearch(boundaries, year);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    /**
+     * Helper method that returns the index of the first shard that can hold songs from bound on,
+     * which is the first shard unless bound is a song.
+     */
+    private int firstShard(Comparable<Song> bound) {
+        return bound instanceof Song ? shardOf(((Song) bound).getYear()) : 0;
+    }
+
+    /**
+     * Helper method that returns the index of the last shard that can hold songs up to bound,
+     * which is the last shard unless bound is a song.
+     */
+    private int lastShard(Comparable<Song> bound) {
+        return bound instanceof Song ? shardOf(((Song) bound).getYear()) : shards.length - 1;
+    }
+
+    /**
+     * Inserts a song into the shard of its year, while holding the write lock of that shard only.
+     *
+     * @param data the new song being inserted
+     * @throws NullPointerException if data argument is null
+     */
+    @Override
+    public void insert(Song data) throws NullPointerException {
+        if (data == null) {
+            throw new NullPointerException("Null can not be inserted into the catalog.");
+        }
+        Shard shard = shards[shardOf(data.getYear())];
+        shard.lock.writeLock().lock();
+        try {
+            shard.tree.insert(data);
+            shard.version++;
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Inserts a sorted batch of songs. The batch is split into the runs of songs of each shard,
+     * and each run is inserted with insertAll of its shard under the write lock of that shard.
+     *
+     * @param sortedBatch the new songs, in ascending order
+     * @throws NullPointerException     if sortedBatch or any of its songs is null
+     * @throws IllegalArgumentException if sortedBatch is not in ascending order
+     */
+    @Override
+    public void insertAll(List<Song> sortedBatch)
+            throws NullPointerException, IllegalArgumentException {
+        // check the whole batch first, so that no shard is changed when it is invalid
+        Song previous = null;
+        for (Song song : sortedBatch) {
+            if (song == null) {
+                throw new NullPointerException("Null can not be inserted into the catalog.");
+            }
+            if (previous != null && previous.compareTo(song) > 0) {
+                throw new IllegalArgumentException("The batch is not sorted in ascending order.");
+            }
+            previous = song;
+        }
+        int first = 0;
+        while (first < sortedBatch.size()) {
+            int index = shardOf(sortedBatch.get(first).getYear());
+            int last = first + 1;
+            while (last < sortedBatch.size()
+                    && shardOf(sortedBatch.get(last).getYear()) == index) {
+                last++;
+            }
+            Shard shard = shards[index];
+            shard.lock.writeLock().lock();
+            try {
+                shard.tree.insertAll(sortedBatch.subList(first, last));
+                shard.version++;
+            } finally {
+                shard.lock.writeLock().unlock();
+            }
+            first = last;
+        }
+    }
+
+    /**
+     * Check whether data is stored in the catalog. Only the shard of its year is searched when
+     * data is a song.
+     *
+     * @param data the value to check for in the collection
+     * @return true if the collection contains data one or more times, and false otherwise
+     */
+    @Override
+    public boolean contains(Comparable<Song> data) {
+        if (data == null) {
+            return false;
+        }
+        for (int i = firstShard(data); i <= lastShard(data); i++) {
+            Shard shard = shards[i];
+            shard.lock.readLock().lock();
+            try {
+                if (shard.tree.contains(data)) {
+                    return true;
+                }
+            } finally {
+                shard.lock.readLock().unlock();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Counts the number of songs in all shards, with each duplicate value being counted
+     * separately within the value returned.
+     *
+     * @return the number of songs in the catalog, including duplicates
+     */
+    @Override
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            shard.lock.readLock().lock();
+            try {
+                size += shard.tree.size();
+            } finally {
+                shard.lock.readLock().unlock();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return true if no shard contains a song, false otherwise
+     */
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Removes all songs from every shard. The shards are cleared one at a time, so a concurrent
+     * reader may see some shards cleared and others not.
+     */
+    @Override
+    public void clear() {
+        for (Shard shard : shards) {
+            shard.lock.writeLock().lock();
+            try {
+                shard.tree.clear();
+                shard.version++;
+            } finally {
+                shard.lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Allows setting the start (minimum) value of the iterator. When this method is called,
+     * every iterator created after it will use the minimum set by this method until this method
+     * is called again to set a new minimum value. Iterators skip the shards before a minimum that
+     * is a song.
+     *
+     * @param min the minimum for iterators created for this catalog, or null for no minimum
+     */
+    @Override
+    public void setIteratorMin(Comparable<Song> min) {
+        this.min = min;
+    }
+
+    /**
+     * Allows setting the stop (maximum) value of the iterator. When this method is called,
+     * every iterator created after it will use the maximum set by this method until this method
+     * is called again to set a new maximum value. Iterators skip the shards after a maximum that
+     * is a song.
+     *
+     * @param max the maximum for iterators created for this catalog, or null for no maximum
+     */
+    @Override
+    public void setIteratorMax(Comparable<Song> max) {
+        this.max = max;
+    }
+
+    /**
+     * @return the minimum for iterators created for this catalog, or null for no minimum
+     */
+    @Override
+    public Comparable<Song> getIteratorMin() {
+        return min;
+    }
+
+    /**
+     * @return the maximum for iterators created for this catalog, or null for no maximum
+     */
+    @Override
+    public Comparable<Song> getIteratorMax() {
+        return max;
+    }
+
+    /**
+     * Helper method that passes the songs of a shard from min to max to action while holding the
+     * read lock of the shard, so that other readers can scan the shard at the same time.
+     */
+    private static void scanShard(Shard shard, Comparable<Song> min, Comparable<Song> max,
+            Consumer<Song> action) {
+        shard.lock.readLock().lock();
+        try {
+            shard.tree.iterator(min, max).forEachRemaining(action);
+        } finally {
+            shard.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns an iterator over the songs of the shards that overlap the range from the minimum
+     * set by setIteratorMin to the maximum set by setIteratorMax, in ascending order. The songs
+     * are read lazily, a chunk at a time under the read lock of their shard, so the iterator does
+     * not block inserts for longer than a chunk. Every song that was stored when the iterator was
+     * created is returned once, and songs that are inserted while iterating may or may not be.
+     *
+     * @return the iterator
+     */
+    @Override
+    public Iterator<Song> iterator() {
+        Comparable<Song> min = this.min;
+        Comparable<Song> max = this.max;
+        int last = lastShard(max);
+        return new Iterator<Song>() {
+            private int shard = firstShard(min);
+            private ShardReader reader = null;
+            private Iterator<Song> songs = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!songs.hasNext()) {
+                    if (reader == null || reader.done) {
+                        if (shard > last) {
+                            return false;
+                        }
+                        reader = new ShardReader(shards[shard++], min, max);
+                    }
+                    songs = reader.nextChunk().iterator();
+                }
+                return true;
+            }
+
+            @Override
+            public Song next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException("There are no more songs in this range.");
+                }
+                return songs.next();
+            }
+        };
+    }
+
+    /**
+     * Finds the k best songs by order among the songs from year low to year high that pass
+     * filter. Every shard that overlaps the years is searched in parallel for its own k best
+     * songs, and the results of the shards are merged. Songs that are equal by order are
+     * returned in year order, the same as a stable sort of the songs of the range.
+     *
+     * @param k      the number of songs to return at most
+     * @param order  the order in which the first songs are the best
+     * @param low    the minimum year of the songs, or null for no minimum
+     * @param high   the maximum year of the songs, or null for no maximum
+     * @param filter the condition that the songs must meet
+     * @return the at most k best songs, best first
+     */
+    public List<Song> topK(int k, Comparator<Song> order, Integer low, Integer high,
+            Predicate<Song> filter) {
+        if (k <= 0) {
+            return new ArrayList<>();
+        }
+        Comparator<Song> yearOrder = Comparator.comparingInt(Song::getYear);
+        Song min = low == null ? null : new Song("", "", "", low, 0, 0, 0, 0, 0, yearOrder);
+        Song max = high == null ? null : new Song("", "", "", high, 0, 0, 0, 0, 0, yearOrder);
+        List<Iterator<Song>> partial = IntStream.rangeClosed(firstShard(min), lastShard(max))
+                .parallel()
+                .mapToObj(i -> shardTopK(shards[i], k, order, min, max, filter).iterator())
+                .collect(Collectors.toList());
+        // the partial lists are in year order, and the merge takes ties from earlier lists first
+        Iterator<Song> merged = new KWayMergeIterator<>(partial, order);
+        List<Song> best = new ArrayList<>(k);
+        while (best.size() < k && merged.hasNext()) {
+            best.add(merged.next());
+        }
+        return best;
+    }
+
+    /**
+     * Helper method that finds the k best songs of a shard in a list that is kept sorted by
+     * order. A song is placed after the songs that are equal to it, so ties stay in year order.
+     */
+    private static List<Song> shardTopK(Shard shard, int k, Comparator<Song> order,
+            Comparable<Song> min, Comparable<Song> max, Predicate<Song> filter) {
+        List<Song> best = new ArrayList<>(k + 1);
+        scanShard(shard, min, max, song -> {
+            if (!filter.test(song)
+                    || best.size() == k && order.compare(song, best.get(k - 1)) >= 0) {
+                return;
+            }
+            int low = 0;
+            int high = best.size();
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (order.compare(best.get(middle), song) <= 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            best.add(low, song);
+            if (best.size() > k) {
+                best.remove(k);
+            }
+        });
+        return best;
+    }
+}
@@ -1,3 +1,5 @@
+package isongly;
+
 import java.util.Comparator;
 
 /**
@@ -34,7 +36,7 @@ public class Song implements Comparable<Song> {
                 Comparator<Song> comparator) {
         this.title = title;
         this.artist = artist;
-        this.genres = genres;
+        this.genres = genre;
         this.year = year;
         this.bpm = bpm;
         this.energy = energy;
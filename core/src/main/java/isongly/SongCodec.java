@@ -0,0 +1,83 @@
+package isongly;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Comparator;
+
+/**
+ * This class converts songs to and from a compact binary record: the title, artist and genre as
+ * modified UTF-8 strings (see DataOutput.writeUTF), followed by the year, bpm, energy,
+ * danceability, loudness and liveness as 4-byte ints. The comparator of a song is not stored, so
+ * the reader supplies the ordering of the songs it decodes.
+ */
+public class SongCodec {
+
+    // bytes of the six int fields of a record
+    private static final int INT_BYTES = 6 * Integer.BYTES;
+
+    /**
+     * Writes song as a binary record.
+     *
+     * @param out  the output to write to
+     * @param song the song to write
+     * @throws IOException when writing fails, or a string of the song is longer than 65535 bytes
+     */
+    public static void write(DataOutput out, Song song) throws IOException {
+        out.writeUTF(song.getTitle());
+        out.writeUTF(song.getArtist());
+        out.writeUTF(song.getGenres());
+        out.writeInt(song.getYear());
+        out.writeInt(song.getBPM());
+        out.writeInt(song.getEnergy());
+        out.writeInt(song.getDanceability());
+        out.writeInt(song.getLoudness());
+        out.writeInt(song.getLiveness());
+    }
+
+    /**
+     * Reads a binary record written by write.
+     *
+     * @param in         the input to read from
+     * @param comparator the ordering of the returned song
+     * @return the song
+     * @throws IOException when reading fails
+     */
+    public static Song read(DataInput in, Comparator<Song> comparator) throws IOException {
+        String title = in.readUTF();
+        String artist = in.readUTF();
+        String genre = in.readUTF();
+        return new Song(title, artist, genre, in.readInt(), in.readInt(), in.readInt(),
+                in.readInt(), in.readInt(), in.readInt(), comparator);
+    }
+
+    /**
+     * Computes the number of bytes that write uses for song, without encoding it.
+     *
+     * @param song the song to measure
+     * @return the size of the record in bytes
+     */
+    public static int encodedSize(Song song) {
+        return utfSize(song.getTitle()) + utfSize(song.getArtist()) + utfSize(song.getGenres())
+                + INT_BYTES;
+    }
+
+    /**
+     * Helper method that computes the size of a string written by DataOutput.writeUTF, including
+     * its 2-byte length.
+     */
+    private static int utfSize(String value) {
+        int size = 2;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x0001 && c <= 0x007F) {
+                size += 1;
+            } else if (c <= 0x07FF) {
+                size += 2;
+            } else {
+                size += 3;
+            }
+        }
+        return size;
+    }
+}
@@ -1,6 +1,14 @@
+package isongly;
+
+import java.util.List;
+
 /**
  * This interface defines an ADT for data structures that support storing a 
  * collection of comparable values in their natural ordering.
+ *
+ * Read-only views of other collections, such as a MergedCollection, do not
+ * support insert, insertAll and clear, and throw an
+ * UnsupportedOperationException from them instead.
  */
 public interface SortedCollection<T extends Comparable<T>> {
 
@@ -9,9 +17,23 @@ public interface SortedCollection<T extends Comparable<T>> {
      * @param data the new value being insterted
      * @throws NullPointerException if data argument is null, we do not allow
      * null values to be stored within a SortedCollection
+     * @throws UnsupportedOperationException if the collection is a read-only view
      */
     public void insert(T data) throws NullPointerException;
 
+    /**
+     * Inserts every value of a batch that is sorted in ascending order. Collections that can
+     * exploit the order of the batch override this, by default each value is inserted on its own.
+     * @param sortedBatch the new values, in ascending order
+     * @throws NullPointerException if sortedBatch or any of its values is null
+     * @throws UnsupportedOperationException if the collection is a read-only view
+     */
+    public default void insertAll(List<T> sortedBatch) throws NullPointerException {
+        for (T data : sortedBatch) {
+            insert(data);
+        }
+    }
+
     /**
      * Check whether data is stored in the tree.
      * @param data the value to check for in the collection
@@ -35,6 +57,7 @@ public interface SortedCollection<T extends Comparable<T>> {
 
     /**
      * Removes all values and duplicates from the collection.
+     * @throws UnsupportedOperationException if the collection is a read-only view
      */
     public void clear();
     
@@ -0,0 +1,312 @@
+package isongly;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * This class describes the shape and balance of a red-black tree: node count, height,
+ * black-height, average and maximum depth, the numbers of red and black nodes, and a histogram of
+ * node depths. It also verifies the red-black tree invariants.
+ * <p>
+ * All nodes are visited by following child and parent references instead of a stack or recursion,
+ * so a tree of n nodes is analyzed in O(n) time with constant extra memory, apart from the depth
+ * histogram, which has one entry per level.
+ */
+public class TreeDiagnostics {
+
+    // maximum number of violations that verify reports, to keep reports of broken trees short
+    public static final int MAX_VIOLATIONS = 20;
+
+    private final int nodeCount;
+    private final int height;
+    private final int blackHeight;
+    private final int redCount;
+    private final long depthSum;
+    private final long[] depthHistogram;
+
+    /**
+     * Constructor that stores the measurements of a tree.
+     */
+    private TreeDiagnostics(int nodeCount, int height, int blackHeight, int redCount,
+                            long depthSum, long[] depthHistogram) {
+        this.nodeCount = nodeCount;
+        this.height = height;
+        this.blackHeight = blackHeight;
+        this.redCount = redCount;
+        this.depthSum = depthSum;
+        this.depthHistogram = depthHistogram;
+    }
+
+    /**
+     * @return the number of nodes in the tree
+     */
+    public int getNodeCount() { return nodeCount; }
+
+    /**
+     * @return the number of levels of the tree, 0 for an empty tree
+     */
+    public int getHeight() { return height; }
+
+    /**
+     * @return the number of black nodes on the path from the root to its leftmost leaf
+     */
+    public int getBlackHeight() { return blackHeight; }
+
+    /**
+     * @return the depth of the deepest node, where the root has depth 0, or -1 for an empty tree
+     */
+    public int getMaxDepth() { return height - 1; }
+
+    /**
+     * @return the number of red nodes in the tree
+     */
+    public int getRedCount() { return redCount; }
+
+    /**
+     * @return the number of black nodes in the tree
+     */
+    public int getBlackCount() { return nodeCount - redCount; }
+
+    /**
+     * @return the average depth of all nodes, or 0 for an empty tree
+     */
+    public double getAverageDepth() {
+        return nodeCount == 0 ? 0 : (double) depthSum / nodeCount;
+    }
+
+    /**
+     * @return the number of red nodes per black node, or 0 for an empty tree
+     */
+    public double getRedBlackRatio() {
+        return getBlackCount() == 0 ? 0 : (double) redCount / getBlackCount();
+    }
+
+    /**
+     * @return a copy of the histogram of node depths: the value at index d is the number of
+     * nodes at depth d
+     */
+    public long[] getDepthHistogram() {
+        return depthHistogram.clone();
+    }
+
+    /**
+     * Returns a one-line summary of these diagnostics.
+     */
+    @Override
+    public String toString() {
+        return String.format("nodes=%d height=%d blackHeight=%d avgDepth=%.2f red/black=%.3f "
+                + "depths=%s", nodeCount, height, blackHeight, getAverageDepth(),
+                getRedBlackRatio(), Arrays.toString(depthHistogram));
+    }
+
+    /**
+     * Measures the shape of the tree rooted at root.
+     *
+     * @param root the root of the tree, or null for an empty tree
+     * @return the diagnostics of the tree
+     */
+    public static TreeDiagnostics analyze(RBTNode<?> root) {
+        if (root == null) {
+            return new TreeDiagnostics(0, 0, 0, 0, 0, new long[0]);
+        }
+        // a red-black tree of n nodes has at most 2 * log2(n + 1) levels
+        int levels = 2 * (32 - Integer.numberOfLeadingZeros(root.subtreeSize() + 1));
+        long[] histogram = new long[levels];
+        int nodeCount = 0;
+        int redCount = 0;
+        int maxDepth = 0;
+        long depthSum = 0;
+
+        BinaryTreeNode<?> previous = root.parent();
+        BinaryTreeNode<?> node = root;
+        int depth = 0;
+        while (node != null) {
+            BinaryTreeNode<?> next;
+            if (previous == node.parent()) {
+                // first arrival at node, coming down from its parent
+                nodeCount++;
+                depthSum += depth;
+                maxDepth = Math.max(maxDepth, depth);
+                if (depth >= histogram.length) {
+                    histogram = Arrays.copyOf(histogram, 2 * depth); // tree is out of balance
+                }
+                histogram[depth]++;
+                if (((RBTNode<?>) node).isRed()) {
+                    redCount++;
+                }
+                next = node.childLeft() != null ? node.childLeft()
+                        : node.childRight() != null ? node.childRight() : node.parent();
+            } else if (previous == node.childLeft() && node.childRight() != null) {
+                next = node.childRight();
+            } else {
+                next = node.parent();
+            }
+            depth += next == node.parent() ? -1 : 1;
+            previous = node;
+            node = next == root.parent() && previous == root ? null : next;
+        }
+
+        int blackHeight = 0;
+        for (RBTNode<?> leftmost = root; leftmost != null; leftmost = leftmost.childLeft()) {
+            if (!leftmost.isRed()) {
+                blackHeight++;
+            }
+        }
+        return new TreeDiagnostics(nodeCount, maxDepth + 1, blackHeight, redCount, depthSum,
+                Arrays.copyOf(histogram, maxDepth + 1));
+    }
+
+    /**
+     * Verifies every red-black tree invariant for the tree rooted at root: the root is black, no
+     * red node has a red child, every path from the root to a missing child passes the same number
+     * of black nodes, values are in ascending order, parent references match child references,
+     * and stored subtree sizes are correct. Runs in O(n) time with constant extra memory.
+     *
+     * @param root the root of the tree, or null for an empty tree
+     * @return descriptions of up to MAX_VIOLATIONS violations, empty when the tree is valid
+     */
+    public static <T extends Comparable<T>> List<String> verify(RBTNode<T> root) {
+        List<String> violations = new ArrayList<>();
+        if (root == null) {
+            return violations;
+        }
+        if (root.isRed()) {
+            violations.add("root " + root + " is red");
+        }
+        int expectedBlack = -1;
+        int black = 0;
+        T last = null;
+
+        BinaryTreeNode<T> previous = root.parent();
+        BinaryTreeNode<T> node = root;
+        while (node != null && violations.size() < MAX_VIOLATIONS) {
+            RBTNode<T> current = (RBTNode<T>) node;
+            BinaryTreeNode<T> next;
+            if (previous == node.parent()) {
+                // first arrival at node: check everything that is local to it
+                if (!current.isRed()) {
+                    black++;
+                }
+                checkNode(current, violations);
+                if (node.childLeft() == null || node.childRight() == null) {
+                    // a missing child ends a path, which must pass the same number of black nodes
+                    if (expectedBlack == -1) {
+                        expectedBlack = black;
+                    } else if (black != expectedBlack) {
+                        violations.add("path ending at " + node + " has " + black
+                                + " black nodes instead of " + expectedBlack);
+                    }
+                }
+            }
+            if (previous == node.parent() && node.childLeft() != null) {
+                next = node.childLeft();
+            } else {
+                if (previous == node.parent() || previous == node.childLeft()) {
+                    // the left subtree is done, so node is next in order
+                    if (last != null && last.compareTo(node.getData()) > 0) {
+                        violations.add("value " + node + " comes after larger value " + last);
+                    }
+                    last = node.getData();
+                }
+                if (previous != node.childRight() && node.childRight() != null) {
+                    next = node.childRight();
+                } else {
+                    next = node.parent();
+                    if (!current.isRed()) {
+                        black--;
+                    }
+                }
+            }
+            previous = node;
+            node = node == root && next == root.parent() ? null : next;
+        }
+        return violations;
+    }
+
+    /**
+     * Verifies the invariants along one randomly chosen path from the root down to a missing
+     * child, which takes O(log n) time. Checks that the root is black, that no red node on the
+     * path has a red child, that the path passes as many black nodes as the leftmost path, that
+     * every node lies within the bounds set by its ancestors, and that parent references and
+     * stored subtree sizes of the nodes on the path are correct.
+     *
+     * @param root   the root of the tree, or null for an empty tree
+     * @param random the source of the path choices
+     * @return descriptions of the violations found on the path, empty when there are none
+     */
+    public static <T extends Comparable<T>> List<String> verifyRandomPath(RBTNode<T> root,
+                                                                          Random random) {
+        List<String> violations = new ArrayList<>();
+        if (root == null) {
+            return violations;
+        }
+        if (root.isRed()) {
+            violations.add("root " + root + " is red");
+        }
+        int expectedBlack = analyzeBlackHeight(root);
+        int black = 0;
+        T lower = null; // every value on the path must be at least lower
+        T upper = null; // and at most upper
+        RBTNode<T> node = root;
+        while (node != null) {
+            if (!node.isRed()) {
+                black++;
+            }
+            checkNode(node, violations);
+            T data = node.getData();
+            if ((lower != null && data.compareTo(lower) < 0)
+                    || (upper != null && data.compareTo(upper) > 0)) {
+                violations.add("value " + node + " is outside of the range of its ancestors");
+            }
+            RBTNode<T> next = random.nextBoolean() ? node.childLeft() : node.childRight();
+            if (next == null) {
+                next = node.childLeft() != null ? node.childLeft() : node.childRight();
+            }
+            if (node.childLeft() == null || node.childRight() == null) {
+                if (black != expectedBlack) {
+                    violations.add("path ending at " + node + " has " + black
+                            + " black nodes instead of " + expectedBlack);
+                }
+            }
+            if (next != null && next == node.childLeft()) {
+                upper = data;
+            } else if (next != null) {
+                lower = data;
+            }
+            node = next;
+        }
+        return violations;
+    }
+
+    /**
+     * Helper method that counts the black nodes on the leftmost path of the tree.
+     */
+    private static int analyzeBlackHeight(RBTNode<?> root) {
+        int black = 0;
+        for (RBTNode<?> node = root; node != null; node = node.childLeft()) {
+            if (!node.isRed()) {
+                black++;
+            }
+        }
+        return black;
+    }
+
+    /**
+     * Helper method that checks the invariants that only involve node and its children.
+     */
+    private static void checkNode(RBTNode<?> node, List<String> violations) {
+        RBTNode<?> left = node.childLeft();
+        RBTNode<?> right = node.childRight();
+        if (node.isRed() && ((left != null && left.isRed()) || (right != null && right.isRed()))) {
+            violations.add("red node " + node + " has a red child");
+        }
+        if ((left != null && left.parent() != node) || (right != null && right.parent() != node)) {
+            violations.add("a child of " + node + " does not refer back to it as parent");
+        }
+        if (node.subtreeSize() != 1 + RBTNode.sizeOf(left) + RBTNode.sizeOf(right)) {
+            violations.add("node " + node + " stores subtree size " + node.subtreeSize());
+        }
+    }
+}
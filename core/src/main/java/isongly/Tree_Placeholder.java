@@ -1,3 +1,5 @@
+package isongly;
+
 import java.util.List;
 import java.util.Arrays;
 import java.util.ArrayList;
@@ -50,6 +52,8 @@ public class Tree_Placeholder implements IterableSortedCollection<Song> {
     private Comparable<Song> max = null;
     public void setIteratorMin(Comparable<Song> min) { this.min = min; }
     public void setIteratorMax(Comparable<Song> max) { this.max = max; }
+    public Comparable<Song> getIteratorMin() { return min; }
+    public Comparable<Song> getIteratorMax() { return max; }
 
     public Iterator<Song> iterator() {
         List<Song> tmp = new ArrayList<>(songs); // make a copy of list
@@ -0,0 +1,291 @@
+package isongly;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * WriteAheadLog - CS400 Project 1: iSongly
+ * This class is an append-only log of catalog changes. Every record holds a log sequence number
+ * (LSN), an operation, and for inserts the song, and is protected by a CRC32 checksum. When the
+ * log is opened, a torn or corrupt record at its end, left by a crash during a write, is cut off.
+ * <p>
+ * Appending only buffers a record in memory. It becomes durable when commit writes the buffer to
+ * the file and forces it to the storage device. Commits use group commit: while one thread
+ * writes and forces, threads that commit later wait, and the next of them writes all records that
+ * were appended in the meantime with a single force.
+ */
+public class WriteAheadLog implements Closeable {
+  // operations of the records
+  public static final byte INSERT = 1;
+  public static final byte CLEAR = 2;
+
+  /**
+   * A record that was read from the log.
+   */
+  public static class Record {
+    public final long lsn;
+    public final byte operation;
+    public final Song song; // null unless operation is INSERT
+
+    private Record(long lsn, byte operation, Song song) {
+      this.lsn = lsn;
+      this.operation = operation;
+      this.song = song;
+    }
+  }
+
+  private final FileChannel channel;
+  private final Comparator<Song> comparator;
+  // records that were appended but not written yet
+  private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+  private final DataOutputStream pendingOut = new DataOutputStream(pending);
+  private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+  private final DataOutputStream bodyOut = new DataOutputStream(body);
+  private final CRC32 crc = new CRC32();
+  private long appendedLsn = 0;
+  private long durableLsn = 0;
+  private long writePosition; // end of the records that were written to the file
+  private boolean flushing = false; // whether a thread is writing and forcing
+  private IOException failure = null; // a failed write, after which the log cannot be used
+
+  /**
+   * Opens the log in file, or creates an empty log when the file does not exist. Reads every
+   * record to find the last LSN, and cuts the file off after the last intact record.
+   *
+   * @param file       the file of the log
+   * @param comparator the ordering of the songs that replay returns
+   * @throws IOException when the file cannot be opened or read
+   */
+  public WriteAheadLog(File file, Comparator<Song> comparator) throws IOException {
+    this.comparator = comparator;
+    this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE);
+    long[] last = new long[1];
+    writePosition = scan(record -> last[0] = record.lsn, Long.MIN_VALUE);
+    if (writePosition < channel.size()) {
+      channel.truncate(writePosition);
+      channel.force(true);
+    }
+    appendedLsn = last[0];
+    durableLsn = last[0];
+  }
+
+  /**
+   * Makes sure that the next record gets an LSN after lsn, for example after a checkpoint of
+   * the records up to lsn emptied the log.
+   *
+   * @param lsn the last LSN that was used
+   */
+  public synchronized void continueAfter(long lsn) {
+    appendedLsn = Math.max(appendedLsn, lsn);
+    durableLsn = Math.max(durableLsn, lsn);
+  }
+
+  /**
+   * @return the LSN of the last appended record
+   */
+  public synchronized long getLastLsn() {
+    return appendedLsn;
+  }
+
+  /**
+   * @return the number of bytes of the written and the pending records
+   */
+  public synchronized long size() {
+    return writePosition + pending.size();
+  }
+
+  /**
+   * Reads every intact record of the file, in the order they were appended, and passes those with
+   * an LSN after afterLsn to action. Records that are pending are not read.
+   *
+   * @param afterLsn the LSN after which records are returned
+   * @param action   receives the records
+   * @throws IOException when the file cannot be read
+   */
+  public synchronized void replay(long afterLsn, Consumer<Record> action) throws IOException {
+    scan(action, afterLsn);
+  }
+
+  /**
+   * Helper method that reads records from the start of the file until its end, or until a record
+   * is incomplete or fails its checksum.
+   *
+   * @return the position after the last intact record
+   */
+  private long scan(Consumer<Record> action, long afterLsn) throws IOException {
+    channel.position(0);
+    DataInputStream in = new DataInputStream(new BufferedInputStream(
+        Channels.newInputStream(channel), 1 << 16));
+    long position = 0;
+    while (true) {
+      byte[] record;
+      int checksum;
+      try {
+        int length = in.readInt();
+        checksum = in.readInt();
+        if (length < Long.BYTES + 1 || length > channel.size() - position) {
+          break; // a torn length
+        }
+        record = new byte[length];
+        in.readFully(record);
+      } catch (EOFException e) {
+        break;
+      }
+      crc.reset();
+      crc.update(record, 0, record.length);
+      if ((int) crc.getValue() != checksum) {
+        break;
+      }
+      DataInputStream fields = new DataInputStream(new ByteArrayInputStream(record));
+      long lsn = fields.readLong();
+      byte operation = fields.readByte();
+      if (lsn > afterLsn) {
+        Song song = operation == INSERT ? SongCodec.read(fields, comparator) : null;
+        action.accept(new Record(lsn, operation, song));
+      }
+      position += 2 * Integer.BYTES + record.length;
+    }
+    return position;
+  }
+
+  /**
+   * Appends a record to the buffer of pending records. The record is not durable before a commit
+   * of its LSN returns.
+   *
+   * @param operation INSERT or CLEAR
+   * @param song      the inserted song, or null for CLEAR
+   * @return the LSN of the record
+   * @throws IOException when an earlier write to the log failed
+   */
+  public synchronized long append(byte operation, Song song) throws IOException {
+    if (failure != null) {
+      throw new IOException("The log failed earlier and cannot be appended to.", failure);
+    }
+    long lsn = appendedLsn + 1;
+    body.reset();
+    bodyOut.writeLong(lsn);
+    bodyOut.writeByte(operation);
+    if (song != null) {
+      SongCodec.write(bodyOut, song);
+    }
+    crc.reset();
+    crc.update(body.toByteArray(), 0, body.size());
+    pendingOut.writeInt(body.size());
+    pendingOut.writeInt((int) crc.getValue());
+    body.writeTo(pendingOut);
+    appendedLsn = lsn;
+    return lsn;
+  }
+
+  /**
+   * Makes every record that was appended so far durable.
+   *
+   * @throws IOException when writing or forcing the file fails, or the thread is interrupted
+   */
+  public void commit() throws IOException {
+    commit(getLastLsn());
+  }
+
+  /**
+   * Waits until the record with the given LSN, and all records before it, are durable. When no
+   * other thread is writing, this thread writes every pending record and forces the file once;
+   * otherwise it waits for that thread, whose write may already include this record.
+   *
+   * @param lsn the LSN of the record to wait for
+   * @throws IOException when writing or forcing the file fails, or the thread is interrupted
+   */
+  public void commit(long lsn) throws IOException {
+    ByteBuffer batch;
+    long target;
+    long position;
+    synchronized (this) {
+      while (durableLsn < lsn && flushing && failure == null) {
+        try {
+          wait();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new InterruptedIOException("Interrupted while waiting for a commit.");
+        }
+      }
+      if (failure != null) {
+        throw new IOException("The log failed earlier and cannot be committed.", failure);
+      }
+      if (durableLsn >= lsn) {
+        return;
+      }
+      flushing = true;
+      batch = ByteBuffer.wrap(pending.toByteArray());
+      pending.reset();
+      target = appendedLsn;
+      position = writePosition;
+    }
+
+    IOException error = null;
+    try {
+      while (batch.hasRemaining()) {
+        position += channel.write(batch, position);
+      }
+      channel.force(false);
+    } catch (IOException e) {
+      error = e;
+    }
+    synchronized (this) {
+      flushing = false;
+      if (error == null) {
+        durableLsn = target;
+        writePosition = position;
+      } else {
+        failure = error;
+      }
+      notifyAll();
+    }
+    if (error != null) {
+      throw error;
+    }
+  }
+
+  /**
+   * Empties the log after a checkpoint has saved every record in it. Pending records are
+   * committed first. LSNs continue after the last record.
+   *
+   * @throws IOException when the file cannot be truncated
+   */
+  public synchronized void truncate() throws IOException {
+    commit();
+    channel.truncate(0);
+    channel.force(true);
+    writePosition = 0;
+  }
+
+  /**
+   * Commits the pending records and closes the file.
+   *
+   * @throws IOException when the commit or closing fails
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      if (failure == null) {
+        commit();
+      }
+    } finally {
+      channel.close();
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package isongly;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains JUnit tests for the BPlusTree class.
+ */
+public class BPlusTreeTests {
+
+    /**
+     * Test that random values with many duplicates are iterated in sorted order, for the
+     * smallest fanout and for the default fanout.
+     */
+    @Test
+    public void testInsertAndIterate() {
+        for (int fanout : new int[] {3, BPlusTree.DEFAULT_FANOUT}) {
+            Random random = new Random(fanout);
+            BPlusTree<Integer> tree = new BPlusTree<>(fanout);
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < 5000; i++) {
+                int value = random.nextInt(500);
+                tree.insert(value);
+                expected.add(value);
+            }
+            Collections.sort(expected);
+            List<Integer> values = new ArrayList<>();
+            tree.forEach(values::add);
+            assertEquals(expected, values);
+            assertEquals(5000, tree.size());
+            assertTrue(tree.contains(expected.get(1234)));
+            assertFalse(tree.contains(500));
+        }
+    }
+
+    /**
+     * Test iterating over ranges whose bounds are stored in the tree, are missing from it, and
+     * lie outside of all values.
+     */
+    @Test
+    public void testRangeIteration() {
+        BPlusTree<Integer> tree = new BPlusTree<>(4);
+        for (int i = 0; i < 100; i++) {
+            tree.insert(2 * i);
+            tree.insert(2 * i); // every even value twice
+        }
+        tree.setIteratorMin(10);
+        tree.setIteratorMax(15);
+        List<Integer> values = new ArrayList<>();
+        tree.forEach(values::add);
+        assertEquals(List.of(10, 10, 12, 12, 14, 14), values);
+
+        tree.setIteratorMin(197);
+        tree.setIteratorMax(null);
+        Iterator<Integer> iterator = tree.iterator();
+        assertEquals(198, (int) iterator.next());
+        assertEquals(198, (int) iterator.next());
+        assertFalse(iterator.hasNext());
+
+        tree.setIteratorMin(-5);
+        tree.setIteratorMax(-1);
+        assertFalse(tree.iterator().hasNext());
+    }
+
+    /**
+     * Test that songs of the same year are iterated in the same order as by
+     * IterableRedBlackTree, so that BPlusTree can replace it in the backend.
+     */
+    @Test
+    public void testSameOrderAsRedBlackTree() {
+        Comparator<Song> byYear = Comparator.comparingInt(Song::getYear);
+        BPlusTree<Song> bplus = new BPlusTree<>(5);
+        IterableRedBlackTree<Song> redBlack = new IterableRedBlackTree<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 1000; i++) {
+            Song song = new Song("Song " + i, "Artist", "pop", 2000 + random.nextInt(20), 100, 50,
+                    50, -5, 10, byYear);
+            bplus.insert(song);
+            redBlack.insert(song);
+        }
+        Iterator<Song> expected = redBlack.iterator();
+        for (Song song : bplus) {
+            assertSame(expected.next(), song);
+        }
+        assertFalse(expected.hasNext());
+    }
+}
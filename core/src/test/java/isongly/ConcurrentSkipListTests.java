@@ -0,0 +1,76 @@
+package isongly;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains JUnit tests for the ConcurrentSkipList class.
+ */
+public class ConcurrentSkipListTests {
+
+    /**
+     * Test that values inserted by several threads at once are all stored, in sorted order.
+     */
+    @Test
+    public void testConcurrentInserts() throws InterruptedException {
+        ConcurrentSkipList<Integer> list = new ConcurrentSkipList<>();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            Random random = new Random(t);
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 20000; i++) {
+                    list.insert(random.nextInt(1000));
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(80000, list.size());
+        List<Integer> values = new ArrayList<>();
+        list.forEach(values::add);
+        assertEquals(80000, values.size());
+        List<Integer> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        assertEquals(sorted, values);
+    }
+
+    /**
+     * Test iterating over a bounded range, and that songs of the same year are iterated in the
+     * same order as by IterableRedBlackTree.
+     */
+    @Test
+    public void testRangeAndDuplicates() {
+        Comparator<Song> byYear = Comparator.comparingInt(Song::getYear);
+        ConcurrentSkipList<Song> list = new ConcurrentSkipList<>();
+        IterableRedBlackTree<Song> tree = new IterableRedBlackTree<>();
+        Random random = new Random(3);
+        for (int i = 0; i < 2000; i++) {
+            Song song = new Song("Song " + i, "Artist", "pop", 2000 + random.nextInt(20), 120, 60,
+                    70, -6, 10, byYear);
+            list.insert(song);
+            tree.insert(song);
+        }
+        Song low = new Song("", "", "", 2005, 0, 0, 0, 0, 0, byYear);
+        Song high = new Song("", "", "", 2007, 0, 0, 0, 0, 0, byYear);
+        list.setIteratorMin(low);
+        list.setIteratorMax(high);
+        tree.setIteratorMin(low);
+        tree.setIteratorMax(high);
+        Iterator<Song> expected = tree.iterator();
+        for (Song song : list) {
+            assertSame(expected.next(), song);
+        }
+        assertFalse(expected.hasNext());
+        assertTrue(list.contains(low));
+        list.clear();
+        assertTrue(list.isEmpty());
+    }
+}
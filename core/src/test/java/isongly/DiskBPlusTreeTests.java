@@ -0,0 +1,135 @@
+package isongly;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains JUnit tests for the DiskBPlusTree class.
+ */
+public class DiskBPlusTreeTests {
+
+    // orders songs by year, like the comparator that Backend passes to every Song
+    private static final Comparator<Song> BY_YEAR = Comparator.comparingInt(Song::getYear);
+
+    /**
+     * Test that songs written through a small page cache are read back in the same order as
+     * from an IterableRedBlackTree, after the tree file has been closed and reopened.
+     */
+    @Test
+    public void testReopen() throws IOException {
+        File file = File.createTempFile("songs", ".bpt");
+        try {
+            IterableRedBlackTree<Song> expected = new IterableRedBlackTree<>();
+            Random random = new Random(5);
+            try (DiskBPlusTree tree = new DiskBPlusTree(file, BY_YEAR, 16)) {
+                for (int i = 0; i < 20000; i++) {
+                    Song song = new Song("Title " + i, "Artist " + random.nextInt(100), "pop",
+                            1950 + random.nextInt(70), 120, 60, 70, -6, 10, BY_YEAR);
+                    tree.insert(song);
+                    expected.insert(song);
+                }
+            }
+            try (DiskBPlusTree tree = new DiskBPlusTree(file, BY_YEAR, 16)) {
+                assertEquals(20000, tree.size());
+                Iterator<Song> songs = expected.iterator();
+                for (Song song : tree) {
+                    Song other = songs.next();
+                    assertEquals(other.getTitle(), song.getTitle());
+                    assertEquals(other.getArtist(), song.getArtist());
+                    assertEquals(other.getYear(), song.getYear());
+                }
+                assertFalse(songs.hasNext());
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * Test that a tree file that was never closed can be reopened, as after the process died:
+     * the songs that reached the file are read back in order and counted, and the songs of a
+     * flush are all there.
+     */
+    @Test
+    public void testReopenWithoutClose() throws IOException {
+        File file = File.createTempFile("songs", ".bpt");
+        DiskBPlusTree tree = new DiskBPlusTree(file, BY_YEAR, 16);
+        try {
+            Random random = new Random(7);
+            for (int i = 0; i < 5000; i++) {
+                tree.insert(new Song("Title " + i, "Artist", "pop", 1950 + random.nextInt(70),
+                        120, 60, 70, -6, 10, BY_YEAR));
+            }
+            try (DiskBPlusTree reopened = new DiskBPlusTree(file, BY_YEAR, 16)) {
+                int count = 0;
+                int year = Integer.MIN_VALUE;
+                for (Song song : reopened) {
+                    assertTrue(song.getYear() >= year);
+                    year = song.getYear();
+                    count++;
+                }
+                assertEquals(count, reopened.size());
+                assertTrue(count <= 5000);
+            }
+            tree.flush();
+            try (DiskBPlusTree reopened = new DiskBPlusTree(file, BY_YEAR, 16)) {
+                assertEquals(5000, reopened.size());
+                int count = 0;
+                for (Song song : reopened) {
+                    count++;
+                }
+                assertEquals(5000, count);
+            }
+        } finally {
+            tree.close();
+            file.delete();
+        }
+    }
+
+    /**
+     * Test range iteration and contains, and that clear leaves an empty tree.
+     */
+    @Test
+    public void testRangeAndClear() throws IOException {
+        File file = File.createTempFile("songs", ".bpt");
+        try (DiskBPlusTree tree = new DiskBPlusTree(file, BY_YEAR, 16)) {
+            for (int year = 1950; year < 2020; year++) {
+                for (int i = 0; i < 100; i++) {
+                    tree.insert(new Song("Song " + year + " " + i, "Artist", "pop", year, 120, 60,
+                            70, -6, 10, BY_YEAR));
+                }
+            }
+            tree.setIteratorMin(yearBound(1990));
+            tree.setIteratorMax(yearBound(1991));
+            List<Song> range = new ArrayList<>();
+            tree.forEach(range::add);
+            assertEquals(200, range.size());
+            assertEquals(1990, range.get(0).getYear());
+            assertEquals(1991, range.get(199).getYear());
+            assertTrue(tree.contains(yearBound(2019)));
+            assertFalse(tree.contains(yearBound(2020)));
+
+            tree.clear();
+            tree.setIteratorMin(null);
+            tree.setIteratorMax(null);
+            assertTrue(tree.isEmpty());
+            assertFalse(tree.iterator().hasNext());
+        } finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * Helper method that creates a song that only serves as a bound for the given year.
+     */
+    private static Song yearBound(int year) {
+        return new Song("", "", "", year, 0, 0, 0, 0, 0, BY_YEAR);
+    }
+}
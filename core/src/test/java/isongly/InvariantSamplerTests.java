@@ -0,0 +1,51 @@
+package isongly;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains JUnit tests for the InvariantSampler class.
+ */
+public class InvariantSamplerTests {
+
+    /**
+     * Test that the sampler keeps checking a tree while another thread inserts into it, reports
+     * nothing once the tree is valid and no longer changing, and reports an invariant that is
+     * then broken on purpose.
+     */
+    @Test
+    public void testReportsBrokenInvariant() throws InterruptedException {
+        RedBlackTree<Integer> tree = new RedBlackTree<>();
+        BlockingQueue<List<String>> reports = new LinkedBlockingQueue<>();
+        try (InvariantSampler sampler =
+                     new InvariantSampler(tree, 1, TimeUnit.MILLISECONDS, reports::add)) {
+            Thread inserter = new Thread(() -> {
+                Random random = new Random(36);
+                for (int i = 0; i < 200000; i++) {
+                    tree.insert(random.nextInt(1000000));
+                }
+            });
+            inserter.start();
+            inserter.join();
+            assertEquals(200000, tree.size());
+
+            // checks that overlapped the inserts may have reported temporary violations
+            Thread.sleep(50);
+            reports.clear();
+            Thread.sleep(50);
+            assertTrue(reports.isEmpty(), "A valid tree should not be reported: " + reports);
+
+            ((RBTNode<Integer>) tree.root).flipColor();
+            List<String> violations = reports.poll(5, TimeUnit.SECONDS);
+            assertNotNull(violations, "The red root should be reported.");
+            assertTrue(violations.stream()
+                            .anyMatch(v -> v.startsWith("root") && v.endsWith("is red")),
+                    "The report should name the red root: " + violations);
+        }
+    }
+}
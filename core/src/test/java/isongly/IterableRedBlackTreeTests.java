@@ -0,0 +1,177 @@
+package isongly;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.stream.StreamSupport;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains JUnit tests for the IterableRedBlackTree class and its iterators.
+ */
+public class IterableRedBlackTreeTests {
+
+    /**
+     * Test a tree without duplicates (Integer) (with a specified stop point)
+     */
+    @Test
+    public void testOnlyMax() {
+        IterableRedBlackTree<Integer> tree = new IterableRedBlackTree<>();
+        tree.insert(5);
+        tree.insert(3);
+        tree.insert(7);
+        tree.insert(2);
+        tree.insert(4);
+        tree.insert(6);
+        tree.insert(8);
+        tree.setIteratorMax(5); // max = 5
+        StringBuilder result = new StringBuilder();
+        Iterator<Integer> iterator = tree.iterator();
+        while (iterator.hasNext()) {
+            result.append(iterator.next()).append(", ");
+        }
+        // check the result
+        assertEquals("2, 3, 4, 5, ", result.toString());
+    }
+
+    /**
+     * Test a tree without duplicates (String) (with a specified start point)
+     */
+    @Test
+    public void testOnlyMin() {
+        IterableRedBlackTree<String> tree = new IterableRedBlackTree<>();
+        tree.insert("E");
+        tree.insert("B");
+        tree.insert("A");
+        tree.insert("D");
+        tree.insert("C");
+        tree.insert("F");
+        tree.setIteratorMin("C"); // min = "C"
+        StringBuilder result = new StringBuilder();
+        Iterator<String> iterator = tree.iterator();
+        while (iterator.hasNext()) {
+            result.append(iterator.next()).append(", ");
+        }
+        // check the result
+        assertEquals("C, D, E, F, ", result.toString());
+    }
+
+    /**
+     * Test a tree containing duplicates (Integer) (with both a specified start point and a
+     * specified stop point)
+     *
+     * Don’t skip duplicated values in the iterator if they are within the min and max range
+     */
+    @Test
+    public void testMinAndMax() {
+        IterableRedBlackTree<Integer> tree = new IterableRedBlackTree<>();
+        tree.insert(10);
+        tree.insert(5);
+        tree.insert(15);
+        tree.insert(5);  // duplicate
+        tree.insert(20);
+        tree.insert(10); // duplicate
+        tree.insert(8);
+        tree.setIteratorMin(5); // min = 5
+        tree.setIteratorMax(15); // max = 15
+        StringBuilder result = new StringBuilder();
+        Iterator<Integer> iterator = tree.iterator();
+        while (iterator.hasNext()) {
+            result.append(iterator.next()).append(", ");
+        }
+        // check the result
+        assertEquals("5, 5, 8, 10, 10, 15, ", result.toString());
+    }
+
+    /**
+     * Test that a parallel stream built from the spliterator returns the same values as the
+     * iterator, and that splitting keeps values in order and sizes exact.
+     */
+    @Test
+    public void testSpliterator() {
+        IterableRedBlackTree<Integer> tree = new IterableRedBlackTree<>();
+        long expectedSum = 0;
+        for (int i = 0; i < 1000; i++) {
+            int value = (i * 7919) % 500; // every value from 0 to 499 twice
+            tree.insert(value);
+            expectedSum += value;
+        }
+        assertEquals(1000, tree.size());
+        assertEquals(expectedSum,
+                StreamSupport.stream(tree.spliterator(), true).mapToLong(i -> i).sum());
+
+        Spliterator<Integer> second = tree.spliterator();
+        assertTrue(second.hasCharacteristics(Spliterator.SIZED | Spliterator.SORTED));
+        Spliterator<Integer> first = second.trySplit();
+        assertEquals(1000, first.estimateSize() + second.estimateSize());
+        int[] last = {-1};
+        first.forEachRemaining(i -> { assertTrue(i >= last[0]); last[0] = i; });
+        second.forEachRemaining(i -> { assertTrue(i >= last[0]); last[0] = i; });
+        assertEquals(499, last[0]);
+
+        // with a min and max set, only values in range are streamed
+        tree.setIteratorMin(100);
+        tree.setIteratorMax(199);
+        assertEquals(200, StreamSupport.stream(tree.spliterator(), true).count());
+    }
+
+    /**
+     * Test that the stack-based and the parent-pointer iterators return the same values for
+     * trees with duplicates, both with and without a start and stop point.
+     */
+    @Test
+    public void testSuccessorIterator() {
+        IterableRedBlackTree<Integer> tree = new IterableRedBlackTree<>();
+        for (int i = 0; i < 200; i++) {
+            tree.insert((i * 37) % 50); // every value from 0 to 49 four times
+        }
+        Integer[][] bounds = {{null, null}, {10, null}, {null, 20}, {10, 20}, {60, null}};
+        for (Integer[] bound : bounds) {
+            tree.setIteratorMin(bound[0]);
+            tree.setIteratorMax(bound[1]);
+            StringBuilder expected = new StringBuilder();
+            Iterator<Integer> iterator = tree.iterator();
+            while (iterator.hasNext()) {
+                expected.append(iterator.next()).append(", ");
+            }
+            StringBuilder result = new StringBuilder();
+            Iterator<Integer> successors = tree.successorIterator();
+            while (successors.hasNext()) {
+                result.append(successors.next()).append(", ");
+            }
+            assertEquals(expected.toString(), result.toString());
+        }
+        tree.setIteratorMin(10);
+        tree.setIteratorMax(10);
+        Iterator<Integer> iterator = tree.successorIterator();
+        assertEquals(10, (int) iterator.next());
+        assertEquals(10, (int) iterator.next());
+        assertEquals(10, (int) iterator.next());
+        assertEquals(10, (int) iterator.next());
+        assertFalse(iterator.hasNext());
+        assertThrows(NoSuchElementException.class, iterator::next);
+    }
+
+    /**
+     * Test that an iterator with its own bounds returns the values between them, and leaves the
+     * bounds of the tree unchanged.
+     */
+    @Test
+    public void testBoundedIterator() {
+        IterableRedBlackTree<Integer> tree = new IterableRedBlackTree<>();
+        for (int i = 0; i < 50; i++) {
+            tree.insert((i * 7) % 50);
+        }
+        tree.setIteratorMin(40);
+        StringBuilder result = new StringBuilder();
+        Iterator<Integer> iterator = tree.iterator(10, 14);
+        while (iterator.hasNext()) {
+            result.append(iterator.next()).append(", ");
+        }
+        assertEquals("10, 11, 12, 13, 14, ", result.toString());
+        assertEquals(40, tree.getIteratorMin());
+        assertNull(tree.getIteratorMax());
+        assertEquals(40, (int) tree.iterator().next());
+    }
+}
@@ -0,0 +1,77 @@
+package isongly;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains JUnit tests for the KWayMergeIterator and MergedCollection classes.
+ */
+public class MergedCollectionTests {
+
+    /**
+     * Test that merging sorted iterators returns all values in ascending order, and that empty
+     * sources and an empty list of sources are handled.
+     */
+    @Test
+    public void testMergeIterators() {
+        List<Iterator<Integer>> sources = new ArrayList<>();
+        sources.add(List.of(1, 4, 4, 9).iterator());
+        sources.add(Collections.<Integer>emptyIterator());
+        sources.add(List.of(2, 3, 4, 10, 11).iterator());
+        List<Integer> merged = new ArrayList<>();
+        KWayMergeIterator.of(sources).forEachRemaining(merged::add);
+        assertEquals(List.of(1, 2, 3, 4, 4, 4, 9, 10, 11), merged);
+        assertFalse(KWayMergeIterator.of(new ArrayList<Iterator<Integer>>()).hasNext());
+    }
+
+    /**
+     * Test that a view of several trees returns the same songs in the same order as one tree
+     * holding all of them, with bounds pushed down to every tree and the bounds of the trees
+     * restored afterwards, and that ties are returned in the order of the trees.
+     */
+    @Test
+    public void testMergedView() {
+        Comparator<Song> byYear = Comparator.comparingInt(Song::getYear);
+        List<IterableRedBlackTree<Song>> trees = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            trees.add(new IterableRedBlackTree<>());
+        }
+        Random random = new Random(8);
+        for (int i = 0; i < 3000; i++) {
+            trees.get(random.nextInt(3)).insert(new Song("Song " + i, "Artist", "pop",
+                    1960 + random.nextInt(60), 120, 60, 70, -6, 10, byYear));
+        }
+        MergedCollection<Song> view = new MergedCollection<>(trees);
+        assertEquals(3000, view.size());
+        Song low = new Song("", "", "", 1971, 0, 0, 0, 0, 0, byYear);
+        Song high = new Song("", "", "", 1988, 0, 0, 0, 0, 0, byYear);
+        view.setIteratorMin(low);
+        view.setIteratorMax(high);
+
+        List<Song> expected = new ArrayList<>();
+        for (int year = 1971; year <= 1988; year++) {
+            for (IterableRedBlackTree<Song> tree : trees) {
+                for (Song song : tree) {
+                    if (song.getYear() == year) {
+                        expected.add(song);
+                    }
+                }
+            }
+        }
+        // a bound that the owner of a tree has set should survive iterating the view
+        trees.get(0).setIteratorMax(low);
+        List<Song> actual = new ArrayList<>();
+        view.forEach(actual::add);
+        assertEquals(expected, actual);
+        assertSame(low, trees.get(0).getIteratorMax());
+        assertNull(trees.get(0).getIteratorMin());
+        assertTrue(view.contains(low));
+        assertThrows(UnsupportedOperationException.class, () -> view.insert(low));
+    }
+}
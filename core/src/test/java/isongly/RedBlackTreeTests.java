@@ -0,0 +1,153 @@
+package isongly;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains JUnit tests for the RedBlackTree class.
+ */
+public class RedBlackTreeTests {
+
+    /**
+     * Test case for insertion causing a recoloring (from Q03)
+     */
+    @Test
+    public void testRBT1() {
+        RedBlackTree<String> tree = new RedBlackTree<>();
+        tree.insert("M"); // root
+        tree.insert("F");
+        tree.insert("S");
+        tree.insert("C");
+        tree.insert("I");
+        tree.insert("P");
+        tree.insert("X");
+        tree.insert("H");
+        tree.insert("J");
+        // cause a recoloring
+        tree.insert("O");
+        // check "O"
+        assertEquals("O", tree.root.childRight().childLeft().childLeft().getData());
+        assertTrue(((RBTNode<String>) tree.root).childRight().childLeft().childLeft().isRed());
+        // check "O" parent
+        assertEquals("P", tree.root.childRight().childLeft().getData());
+        assertFalse(((RBTNode<String>) tree.root).childRight().childLeft().isRed());
+        // check "O" uncle
+        assertEquals("X", tree.root.childRight().childRight().getData());
+        assertFalse(((RBTNode<String>) tree.root).childRight().childRight().isRed());
+    }
+
+    /**
+     * Test case for parent is red, uncle is black(rightRotate and swap color)
+     */
+    @Test
+    public void testRBT2() {
+        RedBlackTree<Integer> tree = new RedBlackTree<>();
+        tree.insert(7); // Root
+        tree.insert(4);  // Left child
+        tree.insert(10); // Right child
+        tree.insert(2);
+        tree.insert(1);
+        // check root
+        assertEquals(7, (int) tree.root.getData());
+        assertFalse(((RBTNode<Integer>) tree.root).isRed()); // root is black
+        //check leftChild
+        assertEquals(2, (int) tree.root.childLeft().getData());
+        assertFalse(((RBTNode<Integer>) tree.root).childLeft().isRed());
+        // check rightChild
+        assertEquals(10, (int) tree.root.childRight().getData());
+        assertFalse(((RBTNode<Integer>) tree.root).childRight().isRed());
+        // check newNode
+        assertEquals(1, (int) tree.root.childLeft().childLeft().getData());
+        assertTrue(((RBTNode<Integer>) tree.root).childLeft().childLeft().isRed());
+        // check newNode's sibling
+        assertEquals(4, (int) tree.root.childLeft().childRight().getData());
+        assertTrue(((RBTNode<Integer>) tree.root).childLeft().childRight().isRed());
+    }
+
+    /**
+     * Test case for insertion requiring a right rotation.
+     */
+    @Test
+    public void testRBT3() {
+        RedBlackTree<Integer> tree = new RedBlackTree<>();
+        tree.insert(2); // Root
+        tree.insert(4); // Right child
+        tree.insert(1);  // Left child
+        // insert 3 to cause a right Rotaion
+        tree.insert(3);
+        // check root
+        assertEquals(2, (int) tree.root.getData());
+        assertFalse(((RBTNode<Integer>) tree.root).isRed()); // root is black
+        //check leftChild
+        assertEquals(1, (int) tree.root.childLeft().getData());
+        assertFalse(((RBTNode<Integer>) tree.root).childLeft().isRed());
+        // check rightChild
+        assertEquals(4, (int) tree.root.childRight().getData());
+        assertFalse(((RBTNode<Integer>) tree.root).childRight().isRed());
+        // check newNode
+        assertEquals(3, (int) tree.root.childRight().childLeft().getData());
+        assertTrue(((RBTNode<Integer>) tree.root).childRight().childLeft().isRed()); // 3 should turn to black
+    }
+
+    /**
+     * Test case for insertAll, with batches that are small and large compared to the tree, so
+     * that both the finger inserts and the rebuild are used.
+     */
+    @Test
+    public void testRBT4() {
+        Random random = new Random(3);
+        IterableRedBlackTree<Integer> tree = new IterableRedBlackTree<>();
+        List<Integer> expected = new ArrayList<>();
+        for (int batchSize : new int[] {5, 1000, 3, 20, 5000, 1}) {
+            List<Integer> batch = new ArrayList<>();
+            for (int i = 0; i < batchSize; i++) {
+                batch.add(random.nextInt(200)); // many duplicates
+            }
+            Collections.sort(batch);
+            tree.insertAll(batch);
+            expected.addAll(batch);
+            assertTrue(tree.verifyInvariants().isEmpty(), tree.verifyInvariants().toString());
+            assertEquals(expected.size(), tree.size());
+        }
+        Collections.sort(expected);
+        List<Integer> values = new ArrayList<>();
+        tree.forEach(values::add);
+        assertEquals(expected, values);
+        assertThrows(IllegalArgumentException.class, () -> tree.insertAll(Arrays.asList(2, 1)));
+    }
+
+    /**
+     * Test case for insertAll storing equal values in the same order as single inserts, both
+     * when the tree is rebuilt and when the values are inserted one at a time.
+     */
+    @Test
+    public void testRBT5() {
+        Comparator<Song> byYear = Comparator.comparingInt(Song::getYear);
+        for (int batchSize : new int[] {4, 400}) {
+            IterableRedBlackTree<Song> batched = new IterableRedBlackTree<>();
+            IterableRedBlackTree<Song> single = new IterableRedBlackTree<>();
+            for (int round = 0; round < 3; round++) {
+                List<Song> batch = new ArrayList<>();
+                for (int i = 0; i < batchSize; i++) {
+                    batch.add(new Song("Song " + round + " " + i, "Artist", "pop", 2000 + i % 3,
+                            120, 60, 70, -6, 10, byYear));
+                }
+                batch.sort(byYear);
+                batched.insertAll(batch);
+                batch.forEach(single::insert);
+            }
+            Iterator<Song> expected = single.iterator();
+            for (Song song : batched) {
+                assertSame(expected.next(), song);
+            }
+            assertFalse(expected.hasNext());
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package isongly;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains JUnit tests for the ShardedCatalog class.
+ */
+public class ShardedCatalogTests {
+
+    private static final Comparator<Song> BY_YEAR = Comparator.comparingInt(Song::getYear);
+
+    private static Song song(String title, int year, int danceability, int loudness) {
+        return new Song(title, "Artist", "pop", year, 120, 60, danceability, loudness, 10,
+                BY_YEAR);
+    }
+
+    /**
+     * Test that songs inserted into a catalog with decade shards are iterated in the same order as
+     * by a single IterableRedBlackTree, over the whole catalog and over a year range.
+     */
+    @Test
+    public void testSameOrderAsTree() {
+        ShardedCatalog catalog = ShardedCatalog.byWidth(1960, 2019, 10);
+        assertEquals(8, catalog.shardCount());
+        IterableRedBlackTree<Song> tree = new IterableRedBlackTree<>();
+        Random random = new Random(5);
+        for (int i = 0; i < 3000; i++) {
+            Song song = song("Song " + i, 1950 + random.nextInt(80), random.nextInt(100), -5);
+            catalog.insert(song);
+            tree.insert(song);
+        }
+        assertEquals(3000, catalog.size());
+        List<Song> expected = new ArrayList<>();
+        tree.forEach(expected::add);
+        List<Song> actual = new ArrayList<>();
+        catalog.forEach(actual::add);
+        assertEquals(expected, actual);
+
+        Song low = song("", 1975, 0, 0);
+        Song high = song("", 1992, 0, 0);
+        tree.setIteratorMin(low);
+        tree.setIteratorMax(high);
+        catalog.setIteratorMin(low);
+        catalog.setIteratorMax(high);
+        expected.clear();
+        tree.forEach(expected::add);
+        actual.clear();
+        catalog.forEach(actual::add);
+        assertEquals(expected, actual);
+        assertTrue(catalog.contains(song("", 1980, 0, 0)));
+        assertFalse(catalog.contains(song("", 2050, 0, 0)));
+    }
+
+    /**
+     * Test that a sorted batch is split over the shards, and that an unsorted batch changes no
+     * shard.
+     */
+    @Test
+    public void testInsertAll() {
+        ShardedCatalog catalog = ShardedCatalog.byQuantiles(new int[] {1990, 1995, 2000, 2005}, 4);
+        List<Song> batch = new ArrayList<>();
+        for (int year = 1985; year < 2010; year++) {
+            batch.add(song("Song " + year, year, 50, -5));
+        }
+        catalog.insertAll(batch);
+        assertEquals(25, catalog.size());
+        List<Song> actual = new ArrayList<>();
+        catalog.forEach(actual::add);
+        assertEquals(batch, actual);
+
+        List<Song> unsorted = List.of(song("A", 2001, 50, -5), song("B", 1989, 50, -5));
+        assertThrows(IllegalArgumentException.class, () -> catalog.insertAll(unsorted));
+        assertEquals(25, catalog.size());
+        catalog.clear();
+        assertTrue(catalog.isEmpty());
+    }
+
+    /**
+     * Test that the top songs of a year range, merged from the shards, match a stable sort of the
+     * filtered songs of the range, including the order of ties.
+     */
+    @Test
+    public void testTopK() {
+        ShardedCatalog catalog = ShardedCatalog.byWidth(1960, 2019, 5);
+        List<Song> songs = new ArrayList<>();
+        Random random = new Random(11);
+        for (int i = 0; i < 5000; i++) {
+            Song song = song("Song " + i, 1960 + random.nextInt(60), random.nextInt(20),
+                    -random.nextInt(15));
+            catalog.insert(song);
+        }
+        catalog.forEach(songs::add);
+        Comparator<Song> byDance = Comparator.comparingInt(Song::getDanceability).reversed();
+        List<Song> expected = songs.stream()
+                .filter(s -> s.getYear() >= 1973 && s.getYear() <= 2004 && s.getLoudness() < -7)
+                .sorted(byDance).limit(12).collect(Collectors.toList());
+        assertEquals(expected, catalog.topK(12, byDance, 1973, 2004, s -> s.getLoudness() < -7));
+        assertEquals(5, catalog.topK(5, byDance, null, null, s -> true).size());
+        assertTrue(catalog.topK(5, byDance, 2030, null, s -> true).isEmpty());
+    }
+
+    /**
+     * Test that threads which insert into different shards at once lose no songs.
+     */
+    @Test
+    public void testConcurrentInserts() throws InterruptedException {
+        ShardedCatalog catalog = ShardedCatalog.byWidth(1960, 2019, 10);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            Random random = new Random(t);
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    catalog.insert(song("Song", 1960 + random.nextInt(60), 50, -5));
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(40000, catalog.size());
+        int previous = Integer.MIN_VALUE;
+        for (Song song : catalog) {
+            assertTrue(song.getYear() >= previous);
+            previous = song.getYear();
+        }
+    }
+
+    /**
+     * Test that an iterator which is interleaved with inserts into the shard it is reading, which
+     * rebalance the tree between its chunks, returns every song that was stored before it exactly
+     * once and in order.
+     */
+    @Test
+    public void testIteratorWithInserts() {
+        ShardedCatalog catalog = ShardedCatalog.byWidth(1960, 2019, 10);
+        Random random = new Random(43);
+        List<Song> stored = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            Song song = song("Song " + i, 1960 + random.nextInt(20), 50, -5);
+            stored.add(song);
+            catalog.insert(song);
+        }
+        Map<Song, Integer> returned = new IdentityHashMap<>();
+        Iterator<Song> songs = catalog.iterator();
+        int previous = Integer.MIN_VALUE;
+        int read = 0;
+        while (songs.hasNext()) {
+            Song song = songs.next();
+            assertTrue(song.getYear() >= previous);
+            previous = song.getYear();
+            returned.merge(song, 1, Integer::sum);
+            if (++read % 100 == 0) {
+                for (int i = 0; i < 50; i++) {
+                    catalog.insert(song("Late", 1960 + random.nextInt(20), 50, -5));
+                }
+            }
+        }
+        for (Song song : stored) {
+            assertEquals(1, returned.get(song), song.getTitle() + " should be returned once.");
+        }
+        for (Map.Entry<Song, Integer> entry : returned.entrySet()) {
+            assertEquals(1, entry.getValue(), "No song should be returned twice.");
+        }
+    }
+}
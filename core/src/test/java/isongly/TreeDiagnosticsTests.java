@@ -0,0 +1,67 @@
+package isongly;
+
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains JUnit tests for the TreeDiagnostics class.
+ */
+public class TreeDiagnosticsTests {
+
+    /**
+     * Test the shape measurements of a tree built from sorted inserts.
+     */
+    @Test
+    public void testDiagnostics() {
+        RedBlackTree<Integer> tree = new RedBlackTree<>();
+        assertEquals(0, tree.diagnostics().getNodeCount());
+        for (int i = 1; i <= 1000; i++) {
+            tree.insert(i);
+        }
+        TreeDiagnostics diagnostics = tree.diagnostics();
+        assertEquals(1000, diagnostics.getNodeCount());
+        assertEquals(1000, diagnostics.getRedCount() + diagnostics.getBlackCount());
+        // a red-black tree of n nodes is at most 2 * log2(n + 1) levels high
+        assertTrue(diagnostics.getHeight() <= 2 * Math.log(1001) / Math.log(2));
+        assertTrue(diagnostics.getAverageDepth() < diagnostics.getMaxDepth());
+        long[] depths = diagnostics.getDepthHistogram();
+        assertEquals(diagnostics.getHeight(), depths.length);
+        assertEquals(1, depths[0]);
+        long total = 0;
+        for (long count : depths) {
+            total += count;
+        }
+        assertEquals(1000, total);
+    }
+
+    /**
+     * Test that valid trees pass verification, and that broken colors and order are reported.
+     */
+    @Test
+    public void testVerify() {
+        RedBlackTree<Integer> tree = new RedBlackTree<>();
+        Random random = new Random(1);
+        for (int i = 0; i < 500; i++) {
+            tree.insert(random.nextInt(100));
+        }
+        assertTrue(tree.verifyInvariants().isEmpty());
+        for (int i = 0; i < 50; i++) {
+            assertTrue(tree.verifyRandomPath(random).isEmpty());
+        }
+
+        // turning a black node red breaks the black-height of the paths through it
+        RBTNode<Integer> node = ((RBTNode<Integer>) tree.root).childLeft();
+        node.flipColor();
+        List<String> violations = tree.verifyInvariants();
+        assertFalse(violations.isEmpty());
+        node.flipColor();
+
+        // swapping two values breaks their order
+        Integer rootValue = tree.root.getData();
+        tree.root.setData(tree.root.childRight().getData());
+        tree.root.childRight().setData(rootValue);
+        assertFalse(tree.verifyInvariants().isEmpty());
+    }
+}
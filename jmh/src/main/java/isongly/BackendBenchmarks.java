@@ -0,0 +1,75 @@
+package isongly;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks for the Backend hot paths: loading a synthetic CSV file with readData, and
+ * answering getRange and fiveMost queries on the loaded songs. Every benchmark runs once for each
+ * combination of catalog size and tree implementation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class BackendBenchmarks {
+
+    @Param({"IterableRedBlackTree", "Tree_Placeholder"})
+    String implementation;
+
+    @Param({"10000", "1000000", "10000000"})
+    int rows;
+
+    // the synthetic CSV file, and a backend that has already loaded it
+    File csv;
+    Backend loaded;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        csv = File.createTempFile("songs-" + rows + "-", ".csv");
+        new SongCatalogGenerator(42).write(csv, rows);
+        loaded = new Backend(TreeBenchmarks.newTree(implementation));
+        loaded.readData(csv.getPath());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        csv.delete();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    public Backend readData() throws IOException {
+        Backend backend = new Backend(TreeBenchmarks.newTree(implementation));
+        backend.readData(csv.getPath());
+        return backend;
+    }
+
+    @Benchmark
+    public List<String> getRange() {
+        return loaded.getRange(2000, 2005);
+    }
+
+    @Benchmark
+    public List<String> fiveMost() {
+        loaded.getRange(2000, 2005);
+        return loaded.fiveMost();
+    }
+}
@@ -0,0 +1,140 @@
+package isongly;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH benchmarks for the tree hot paths: inserting songs in random and in sorted (year) order,
+ * and iterating over all songs or over a bounded year range. Every benchmark runs once for each
+ * tree implementation, so a regression in one of them shows up next to the others.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TreeBenchmarks {
+
+    // orders songs by year, like the comparator that Backend passes to every Song
+    static final Comparator<Song> YEAR_ORDER = Comparator.comparingInt(Song::getYear);
+
+    @Param({"IterableRedBlackTree", "BPlusTree", "ConcurrentSkipList", "ShardedCatalog",
+            "Tree_Placeholder"})
+    String implementation;
+
+    @Param({"100000"})
+    int size;
+
+    // songs in random order, and the same songs sorted by year
+    Song[] randomSongs;
+    Song[] sortedSongs;
+    // a tree that already holds all songs, for the scan benchmarks
+    IterableSortedCollection<Song> filled;
+    // year bounds of the bounded scan, covering about a tenth of all songs
+    Song lowYear;
+    Song highYear;
+
+    /**
+     * Creates an empty tree of the given implementation.
+     *
+     * @param implementation the simple class name of the tree
+     * @return the new tree
+     * @throws IllegalArgumentException when the implementation is not known
+     */
+    static IterableSortedCollection<Song> newTree(String implementation) {
+        switch (implementation) {
+            case "IterableRedBlackTree":
+                return new IterableRedBlackTree<>();
+            case "BPlusTree":
+                return new BPlusTree<>();
+            case "ConcurrentSkipList":
+                return new ConcurrentSkipList<>();
+            case "ShardedCatalog":
+                return ShardedCatalog.byWidth(1950, 2019, 10);
+            case "Tree_Placeholder":
+                return new Tree_Placeholder();
+            default:
+                throw new IllegalArgumentException("Unknown tree implementation: " + implementation);
+        }
+    }
+
+    /**
+     * Creates a song of the given year whose other attributes are drawn from random.
+     */
+    static Song randomSong(SplittableRandom random, int year) {
+        return new Song("Song " + random.nextInt(), "Artist " + random.nextInt(1000), "pop", year,
+                random.nextInt(60, 200), random.nextInt(101), random.nextInt(101),
+                random.nextInt(-20, 1), random.nextInt(101), YEAR_ORDER);
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(42);
+        randomSongs = new Song[size];
+        for (int i = 0; i < size; i++) {
+            randomSongs[i] = randomSong(random, random.nextInt(1950, 2020));
+        }
+        sortedSongs = randomSongs.clone();
+        Arrays.sort(sortedSongs, YEAR_ORDER);
+        filled = newTree(implementation);
+        for (Song song : randomSongs) {
+            filled.insert(song);
+        }
+        lowYear = randomSong(random, 2000);
+        highYear = randomSong(random, 2006);
+    }
+
+    @Benchmark
+    public IterableSortedCollection<Song> insertRandom() {
+        IterableSortedCollection<Song> tree = newTree(implementation);
+        for (Song song : randomSongs) {
+            tree.insert(song);
+        }
+        return tree;
+    }
+
+    @Benchmark
+    public IterableSortedCollection<Song> insertSorted() {
+        IterableSortedCollection<Song> tree = newTree(implementation);
+        for (Song song : sortedSongs) {
+            tree.insert(song);
+        }
+        return tree;
+    }
+
+    @Benchmark
+    public void fullScan(Blackhole blackhole) {
+        filled.setIteratorMin(null);
+        filled.setIteratorMax(null);
+        for (Song song : filled) {
+            blackhole.consume(song);
+        }
+    }
+
+    @Benchmark
+    public void boundedScan(Blackhole blackhole) {
+        filled.setIteratorMin(lowYear);
+        filled.setIteratorMax(highYear);
+        Iterator<Song> songs = filled.iterator();
+        while (songs.hasNext()) {
+            blackhole.consume(songs.next());
+        }
+    }
+}
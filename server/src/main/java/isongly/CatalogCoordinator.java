@@ -0,0 +1,152 @@
+package isongly;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * CatalogCoordinator - CS400 Project 1: iSongly
+ * This class answers queries over a catalog that is spread over several CatalogNodes. Every
+ * query is scattered to all nodes at the same time, and their answers are gathered: the year
+ * ordered ranges of the nodes are combined with a KWayMergeIterator, and the partial top-K lists
+ * of the nodes are merged in the same way until k songs are found.
+ * <p>
+ * The nodes answer one query at a time, so the queries of a coordinator are serialized, and a
+ * range returned by getRange should be used up before the next query is sent.
+ */
+public class CatalogCoordinator implements Closeable {
+  private static final Comparator<Song> YEAR_ORDER = Comparator.comparingInt(Song::getYear);
+
+  private final List<CatalogNode> nodes;
+  // sends the requests to the nodes, so slow nodes answer at the same time
+  private final ExecutorService scatter;
+
+  /**
+   * Creates a coordinator of nodes, which each hold a part of the catalog.
+   *
+   * @param nodes the nodes of the catalog
+   * @throws IllegalArgumentException when there are no nodes
+   */
+  public CatalogCoordinator(List<CatalogNode> nodes) {
+    if (nodes.isEmpty()) {
+      throw new IllegalArgumentException("A coordinator needs at least one node.");
+    }
+    this.nodes = new ArrayList<>(nodes);
+    this.scatter = Executors.newFixedThreadPool(nodes.size(), task -> {
+      Thread thread = new Thread(task, "catalog-coordinator");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * A query that is sent to a single node.
+   *
+   * @param <R> the type of the answer
+   */
+  private interface NodeQuery<R> {
+    R ask(CatalogNode node) throws IOException;
+  }
+
+  /**
+   * Helper method that sends query to every node at the same time, and returns their answers in
+   * the order of the nodes once all have answered.
+   */
+  private <R> List<R> scatterGather(NodeQuery<R> query) throws IOException {
+    List<Future<R>> futures = new ArrayList<>();
+    for (CatalogNode node : nodes) {
+      futures.add(scatter.submit(() -> query.ask(node)));
+    }
+    List<R> answers = new ArrayList<>();
+    IOException failure = null;
+    for (Future<R> future : futures) {
+      try {
+        answers.add(future.get());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while waiting for the nodes.");
+      } catch (ExecutionException e) {
+        // wait for the other nodes too, so none of them is still busy with this query
+        if (failure == null) {
+          failure = e.getCause() instanceof IOException ? (IOException) e.getCause()
+              : new IOException("A node failed to answer.", e.getCause());
+        }
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+    return answers;
+  }
+
+  /**
+   * Returns the songs of all nodes from year low to year high that are quieter than threshold,
+   * in year order. Songs of the same year are returned in the order of the nodes.
+   *
+   * @param low       the minimum year, or null for no minimum
+   * @param high      the maximum year, or null for no maximum
+   * @param threshold songs must have a loudness below this, or null for no filter
+   * @return iterator over the selected songs of all nodes, ordered by year
+   * @throws IOException when a node fails to answer
+   */
+  public synchronized Iterator<Song> getRange(Integer low, Integer high, Integer threshold)
+      throws IOException {
+    return new KWayMergeIterator<>(scatterGather(node -> node.range(low, high, threshold)),
+        YEAR_ORDER);
+  }
+
+  /**
+   * Returns the k most danceable songs of all nodes from year low to year high that are quieter
+   * than threshold, in CatalogNode.TOP_K_ORDER. Every node finds its own k songs, and these
+   * partial lists are merged until k songs are found.
+   *
+   * @param k         the number of songs to return at most
+   * @param low       the minimum year, or null for no minimum
+   * @param high      the maximum year, or null for no maximum
+   * @param threshold songs must have a loudness below this, or null for no filter
+   * @return the at most k selected songs, in TOP_K_ORDER
+   * @throws IOException when a node fails to answer
+   */
+  public synchronized List<Song> topK(int k, Integer low, Integer high, Integer threshold)
+      throws IOException {
+    List<Iterator<Song>> partial = new ArrayList<>();
+    for (List<Song> songs : scatterGather(node -> node.topK(k, low, high, threshold))) {
+      partial.add(songs.iterator());
+    }
+    Iterator<Song> merged = new KWayMergeIterator<>(partial, CatalogNode.TOP_K_ORDER);
+    List<Song> best = new ArrayList<>();
+    while (best.size() < k && merged.hasNext()) {
+      best.add(merged.next());
+    }
+    return best;
+  }
+
+  /**
+   * Stops the threads of the coordinator and closes every node.
+   *
+   * @throws IOException when a node cannot be closed
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    scatter.shutdownNow();
+    IOException failure = null;
+    for (CatalogNode node : nodes) {
+      try {
+        node.close();
+      } catch (IOException e) {
+        failure = failure == null ? e : failure;
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+}
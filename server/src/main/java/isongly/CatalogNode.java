@@ -0,0 +1,58 @@
+package isongly;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * CatalogNode - CS400 Project 1: iSongly
+ * A node holds one part of a catalog that is spread over several hosts, and answers the queries
+ * that a CatalogCoordinator scatters to all nodes. The songs that a node returns are ordered, so
+ * the coordinator can merge the answers of the nodes without sorting them again.
+ * LocalCatalogNode answers from a collection in the same process, and SocketCatalogNode sends the
+ * queries to a CatalogNodeServer on another host.
+ */
+public interface CatalogNode extends Closeable {
+
+  /**
+   * The order of the results of topK: most danceable first, and songs of the same danceability
+   * in year order.
+   */
+  Comparator<Song> TOP_K_ORDER = Comparator.comparingInt(Song::getDanceability).reversed()
+      .thenComparingInt(Song::getYear);
+
+  /**
+   * Returns the songs of this node from year low to year high that are quieter than the
+   * loudness threshold, in year order.
+   *
+   * @param low       the minimum year, or null for no minimum
+   * @param high      the maximum year, or null for no maximum
+   * @param threshold songs must have a loudness below this, or null for no filter
+   * @return iterator over the selected songs, ordered by year
+   * @throws IOException when the node cannot be reached
+   */
+  Iterator<Song> range(Integer low, Integer high, Integer threshold) throws IOException;
+
+  /**
+   * Returns the k first songs in TOP_K_ORDER among the songs that range would return.
+   *
+   * @param k         the number of songs to return at most
+   * @param low       the minimum year, or null for no minimum
+   * @param high      the maximum year, or null for no maximum
+   * @param threshold songs must have a loudness below this, or null for no filter
+   * @return the at most k selected songs, in TOP_K_ORDER
+   * @throws IOException when the node cannot be reached
+   */
+  List<Song> topK(int k, Integer low, Integer high, Integer threshold) throws IOException;
+
+  /**
+   * Releases the connection to the node, if there is one.
+   *
+   * @throws IOException when the connection cannot be closed
+   */
+  @Override
+  default void close() throws IOException {
+  }
+}
@@ -0,0 +1,184 @@
+package isongly;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * CatalogNodeServer - CS400 Project 1: iSongly
+ * This class answers the queries of SocketCatalogNode clients with a CatalogNode, usually a
+ * LocalCatalogNode over the songs of this host, using the protocol described in
+ * SocketCatalogNode. Every connection is served by its own thread, which streams the songs of a
+ * range in frames of FRAME_SONGS songs while it reads them from the node.
+ * <p>
+ * When a query fails before its first song is sent, the client receives an ERROR response and
+ * may send further queries. A failure in the middle of a range closes the connection, which the
+ * client notices when it reads the next frame.
+ */
+public class CatalogNodeServer implements Closeable {
+  // number of songs sent per frame of a response
+  static final int FRAME_SONGS = 256;
+
+  private final CatalogNode node;
+  private final ServerSocket serverSocket;
+  private final Set<Socket> connections = new HashSet<>();
+
+  /**
+   * Creates a server that answers queries with node on port. The server accepts connections
+   * once start has been called.
+   *
+   * @param node the node that answers the queries
+   * @param port the port to listen on, or 0 for any free port
+   * @throws IOException when the port cannot be opened
+   */
+  public CatalogNodeServer(CatalogNode node, int port) throws IOException {
+    this.node = node;
+    this.serverSocket = new ServerSocket(port);
+  }
+
+  /**
+   * Serves the songs of a CSV file on a port until the end of the standard input, for example:
+   * java -jar server/target/isongly-server.jar 7400 songs.csv
+   *
+   * @param args the port, and the CSV file that Backend.readData loads
+   * @throws IOException when the file cannot be read or the port cannot be opened
+   */
+  public static void main(String[] args) throws IOException {
+    IterableSortedCollection<Song> songs = new IterableRedBlackTree<>();
+    new Backend(songs).readData(args[1]);
+    CatalogNodeServer server = new CatalogNodeServer(new LocalCatalogNode(songs),
+        Integer.parseInt(args[0]));
+    System.out.println("Serving " + songs.size() + " songs on port " + server.getPort());
+    server.start();
+    while (System.in.read() >= 0) {
+      // the threads of the server are daemons, so keep running until the input ends
+    }
+    server.close();
+  }
+
+  /**
+   * @return the port that this server listens on
+   */
+  public int getPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  /**
+   * Starts a daemon thread that accepts connections until the server is closed.
+   */
+  public void start() {
+    Thread acceptor = new Thread(() -> {
+      while (!serverSocket.isClosed()) {
+        try {
+          Socket socket = serverSocket.accept();
+          synchronized (connections) {
+            connections.add(socket);
+          }
+          Thread connection = new Thread(() -> serve(socket), "catalog-node-connection");
+          connection.setDaemon(true);
+          connection.start();
+        } catch (IOException e) {
+          // the server socket was closed
+        }
+      }
+    }, "catalog-node-acceptor");
+    acceptor.setDaemon(true);
+    acceptor.start();
+  }
+
+  /**
+   * Helper method that answers the requests of a connection until the client closes it.
+   */
+  private void serve(Socket socket) {
+    try (socket) {
+      socket.setTcpNoDelay(true);
+      DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+      DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+          socket.getOutputStream(), 1 << 16));
+      while (true) {
+        byte operation;
+        try {
+          operation = in.readByte();
+        } catch (EOFException e) {
+          return; // the client closed the connection
+        }
+        int k = operation == SocketCatalogNode.TOP_K ? in.readInt() : 0;
+        Integer low = SocketCatalogNode.readOptional(in);
+        Integer high = SocketCatalogNode.readOptional(in);
+        Integer threshold = SocketCatalogNode.readOptional(in);
+        Iterator<Song> songs;
+        try {
+          if (operation == SocketCatalogNode.RANGE) {
+            songs = node.range(low, high, threshold);
+          } else if (operation == SocketCatalogNode.TOP_K) {
+            songs = node.topK(k, low, high, threshold).iterator();
+          } else {
+            throw new IOException("Unknown operation: " + operation);
+          }
+        } catch (IOException | RuntimeException e) {
+          out.writeByte(SocketCatalogNode.ERROR);
+          out.writeUTF(String.valueOf(e.getMessage()));
+          out.flush();
+          continue;
+        }
+        out.writeByte(SocketCatalogNode.OK);
+        writeFrames(out, songs);
+        out.flush();
+      }
+    } catch (IOException | RuntimeException e) {
+      // the connection failed or a range failed part way, closing the socket tells the client
+    } finally {
+      synchronized (connections) {
+        connections.remove(socket);
+      }
+    }
+  }
+
+  /**
+   * Helper method that writes songs in frames of up to FRAME_SONGS songs, followed by an empty
+   * frame.
+   */
+  private static void writeFrames(DataOutputStream out, Iterator<Song> songs) throws IOException {
+    List<Song> frame = new ArrayList<>(FRAME_SONGS);
+    while (true) {
+      frame.clear();
+      while (frame.size() < FRAME_SONGS && songs.hasNext()) {
+        frame.add(songs.next());
+      }
+      out.writeInt(frame.size());
+      for (Song song : frame) {
+        SongCodec.write(out, song);
+      }
+      if (frame.isEmpty()) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Stops accepting connections and closes the open connections.
+   *
+   * @throws IOException when the server socket cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    serverSocket.close();
+    synchronized (connections) {
+      for (Socket socket : connections) {
+        socket.close();
+      }
+      connections.clear();
+    }
+  }
+}
@@ -0,0 +1,151 @@
+package isongly;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * LocalCatalogNode - CS400 Project 1: iSongly
+ * This class is a CatalogNode that answers queries from a collection of songs in the same
+ * process. It stands in for a remote node when the coordinator runs on a single machine, and is
+ * what a CatalogNodeServer uses to answer the queries it receives. The songs of the collection
+ * must be ordered by year.
+ */
+public class LocalCatalogNode implements CatalogNode {
+  private static final Comparator<Song> YEAR_ORDER = Comparator.comparingInt(Song::getYear);
+
+  private final IterableSortedCollection<Song> songs;
+
+  /**
+   * Creates a node that answers from songs.
+   *
+   * @param songs the songs of the node, ordered by year
+   */
+  public LocalCatalogNode(IterableSortedCollection<Song> songs) {
+    this.songs = songs;
+  }
+
+  /**
+   * Helper method that creates a Song which compares to other songs by year only, to be used as
+   * an iterator bound.
+   */
+  private static Song yearBound(Integer year) {
+    if (year == null) {
+      return null;
+    }
+    return new Song("", "", "", year, 0, 0, 0, 0, 0, YEAR_ORDER);
+  }
+
+  /**
+   * Returns the songs from year low to year high that are quieter than threshold, in year order.
+   * The songs are read lazily from an iterator of the collection bounded to the year range.
+   *
+   * @param low       the minimum year, or null for no minimum
+   * @param high      the maximum year, or null for no maximum
+   * @param threshold songs must have a loudness below this, or null for no filter
+   * @return iterator over the selected songs, ordered by year
+   */
+  @Override
+  public Iterator<Song> range(Integer low, Integer high, Integer threshold) {
+    Iterator<Song> all;
+    synchronized (songs) {
+      songs.setIteratorMin(yearBound(low));
+      songs.setIteratorMax(yearBound(high));
+      all = songs.iterator();
+      songs.setIteratorMin(null);
+      songs.setIteratorMax(null);
+    }
+    return new Iterator<Song>() {
+      private Song next = advance();
+
+      private Song advance() {
+        while (all.hasNext()) {
+          Song song = all.next();
+          if (threshold == null || song.getLoudness() < threshold) {
+            return song;
+          }
+        }
+        return null;
+      }
+
+      @Override
+      public boolean hasNext() {
+        return next != null;
+      }
+
+      @Override
+      public Song next() {
+        if (next == null) {
+          throw new NoSuchElementException("There are no more songs in this range.");
+        }
+        Song song = next;
+        next = advance();
+        return song;
+      }
+    };
+  }
+
+  /**
+   * Returns the k first songs in TOP_K_ORDER among the songs that range returns. A
+   * ShardedCatalog finds them with its parallel topK, other collections with a scan that keeps
+   * only the k best songs so far in a heap.
+   *
+   * @param k         the number of songs to return at most
+   * @param low       the minimum year, or null for no minimum
+   * @param high      the maximum year, or null for no maximum
+   * @param threshold songs must have a loudness below this, or null for no filter
+   * @return the at most k selected songs, in TOP_K_ORDER
+   */
+  @Override
+  public List<Song> topK(int k, Integer low, Integer high, Integer threshold) {
+    if (songs instanceof ShardedCatalog) {
+      return ((ShardedCatalog) songs).topK(k, TOP_K_ORDER, low, high,
+          song -> threshold == null || song.getLoudness() < threshold);
+    }
+    List<Song> best = new ArrayList<>();
+    if (k <= 0) {
+      return best;
+    }
+    // the k best songs so far with the worst on top, ties broken by their position in the range
+    PriorityQueue<Ranked> heap = new PriorityQueue<>(k + 1, Collections.reverseOrder());
+    Iterator<Song> selected = range(low, high, threshold);
+    for (long position = 0; selected.hasNext(); position++) {
+      Ranked ranked = new Ranked(selected.next(), position);
+      if (heap.size() < k) {
+        heap.add(ranked);
+      } else if (ranked.compareTo(heap.peek()) < 0) {
+        heap.poll();
+        heap.add(ranked);
+      }
+    }
+    while (!heap.isEmpty()) {
+      best.add(heap.poll().song);
+    }
+    Collections.reverse(best);
+    return best;
+  }
+
+  /**
+   * Nested class for a song that topK selected, ordered by TOP_K_ORDER and then by its position
+   * in the range, so that equal songs keep their year order like with a stable sort.
+   */
+  private static class Ranked implements Comparable<Ranked> {
+    private final Song song;
+    private final long position;
+
+    private Ranked(Song song, long position) {
+      this.song = song;
+      this.position = position;
+    }
+
+    @Override
+    public int compareTo(Ranked other) {
+      int order = TOP_K_ORDER.compare(song, other.song);
+      return order != 0 ? order : Long.compare(position, other.position);
+    }
+  }
+}
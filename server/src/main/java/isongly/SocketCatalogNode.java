@@ -0,0 +1,209 @@
+package isongly;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.Socket;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * SocketCatalogNode - CS400 Project 1: iSongly
+ * This class is a CatalogNode that sends queries over a TCP connection to a CatalogNodeServer.
+ * <p>
+ * The protocol is binary and uses DataOutput. A request is an operation byte (RANGE or TOP_K),
+ * for TOP_K the int k, and then the low year, high year and loudness threshold, each as a
+ * boolean that tells whether it is set followed by the int when it is. The response starts with
+ * a status byte: OK, or ERROR followed by a UTF message. The songs follow in frames of an int
+ * count and that many SongCodec records, and a frame with a count of 0 ends the response.
+ * <p>
+ * The songs of a range are read from the connection as the iterator reaches them, so a node
+ * streams a large range without holding it in memory. A node has one connection and answers one
+ * request at a time: starting a new query skips the rest of an unfinished range, so a node must
+ * not be queried by several threads at once.
+ */
+public class SocketCatalogNode implements CatalogNode {
+  // operations of the requests
+  static final byte RANGE = 1;
+  static final byte TOP_K = 2;
+  // status of the responses
+  static final byte OK = 0;
+  static final byte ERROR = 1;
+
+  private static final Comparator<Song> YEAR_ORDER = Comparator.comparingInt(Song::getYear);
+
+  private final Socket socket;
+  private final DataInputStream in;
+  private final DataOutputStream out;
+  // whether the frames of an earlier response have not all been read yet
+  private boolean unfinished = false;
+  // number of requests sent, so a range iterator notices that a later request skipped its rest
+  private long requests = 0;
+
+  /**
+   * Connects to the CatalogNodeServer at host and port.
+   *
+   * @param host the host of the server
+   * @param port the port of the server
+   * @throws IOException when the connection cannot be made
+   */
+  public SocketCatalogNode(String host, int port) throws IOException {
+    socket = new Socket(host, port);
+    socket.setTcpNoDelay(true);
+    in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 1 << 16));
+    out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 1 << 16));
+  }
+
+  /**
+   * Writes a year or threshold that may be null.
+   *
+   * @param out   the output to write to
+   * @param value the value, or null
+   * @throws IOException when writing fails
+   */
+  static void writeOptional(DataOutput out, Integer value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeInt(value);
+    }
+  }
+
+  /**
+   * Reads a value written by writeOptional.
+   *
+   * @param in the input to read from
+   * @return the value, or null
+   * @throws IOException when reading fails
+   */
+  static Integer readOptional(DataInput in) throws IOException {
+    return in.readBoolean() ? in.readInt() : null;
+  }
+
+  /**
+   * Helper method that sends a request, after skipping the rest of the previous response, and
+   * reads the status of its response.
+   */
+  private void request(byte operation, int k, Integer low, Integer high, Integer threshold)
+      throws IOException {
+    while (unfinished) {
+      readFrame(new ArrayDeque<>());
+    }
+    out.writeByte(operation);
+    if (operation == TOP_K) {
+      out.writeInt(k);
+    }
+    writeOptional(out, low);
+    writeOptional(out, high);
+    writeOptional(out, threshold);
+    out.flush();
+    requests++;
+    if (in.readByte() != OK) {
+      throw new IOException("The node failed to answer: " + in.readUTF());
+    }
+    unfinished = true;
+  }
+
+  /**
+   * Helper method that reads the next frame of the current response into songs, and notes the
+   * end of the response.
+   */
+  private void readFrame(ArrayDeque<Song> songs) throws IOException {
+    int count = in.readInt();
+    for (int i = 0; i < count; i++) {
+      songs.add(SongCodec.read(in, YEAR_ORDER));
+    }
+    if (count == 0) {
+      unfinished = false;
+    }
+  }
+
+  /**
+   * Asks the server for the songs from year low to year high that are quieter than threshold.
+   * The returned iterator reads the songs from the connection frame by frame, and throws an
+   * UncheckedIOException when the connection fails. It ends early when another query is sent
+   * to this node before it has been used up.
+   *
+   * @param low       the minimum year, or null for no minimum
+   * @param high      the maximum year, or null for no maximum
+   * @param threshold songs must have a loudness below this, or null for no filter
+   * @return iterator over the selected songs, ordered by year
+   * @throws IOException when the request cannot be sent or the node fails to answer it
+   */
+  @Override
+  public synchronized Iterator<Song> range(Integer low, Integer high, Integer threshold)
+      throws IOException {
+    request(RANGE, 0, low, high, threshold);
+    long request = requests;
+    return new Iterator<Song>() {
+      private final ArrayDeque<Song> frame = new ArrayDeque<>();
+      private boolean done = false;
+
+      @Override
+      public boolean hasNext() {
+        synchronized (SocketCatalogNode.this) {
+          try {
+            while (frame.isEmpty() && !done) {
+              if (requests != request) {
+                break; // a later request skipped the rest of this range
+              }
+              readFrame(frame);
+              done = !unfinished;
+            }
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+          return !frame.isEmpty();
+        }
+      }
+
+      @Override
+      public Song next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException("There are no more songs in this range.");
+        }
+        return frame.poll();
+      }
+    };
+  }
+
+  /**
+   * Asks the server for the k first songs in TOP_K_ORDER among the songs that range would
+   * return.
+   *
+   * @param k         the number of songs to return at most
+   * @param low       the minimum year, or null for no minimum
+   * @param high      the maximum year, or null for no maximum
+   * @param threshold songs must have a loudness below this, or null for no filter
+   * @return the at most k selected songs, in TOP_K_ORDER
+   * @throws IOException when the request fails
+   */
+  @Override
+  public synchronized List<Song> topK(int k, Integer low, Integer high, Integer threshold)
+      throws IOException {
+    request(TOP_K, k, low, high, threshold);
+    ArrayDeque<Song> songs = new ArrayDeque<>();
+    while (unfinished) {
+      readFrame(songs);
+    }
+    return new ArrayList<>(songs);
+  }
+
+  /**
+   * Closes the connection to the server.
+   *
+   * @throws IOException when the connection cannot be closed
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    socket.close();
+  }
+}
@@ -0,0 +1,134 @@
+package isongly;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class contains JUnit tests for the CatalogCoordinator and its CatalogNode transports.
+ */
+public class CatalogCoordinatorTests {
+
+  // orders songs by year, like the comparator that Backend passes to every Song
+  private static final Comparator<Song> BY_YEAR = Comparator.comparingInt(Song::getYear);
+
+  /**
+   * Helper method that spreads random songs over parts, and also inserts all of them into whole.
+   */
+  private static List<IterableSortedCollection<Song>> spread(int parts, int count,
+      IterableSortedCollection<Song> whole) {
+    List<IterableSortedCollection<Song>> trees = new ArrayList<>();
+    for (int i = 0; i < parts; i++) {
+      trees.add(new IterableRedBlackTree<>());
+    }
+    Random random = new Random(parts);
+    for (int i = 0; i < count; i++) {
+      Song song = new Song("Song " + i, "Artist", "pop", 1960 + random.nextInt(60), 120, 60,
+          random.nextInt(100), -random.nextInt(15), 10, BY_YEAR);
+      trees.get(random.nextInt(parts)).insert(song);
+      whole.insert(song);
+    }
+    return trees;
+  }
+
+  /**
+   * Helper method that collects the titles of songs, sorted, so that songs of the same year can
+   * be compared without depending on their order.
+   */
+  private static List<String> titles(Iterator<Song> songs) {
+    List<String> titles = new ArrayList<>();
+    songs.forEachRemaining(song -> titles.add(song.getYear() + " " + song.getTitle()));
+    return titles.stream().sorted().collect(Collectors.toList());
+  }
+
+  /**
+   * Helper method that describes the danceability and year of songs, in their order, which
+   * identifies the order of top songs even when songs of the same year were merged differently.
+   */
+  private static List<String> ranks(List<Song> songs) {
+    return songs.stream().map(song -> song.getDanceability() + "@" + song.getYear())
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Test that a coordinator of local nodes returns the same range, in year order, and the same
+   * top songs as a single node that holds all songs, whose top songs are those of a sort.
+   */
+  @Test
+  public void coordinatorTest1() throws IOException {
+    IterableRedBlackTree<Song> whole = new IterableRedBlackTree<>();
+    List<CatalogNode> nodes = new ArrayList<>();
+    for (IterableSortedCollection<Song> part : spread(4, 4000, whole)) {
+      nodes.add(new LocalCatalogNode(part));
+    }
+    LocalCatalogNode single = new LocalCatalogNode(whole);
+    try (CatalogCoordinator coordinator = new CatalogCoordinator(nodes)) {
+      Iterator<Song> range = coordinator.getRange(1975, 1994, -5);
+      int previous = Integer.MIN_VALUE;
+      List<Song> songs = new ArrayList<>();
+      while (range.hasNext()) {
+        Song song = range.next();
+        Assertions.assertTrue(song.getYear() >= previous, "The merged range should be ordered.");
+        previous = song.getYear();
+        songs.add(song);
+      }
+      Assertions.assertEquals(titles(single.range(1975, 1994, -5)), titles(songs.iterator()),
+          "The nodes together should hold the songs of the single node.");
+      Assertions.assertEquals(ranks(single.topK(10, 1980, null, -3)),
+          ranks(coordinator.topK(10, 1980, null, -3)),
+          "The merged top songs should be the same.");
+    }
+    List<Song> sorted = new ArrayList<>();
+    single.range(1980, null, -3).forEachRemaining(sorted::add);
+    sorted.sort(CatalogNode.TOP_K_ORDER);
+    Assertions.assertEquals(sorted.subList(0, 10), single.topK(10, 1980, null, -3),
+        "The heap of a node should keep equal songs in year order, like a stable sort.");
+  }
+
+  /**
+   * Test that the same queries return the same songs when the nodes are reached through
+   * CatalogNodeServers, and that a node which is queried again skips the rest of a range.
+   */
+  @Test
+  public void coordinatorTest2() throws IOException {
+    IterableRedBlackTree<Song> whole = new IterableRedBlackTree<>();
+    List<CatalogNodeServer> servers = new ArrayList<>();
+    List<CatalogNode> nodes = new ArrayList<>();
+    try {
+      for (IterableSortedCollection<Song> part : spread(3, 3000, whole)) {
+        CatalogNodeServer server = new CatalogNodeServer(new LocalCatalogNode(part), 0);
+        server.start();
+        servers.add(server);
+        nodes.add(new SocketCatalogNode("localhost", server.getPort()));
+      }
+      LocalCatalogNode single = new LocalCatalogNode(whole);
+      try (CatalogCoordinator coordinator = new CatalogCoordinator(nodes)) {
+        Iterator<Song> partial = nodes.get(0).range(null, null, null);
+        Assertions.assertTrue(partial.hasNext(), "The node should hold songs.");
+        Assertions.assertEquals(titles(single.range(null, 1990, null)),
+            titles(coordinator.getRange(null, 1990, null)),
+            "The remote nodes together should hold the songs of the single node.");
+        Assertions.assertEquals(ranks(single.topK(7, null, null, -8)),
+            ranks(coordinator.topK(7, null, null, -8)),
+            "The merged top songs should be the same.");
+        int rest = 0;
+        while (partial.hasNext()) {
+          partial.next();
+          rest++;
+        }
+        Assertions.assertTrue(rest <= CatalogNodeServer.FRAME_SONGS,
+            "Only the frame that was read before the next query should be left.");
+      }
+    } finally {
+      for (CatalogNodeServer server : servers) {
+        server.close();
+      }
+    }
+  }
+}